@@ -0,0 +1,70 @@
+package com.walter.demopark.config;
+
+import com.walter.demopark.config.RoteamentoDataSource.Replica;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Classe MonitorReplicas que verifica periodicamente as réplicas de leitura do RoteamentoDataSource.
+ * A cada verificação grava o instante atual na tabela replicacao_heartbeat do primário e lê, em cada réplica,
+ * o último instante replicado. A diferença é o atraso de replicação; a réplica fica disponível se responder
+ * e o atraso não passar do máximo tolerado (atraso máximo zero desliga a verificação do atraso).
+ *
+ * O atraso medido inclui até um intervalo de verificação, pois o instante lido pode ser o da verificação
+ * anterior, então o atraso máximo deve ser maior que o intervalo.
+ */
+@Slf4j
+public class MonitorReplicas {
+
+    private static final String GRAVAR = "update replicacao_heartbeat set instante = ? where id = 1";
+    private static final String LER = "select instante from replicacao_heartbeat where id = 1";
+
+    private final RoteamentoDataSource roteamentoDataSource;
+    private final JdbcTemplate primario;
+    private final Duration atrasoMaximo;
+
+    public MonitorReplicas(RoteamentoDataSource roteamentoDataSource, Duration atrasoMaximo) {
+        this.roteamentoDataSource = roteamentoDataSource;
+        this.primario = new JdbcTemplate(roteamentoDataSource.getPrimario());
+        this.atrasoMaximo = atrasoMaximo;
+    }
+
+    @Scheduled(fixedDelayString = "${demopark.datasource.replicas.intervalo-verificacao:5000}")
+    public void verificar() {
+        long agora = System.currentTimeMillis();
+        try {
+            primario.update(GRAVAR, agora);
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao gravar o heartbeat de replicação no primário: {}", ex.getMessage());
+        }
+        for (Replica replica : roteamentoDataSource.getReplicas()) {
+            boolean disponivel = avaliar(replica, agora);
+            if (disponivel != replica.isDisponivel()) {
+                log.info("Réplica {} {} para leituras", replica.getNome(), disponivel ? "habilitada" : "desabilitada");
+            }
+            replica.setDisponivel(disponivel);
+        }
+    }
+
+    private boolean avaliar(Replica replica, long agora) {
+        try {
+            Long instante = new JdbcTemplate(replica.getDataSource()).queryForObject(LER, Long.class);
+            if (atrasoMaximo.isZero()) {
+                return true;
+            }
+            long atraso = agora - (instante == null ? 0 : instante);
+            if (atraso > atrasoMaximo.toMillis()) {
+                log.debug("Réplica {} com atraso de {} ms", replica.getNome(), atraso);
+                return false;
+            }
+            return true;
+        } catch (DataAccessException ex) {
+            log.warn("Réplica {} não respondeu: {}", replica.getNome(), ex.getMessage());
+            return false;
+        }
+    }
+}
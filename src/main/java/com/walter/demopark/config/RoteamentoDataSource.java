@@ -0,0 +1,98 @@
+package com.walter.demopark.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe RoteamentoDataSource que direciona as transações somente leitura (@Transactional(readOnly = true))
+ * para as réplicas de leitura, em rodízio, e todas as demais operações para o banco primário.
+ * Réplicas marcadas como indisponíveis pelo MonitorReplicas (fora do ar ou com atraso de replicação acima
+ * do tolerado) são ignoradas; sem nenhuma réplica disponível, a leitura vai para o primário.
+ *
+ * As leituras que alimentam o cache de segundo nível (buscas de entidades por id ou chave natural), as que geram
+ * ETags e as que seguem uma gravação (ex.: a consulta do check-in recém-criado) são marcadas com o rótulo PRIMARIO
+ * e vão sempre para o primário: uma réplica atrasada deixaria no cache, ou devolveria ao cliente, um estado que o
+ * primário já alterou. As demais leituras da réplica usam projeções e consultas JDBC, que não passam pelo cache.
+ *
+ * A escolha é feita quando a conexão é obtida, por isso este DataSource deve ser envolvido por um
+ * LazyConnectionDataSourceProxy: o JpaTransactionManager pede a conexão antes de marcar a transação como
+ * somente leitura, e o proxy adia a obtenção da conexão real até o primeiro comando SQL.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARIO = "primario";
+
+    // Recurso ligado à transação somente leitura rotulada com PRIMARIO pelo RoteamentoTransactionManager
+    static final String LEITURA_NO_PRIMARIO = RoteamentoDataSource.class.getName() + ".leituraNoPrimario";
+
+    /**
+     * Réplica de leitura e o seu estado conforme a última verificação do MonitorReplicas.
+     * Uma réplica começa indisponível até ser verificada.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Replica {
+        private final String nome;
+        private final DataSource dataSource;
+        @Setter
+        private volatile boolean disponivel;
+    }
+
+    @Getter
+    private final DataSource primario;
+    @Getter
+    private final List<Replica> replicas;
+
+    // Posição do rodízio entre as réplicas
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public RoteamentoDataSource(DataSource primario, List<Replica> replicas) {
+        this.primario = primario;
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIO, primario);
+        this.replicas.forEach(replica -> destinos.put(replica.getNome(), replica.getDataSource()));
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()
+                || TransactionSynchronizationManager.hasResource(LEITURA_NO_PRIMARIO)) {
+            return PRIMARIO;
+        }
+        int inicio = Math.floorMod(proxima.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((inicio + i) % replicas.size());
+            if (replica.isDisponivel()) {
+                return replica.getNome();
+            }
+        }
+        return PRIMARIO;
+    }
+
+    /**
+     * Fecha os pools de conexões do primário e das réplicas no encerramento da aplicação.
+     */
+    @Override
+    public void close() throws Exception {
+        if (primario instanceof AutoCloseable pool) {
+            pool.close();
+        }
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.walter.demopark.config;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Classe RoteamentoTransactionManager que leva ao RoteamentoDataSource o rótulo das transações somente leitura
+ * que devem ler do primário (@Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)).
+ * O rótulo vale para a transação iniciada pelo método; um método rotulado que participa de uma transação já
+ * em andamento usa a conexão dela.
+ */
+public class RoteamentoTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        if (definition.isReadOnly() && definition instanceof TransactionAttribute atributo
+                && atributo.getLabels().contains(RoteamentoDataSource.PRIMARIO)
+                && !TransactionSynchronizationManager.hasResource(RoteamentoDataSource.LEITURA_NO_PRIMARIO)) {
+            TransactionSynchronizationManager.bindResource(RoteamentoDataSource.LEITURA_NO_PRIMARIO, transaction);
+        }
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        super.doCleanupAfterCompletion(transaction);
+        if (TransactionSynchronizationManager.getResource(RoteamentoDataSource.LEITURA_NO_PRIMARIO) == transaction) {
+            TransactionSynchronizationManager.unbindResource(RoteamentoDataSource.LEITURA_NO_PRIMARIO);
+        }
+    }
+}
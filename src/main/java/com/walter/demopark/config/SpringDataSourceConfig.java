@@ -0,0 +1,89 @@
+package com.walter.demopark.config;
+
+import com.walter.demopark.config.RoteamentoDataSource.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuração das réplicas de leitura, ativada por demopark.datasource.replicas.habilitado=true.
+ * O primário continua configurado por spring.datasource.*; as réplicas são listadas em
+ * demopark.datasource.replicas.urls e usam o mesmo usuário e senha, salvo configuração própria.
+ * Sem a propriedade, a aplicação usa o DataSource único criado pelo Spring Boot.
+ * Os pools aqui criados não são ligados a spring.datasource.hikari.*; o tamanho máximo e a espera por conexão,
+ * que limitam a concorrência no perfil virtual, são lidos dessas propriedades e aplicados a cada pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "demopark.datasource.replicas.habilitado", havingValue = "true")
+public class SpringDataSourceConfig {
+
+    @Bean
+    public RoteamentoDataSource roteamentoDataSource(DataSourceProperties properties,
+                                                     @Value("${demopark.datasource.replicas.urls}") List<String> urls,
+                                                     @Value("${demopark.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                                     @Value("${demopark.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                                     @Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanhoPool,
+                                                     @Value("${spring.datasource.hikari.connection-timeout:30000}") long esperaConexao) {
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primario.setPoolName(RoteamentoDataSource.PRIMARIO);
+        primario.setMaximumPoolSize(tamanhoPool);
+        primario.setConnectionTimeout(esperaConexao);
+
+        List<Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(tamanhoPool);
+            replica.setConnectionTimeout(esperaConexao);
+            replicas.add(new Replica(replica.getPoolName(), replica));
+        }
+        return new RoteamentoDataSource(primario, replicas);
+    }
+
+    /**
+     * DataSource usado pelo JPA, JdbcTemplate e Flyway. O proxy adia a obtenção da conexão até o primeiro comando,
+     * quando a transação já está marcada como somente leitura e o roteamento pode escolher a réplica.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteamentoDataSource roteamentoDataSource) {
+        return new LazyConnectionDataSourceProxy(roteamentoDataSource);
+    }
+
+    /**
+     * Gerenciador de transações do JPA que respeita o rótulo PRIMARIO das leituras que não podem ir para a réplica.
+     * Substitui o criado pelo Spring Boot, com os mesmos customizadores (spring.transaction.*).
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        RoteamentoTransactionManager transactionManager = new RoteamentoTransactionManager();
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public MonitorReplicas monitorReplicas(RoteamentoDataSource roteamentoDataSource,
+                                           @Value("${demopark.datasource.replicas.atraso-maximo:0s}") Duration atrasoMaximo) {
+        return new MonitorReplicas(roteamentoDataSource, atrasoMaximo);
+    }
+}
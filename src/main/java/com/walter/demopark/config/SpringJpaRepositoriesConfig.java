@@ -0,0 +1,14 @@
+package com.walter.demopark.config;
+
+import com.walter.demopark.repository.NaturalIdRepositoryImpl;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Configuração dos repositórios do Spring Data JPA, que passam a usar NaturalIdRepositoryImpl como classe base
+ * para oferecer a busca pela chave natural das entidades através do cache de segundo nível do Hibernate.
+ */
+@Configuration
+@EnableJpaRepositories(basePackages = "com.walter.demopark.repository", repositoryBaseClass = NaturalIdRepositoryImpl.class)
+public class SpringJpaRepositoriesConfig {
+}
@@ -0,0 +1,55 @@
+package com.walter.demopark.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Configuração dos endpoints reativos (Mono e Flux) atendidos pelo Spring MVC em modo assíncrono: a requisição
+ * libera a thread do Tomcat enquanto espera o resultado, e uma conexão ociosa, como o fluxo de ocupação de uma
+ * cancela, não ocupa thread nenhuma.
+ *
+ * O acesso ao banco continua por JDBC, bloqueante, e roda no scheduler "persistencia", limitado ao tamanho do pool
+ * de conexões: mais threads do que conexões só ficariam esperando o pool.
+ */
+@Configuration
+public class SpringReactorConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final Duration tempoMaximo;
+
+    public SpringReactorConfig(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor applicationTaskExecutor,
+                               @Value("${demopark.reativo.tempo-maximo:30m}") Duration tempoMaximo) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.tempoMaximo = tempoMaximo;
+    }
+
+    /**
+     * Scheduler das chamadas bloqueantes ao banco feitas pelos endpoints reativos, com uma thread por conexão
+     * do pool e uma fila limitada de tarefas à espera.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler persistenciaScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanhoPool,
+                                           @Value("${demopark.reativo.fila:10000}") int fila) {
+        return Schedulers.newBoundedElastic(tamanhoPool, fila, "persistencia");
+    }
+
+    /**
+     * Com @EnableWebMvc a configuração assíncrona do Spring Boot não é aplicada: o executor que escreve os
+     * elementos dos fluxos nas respostas (de threads virtuais no perfil virtual) e o tempo máximo de uma resposta
+     * assíncrona, após o qual o cliente de um fluxo deve reconectar, são definidos aqui.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(applicationTaskExecutor);
+        configurer.setDefaultTimeout(tempoMaximo.toMillis());
+    }
+}
@@ -0,0 +1,13 @@
+package com.walter.demopark.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuração que habilita a execução de tarefas agendadas (@Scheduled) na aplicação,
+ * como a limpeza dos relatórios gerados em disco que já expiraram.
+ */
+@Configuration
+@EnableScheduling
+public class SpringSchedulingConfig {
+}
@@ -2,6 +2,7 @@ package com.walter.demopark.config;
 
 import com.walter.demopark.jwt.JwtAuthenticationEntryPoint;
 import com.walter.demopark.jwt.JwtAuthorizationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -69,6 +70,16 @@ public class SpringSecurityConfig {
                         auth.requestMatchers(HttpMethod.POST, "/api/v1/usuarios").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/v1/auth").permitAll()
                                 .requestMatchers(DOCUMENTATION_OPENAPI).permitAll()
+                                // Health para qualquer usuário autenticado; métricas e demais endpoints do actuator só para ADMIN
+                                .requestMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                                // O despacho assíncrono dos endpoints reativos conclui uma requisição já autorizada no
+                                // despacho original; os demais despachos assíncronos seguem as regras abaixo
+                                .requestMatchers(request -> request.getDispatcherType() == DispatcherType.ASYNC
+                                        && request.getRequestURI().startsWith("/api/v1/reativo/")).permitAll()
+                                // O despacho de erro só escreve a resposta de uma requisição já recusada (ex.: 403 do actuator
+                                // para CLIENTE); sem esta regra o /error exigiria autenticação e a resposta viraria 401
+                                .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                                 // Exige autenticação para todas as outras requisições
                                 .anyRequest().authenticated())
 
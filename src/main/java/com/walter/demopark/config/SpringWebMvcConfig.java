@@ -0,0 +1,25 @@
+package com.walter.demopark.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Configuração da negociação de conteúdo do Spring MVC.
+ *
+ * O jackson-dataformat-xml chega ao classpath pelo jasperreports e, com @EnableWebMvc, o conversor XML é registrado
+ * antes do JSON: uma requisição sem Accept, ou com Accept que aceite os dois, recebe application/xml. A API é JSON,
+ * então o conversor XML é movido para o fim da lista e só atende quem pedir XML explicitamente.
+ */
+@Configuration
+public class SpringWebMvcConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.sort(Comparator.comparing(conversor -> conversor instanceof MappingJackson2XmlHttpMessageConverter));
+    }
+}
@@ -5,6 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -20,21 +24,28 @@ import java.util.Objects;
 @NoArgsConstructor @AllArgsConstructor
 @Table(name = "clientes")
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clientes")
+@NaturalIdCache(region = "clientes-natural-id")
 @EntityListeners(AuditingEntityListener.class)
 public class Cliente implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdTabela("clientes")
     @Column(name = "id")
     private Long id;
     @Column(name = "nome", nullable = false, length = 100)
     private String nome;
+    @NaturalId
     @Column(name = "cpf", nullable = false, unique = true, length = 11)
     private String cpf;
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", nullable = false)
     private Usuario usuario;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @CreatedDate
     @Column(name = "data_criacao")
     private LocalDateTime dataCriacao;
@@ -23,13 +23,14 @@ import java.util.Objects;
 public class ClienteVaga {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdTabela("clientes_tem_vagas")
     @Column(name = "id", nullable = false)
     private Long id;
 
     @Column(name = "numero_recibo", nullable = false, unique = true, length = 40)
     private String recibo;
-    @Column(name = "placa", nullable = false, unique = true, length = 8)
+    // Única apenas entre os estacionamentos em aberto, pelo índice da coluna gerada placa_ativa (migração V9)
+    @Column(name = "placa", nullable = false, length = 8)
     private String placa;
     @Column(name = "marca", nullable = false, length = 50)
     private String marca;
@@ -46,14 +47,18 @@ public class ClienteVaga {
     @Column(name = "desconto", nullable = true, columnDefinition = "DECIMAL(7,2)")
     private BigDecimal desconto;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cliente", nullable = false)
     private Cliente cliente;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_vaga", nullable = false)
     private Vaga vaga;
 
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @CreatedDate
     @Column(name = "data_criacao")
     private LocalDateTime dataCriacao;
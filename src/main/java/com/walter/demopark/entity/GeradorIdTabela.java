@@ -0,0 +1,51 @@
+package com.walter.demopark.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Classe GeradorIdTabela que gera os ids das entidades a partir da tabela sequencias, com o otimizador pooled-lo.
+ * Cada acesso à tabela reserva um bloco de ids em memória, do tamanho definido pela propriedade
+ * demopark.id.tamanho-alocacao, o que evita uma ida ao banco de dados por inserção. Diferente de
+ * GenerationType.IDENTITY, o id é conhecido antes do INSERT, permitindo que o Hibernate agrupe as inserções
+ * em lotes JDBC (hibernate.jdbc.batch_size). Cada entidade usa uma linha própria da tabela, indicada
+ * na anotação IdTabela do seu id.
+ *
+ * As colunas id não têm auto incremento (V3__sequencias): toda inserção feita fora do Hibernate precisa informar o
+ * id e reservá-lo na tabela sequencias, para não repetir um id de um bloco já entregue ao gerador.
+ */
+public class GeradorIdTabela extends TableGenerator {
+
+    /**
+     * Propriedade do Hibernate (spring.jpa.properties.demopark.id.tamanho-alocacao) com o tamanho dos blocos de ids.
+     */
+    public static final String TAMANHO_ALOCACAO = "demopark.id.tamanho-alocacao";
+
+    private static final String TAMANHO_ALOCACAO_PADRAO = "50";
+
+    private final String segmento;
+
+    public GeradorIdTabela(IdTabela config, Member membro, CustomIdGeneratorCreationContext contexto) {
+        this.segmento = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Object tamanho = serviceRegistry.getService(ConfigurationService.class).getSettings().get(TAMANHO_ALOCACAO);
+        params.putIfAbsent(TABLE_PARAM, "sequencias");
+        params.putIfAbsent(SEGMENT_COLUMN_PARAM, "nome");
+        params.put(SEGMENT_VALUE_PARAM, segmento);
+        params.putIfAbsent(VALUE_COLUMN_PARAM, "proximo_valor");
+        // Com pooled-lo o valor da tabela é o primeiro id do próximo bloco, então o bloco nunca repete ids já usados
+        params.putIfAbsent(OPT_PARAM, "pooled-lo");
+        params.putIfAbsent(INCREMENT_PARAM, tamanho == null ? TAMANHO_ALOCACAO_PADRAO : tamanho.toString());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,25 @@
+package com.walter.demopark.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Anotação que marca o id de uma entidade como gerado pela tabela sequencias, com o GeradorIdTabela.
+ * O valor é o nome da linha da tabela usada pela entidade, normalmente o nome da tabela da entidade.
+ */
+@IdGeneratorType(GeradorIdTabela.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface IdTabela {
+
+    /**
+     * Nome da linha da tabela sequencias (coluna nome) com o próximo id da entidade.
+     */
+    String value();
+}
@@ -5,6 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -16,6 +20,8 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vagas")
+@NaturalIdCache(region = "vagas-natural-id")
 @Table(name = "vagas")
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -25,10 +31,11 @@ import java.util.Objects;
 public class Vaga implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdTabela("vagas")
     @Column(name = "id", nullable = false)
     private Long id;
 
+    @NaturalId
     @Column(name = "codigo", nullable = false, unique = true, length = 4)
     private String codigo;
 
@@ -36,6 +43,10 @@ public class Vaga implements Serializable {
     @Column(name = "status", nullable = false)
     private StatusVaga status;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @CreatedDate
     @Column(name = "data_criacao")
     private LocalDateTime dataCriacao;
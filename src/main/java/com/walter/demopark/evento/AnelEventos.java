@@ -0,0 +1,133 @@
+package com.walter.demopark.evento;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffer circular (ring buffer) de eventos com um único produtor, o DespachanteEventos, e uma thread consumidora
+ * por assinante. Cada evento publicado recebe uma sequência crescente e ocupa a posição sequência % capacidade;
+ * cada consumidor guarda a sequência do último evento que o seu assinante processou e lê, em lotes, tudo o que
+ * foi publicado depois dela. O produtor só escreve em posições já processadas por todos os consumidores, então
+ * os eventos não são copiados nem sobrescritos antes de entregues, e não há bloqueio entre as threads.
+ */
+@Slf4j
+class AnelEventos {
+
+    // Espera máxima de um consumidor ocioso; a publicação acorda os consumidores antes disso
+    private static final long ESPERA_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EventoEstacionamento[] posicoes;
+    private final int mascara;
+    private final int loteMaximo;
+    private final Duration pausaErro;
+
+    /**
+     * Sequência do último evento publicado. A escrita volátil, feita depois de preencher as posições, as torna
+     * visíveis aos consumidores.
+     */
+    private final AtomicLong publicado = new AtomicLong(-1);
+
+    private final List<Consumidor> consumidores;
+
+    AnelEventos(int capacidade, int loteMaximo, Duration pausaErro, List<AssinanteEventos> assinantes) {
+        if (capacidade <= 0 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("A capacidade do anel de eventos deve ser uma potência de 2");
+        }
+        this.posicoes = new EventoEstacionamento[capacidade];
+        this.mascara = capacidade - 1;
+        this.loteMaximo = loteMaximo;
+        this.pausaErro = pausaErro;
+        this.consumidores = assinantes.stream().map(Consumidor::new).toList();
+    }
+
+    void iniciar() {
+        consumidores.forEach(consumidor -> consumidor.thread.start());
+    }
+
+    void encerrar() {
+        consumidores.forEach(consumidor -> consumidor.thread.interrupt());
+    }
+
+    /**
+     * Retorna quantos eventos podem ser publicados sem alcançar o consumidor mais lento.
+     */
+    int livre() {
+        return posicoes.length - (int) (publicado.get() - consumido());
+    }
+
+    /**
+     * Publica os eventos, em ordem. O chamador deve respeitar o espaço retornado por {@link #livre()}.
+     *
+     * @return A sequência do último evento publicado.
+     */
+    long publicar(List<EventoEstacionamento> eventos) {
+        long sequencia = publicado.get();
+        for (EventoEstacionamento evento : eventos) {
+            sequencia++;
+            posicoes[(int) sequencia & mascara] = evento;
+        }
+        publicado.set(sequencia);
+        consumidores.forEach(consumidor -> LockSupport.unpark(consumidor.thread));
+        return sequencia;
+    }
+
+    /**
+     * Retorna a maior sequência já processada por todos os assinantes. Sem assinantes, todo evento publicado
+     * é considerado processado.
+     */
+    long consumido() {
+        long minimo = publicado.get();
+        for (Consumidor consumidor : consumidores) {
+            minimo = Math.min(minimo, consumidor.sequencia.get());
+        }
+        return minimo;
+    }
+
+    /**
+     * Thread que entrega ao assinante, em lotes, os eventos publicados depois da sua sequência. Se o assinante
+     * falhar, o mesmo lote é entregue de novo após uma pausa.
+     */
+    private final class Consumidor implements Runnable {
+
+        private final AssinanteEventos assinante;
+        private final AtomicLong sequencia = new AtomicLong(-1);
+        private final Thread thread;
+
+        private Consumidor(AssinanteEventos assinante) {
+            this.assinante = assinante;
+            this.thread = new Thread(this, "eventos-" + assinante.getClass().getSimpleName());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                long proximo = sequencia.get() + 1;
+                long disponivel = publicado.get();
+                if (disponivel < proximo) {
+                    LockSupport.parkNanos(ESPERA_NANOS);
+                    continue;
+                }
+                long ultimo = Math.min(disponivel, proximo + loteMaximo - 1);
+                List<EventoEstacionamento> lote = new ArrayList<>((int) (ultimo - proximo + 1));
+                for (long s = proximo; s <= ultimo; s++) {
+                    lote.add(posicoes[(int) s & mascara]);
+                }
+                try {
+                    assinante.receber(lote);
+                    sequencia.set(ultimo);
+                } catch (RuntimeException ex) {
+                    log.error("Falha do assinante {} ao processar {} eventos, o lote será entregue de novo",
+                            assinante.getClass().getSimpleName(), lote.size(), ex);
+                    LockSupport.parkNanos(pausaErro.toNanos());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.walter.demopark.evento;
+
+import java.util.List;
+
+/**
+ * Assinante dos eventos de estacionamento. Todo bean que implementa esta interface recebe, em uma thread própria,
+ * os lotes de eventos publicados pelo DespachanteEventos.
+ * Não há garantia de ordem entre os eventos: o id da outbox é atribuído na inserção, e não no commit, então um
+ * evento de uma transação mais longa pode ser publicado depois de eventos com ids maiores. O processamento não
+ * deve depender da ordem de chegada; para um mesmo recibo, o check-out pode chegar antes do check-in.
+ * A entrega é ao menos uma vez: se o método lançar uma exceção, o mesmo lote é entregue de novo, e após uma queda
+ * da aplicação os eventos ainda não confirmados por todos os assinantes são republicados. O processamento deve,
+ * portanto, ser idempotente, por exemplo pelo id do evento.
+ */
+public interface AssinanteEventos {
+
+    /**
+     * Processa um lote de eventos.
+     *
+     * @param eventos Os eventos do lote, nunca vazio.
+     */
+    void receber(List<EventoEstacionamento> eventos);
+}
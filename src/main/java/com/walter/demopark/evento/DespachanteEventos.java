@@ -0,0 +1,157 @@
+package com.walter.demopark.evento;
+
+import com.walter.demopark.repository.EventoOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Classe DespachanteEventos que publica aos assinantes (AssinanteEventos) os eventos gravados na outbox pelo
+ * EstacionamentoService. A cada execução agendada, lê da outbox um lote de eventos ainda não publicados e os
+ * publica no AnelEventos, de onde cada assinante os consome na sua própria thread; os eventos já processados por
+ * todos os assinantes são então removidos da outbox. A transação do check-in ou do check-out apenas grava a
+ * linha do evento, e nenhuma entrega acontece dentro dela.
+ * A entrega é ao menos uma vez: um evento só sai da outbox depois de processado, então uma queda da aplicação
+ * faz com que os eventos em andamento sejam publicados de novo, por esta ou por outra instância, quando a sua reserva
+ * vencer. Com mais de uma instância da aplicação, cada lote é reservado por uma delas (select ... for update skip
+ * locked e a coluna reservado_ate, por demopark.eventos.reserva) e entregue aos assinantes dessa instância.
+ * Os eventos não são entregues em ordem de commit (ver AssinanteEventos).
+ * O despachante vem desligado (demopark.eventos.habilitado): sem nenhum AssinanteEventos na aplicação, ligá-lo só
+ * removeria os eventos da outbox sem entregá-los a ninguém, e por isso ele também não executa sem assinantes.
+ */
+@Slf4j
+@Component
+public class DespachanteEventos {
+
+    /**
+     * Um evento publicado no anel e ainda não confirmado por todos os assinantes.
+     */
+    private record EmAndamento(long sequencia, long id) {
+    }
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AnelEventos anel;
+    private final int lote;
+    private final Duration reserva;
+    private final boolean habilitado;
+
+    // Serializa as execuções de despachar(). Um ReentrantLock, e não synchronized, para não prender a thread do
+    // sistema operacional durante o JDBC quando o agendador usa threads virtuais
+    private final ReentrantLock trava = new ReentrantLock();
+
+    // Acessados apenas pelas execuções de despachar(), sob a trava
+    private final Deque<EmAndamento> emAndamento = new ArrayDeque<>();
+    private final Set<Long> idsEmAndamento = new HashSet<>();
+
+    public DespachanteEventos(EventoOutboxRepository eventoOutboxRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectProvider<AssinanteEventos> assinantes,
+                              @Value("${demopark.eventos.habilitado:false}") boolean habilitado,
+                              @Value("${demopark.eventos.lote:500}") int lote,
+                              @Value("${demopark.eventos.capacidade:8192}") int capacidade,
+                              @Value("${demopark.eventos.pausa-erro:1s}") Duration pausaErro,
+                              @Value("${demopark.eventos.reserva:5m}") Duration reserva) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.lote = lote;
+        this.reserva = reserva;
+        List<AssinanteEventos> lista = assinantes.orderedStream().toList();
+        if (habilitado && lista.isEmpty()) {
+            log.warn("demopark.eventos.habilitado=true sem nenhum AssinanteEventos: a outbox não será despachada");
+        }
+        this.habilitado = habilitado && !lista.isEmpty();
+        this.anel = new AnelEventos(capacidade, lote, pausaErro, lista);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        anel.iniciar();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        anel.encerrar();
+    }
+
+    /**
+     * Remove da outbox os eventos confirmados e publica o próximo lote, limitado ao espaço livre do anel.
+     * Os eventos em andamento continuam na outbox, reservados para esta instância.
+     */
+    @Scheduled(fixedDelayString = "${demopark.eventos.intervalo:200}")
+    public void despachar() {
+        if (!habilitado) {
+            return;
+        }
+        trava.lock();
+        try {
+            publicar();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Confirma os eventos processados, reserva o próximo lote de eventos livres e o publica no anel.
+     */
+    private void publicar() {
+        confirmar();
+
+        int espaco = Math.min(lote, anel.livre());
+        if (espaco == 0) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        List<EventoEstacionamento> reservados = transactionTemplate.execute(status -> {
+            List<EventoEstacionamento> livres = eventoOutboxRepository.bloquearLivres(espaco, agora);
+            eventoOutboxRepository.reservar(livres.stream().map(EventoEstacionamento::id).toList(), agora.plus(reserva));
+            return livres;
+        });
+        // Um evento ainda em andamento aqui volta se a sua reserva vencer: a reserva é renovada, mas ele já está no anel
+        List<EventoEstacionamento> eventos = reservados.stream()
+                .filter(evento -> !idsEmAndamento.contains(evento.id()))
+                .toList();
+        if (eventos.isEmpty()) {
+            return;
+        }
+
+        long primeira = anel.publicar(eventos) - eventos.size() + 1;
+        for (int i = 0; i < eventos.size(); i++) {
+            long id = eventos.get(i).id();
+            emAndamento.addLast(new EmAndamento(primeira + i, id));
+            idsEmAndamento.add(id);
+        }
+    }
+
+    /**
+     * Remove da outbox, em um único comando, os eventos já processados por todos os assinantes.
+     */
+    private void confirmar() {
+        long consumido = anel.consumido();
+        List<Long> ids = new ArrayList<>();
+        while (!emAndamento.isEmpty() && emAndamento.peekFirst().sequencia() <= consumido) {
+            long id = emAndamento.pollFirst().id();
+            idsEmAndamento.remove(id);
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            eventoOutboxRepository.remover(ids);
+            log.debug("{} eventos confirmados e removidos da outbox", ids.size());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.walter.demopark.evento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de estacionamento publicado aos assinantes pelo DespachanteEventos, lido de uma linha da tabela
+ * eventos_outbox. O id é o da linha e pode ser usado pelos assinantes para descartar entregas repetidas.
+ * No check-in, o instante é a data de entrada e valor e desconto são nulos; no check-out, o instante é a
+ * data de saída.
+ */
+public record EventoEstacionamento(Long id, Tipo tipo, String recibo, String cpf, String vaga,
+                                   LocalDateTime instante, BigDecimal valor, BigDecimal desconto) {
+
+    public enum Tipo {
+        CHECK_IN, CHECK_OUT
+    }
+
+    public static EventoEstacionamento checkIn(String recibo, String cpf, String vaga, LocalDateTime dataEntrada) {
+        return new EventoEstacionamento(null, Tipo.CHECK_IN, recibo, cpf, vaga, dataEntrada, null, null);
+    }
+
+    public static EventoEstacionamento checkOut(String recibo, String cpf, String vaga, LocalDateTime dataSaida,
+                                                BigDecimal valor, BigDecimal desconto) {
+        return new EventoEstacionamento(null, Tipo.CHECK_OUT, recibo, cpf, vaga, dataSaida, valor, desconto);
+    }
+}
@@ -0,0 +1,8 @@
+package com.walter.demopark.exception;
+
+public class PeriodoInvalidoException extends RuntimeException {
+
+    public PeriodoInvalidoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.walter.demopark.exception;
+
+public class PlacaUniqueViolationException extends RuntimeException {
+
+    public PlacaUniqueViolationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.walter.demopark.exception;
+
+public class RelatorioFilaCheiaException extends RuntimeException {
+
+    public RelatorioFilaCheiaException(String message) {
+        super(message);
+    }
+}
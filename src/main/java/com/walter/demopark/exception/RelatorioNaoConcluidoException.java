@@ -0,0 +1,8 @@
+package com.walter.demopark.exception;
+
+public class RelatorioNaoConcluidoException extends RuntimeException {
+
+    public RelatorioNaoConcluidoException(String message) {
+        super(message);
+    }
+}
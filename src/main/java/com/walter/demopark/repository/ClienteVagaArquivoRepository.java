@@ -0,0 +1,65 @@
+package com.walter.demopark.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classe ClienteVagaArquivoRepository que move os estacionamentos encerrados de clientes_tem_vagas para
+ * clientes_tem_vagas_arquivo, em lotes de tamanho fixo. As operações são feitas via JDBC, sem carregar as
+ * entidades, e devem ser chamadas dentro de uma transação para que a reserva, a cópia e a remoção de um lote sejam
+ * atômicas.
+ */
+@Repository
+public class ClienteVagaArquivoRepository {
+
+    private static final String COLUNAS = "id, numero_recibo, placa, marca, modelo, cor, data_entrada, data_saida, "
+            + "valor, desconto, id_cliente, id_vaga, data_criacao, data_modificacao, criado_por, modificado_por";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int tamanhoLote;
+
+    public ClienteVagaArquivoRepository(DataSource dataSource,
+                                        @Value("${demopark.arquivamento.lote:500}") int tamanhoLote) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Reserva os ids do próximo lote de estacionamentos encerrados antes da data limite, em ordem de id.
+     * As linhas ficam bloqueadas até o fim da transação, e as já bloqueadas por outra instância que arquiva ao
+     * mesmo tempo são puladas (skip locked), então cada instância move um lote diferente.
+     *
+     * @param limite A data de saída limite, exclusiva.
+     * @return Uma lista com, no máximo, o tamanho do lote de ids.
+     */
+    public List<Long> reservarIdsEncerradosAntesDe(LocalDateTime limite) {
+        return jdbcTemplate.queryForList("select id from clientes_tem_vagas where data_saida < ? order by id "
+                + "limit ? for update skip locked", Long.class, limite, tamanhoLote);
+    }
+
+    /**
+     * Copia os estacionamentos informados para a tabela de arquivo e os remove da tabela principal.
+     *
+     * @param ids Os ids dos estacionamentos a mover.
+     * @param arquivadoEm A data de arquivamento gravada em cada linha.
+     * @return O número de estacionamentos movidos.
+     */
+    public int mover(List<Long> ids, LocalDateTime arquivadoEm) {
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] parametros = new Object[ids.size() + 1];
+        parametros[0] = arquivadoEm;
+        for (int i = 0; i < ids.size(); i++) {
+            parametros[i + 1] = ids.get(i);
+        }
+        jdbcTemplate.update("insert into clientes_tem_vagas_arquivo (" + COLUNAS + ", data_arquivamento) "
+                + "select " + COLUNAS + ", ? from clientes_tem_vagas where id in (" + marcadores + ")", parametros);
+        return jdbcTemplate.update("delete from clientes_tem_vagas where id in (" + marcadores + ")", ids.toArray());
+    }
+}
@@ -0,0 +1,84 @@
+package com.walter.demopark.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe ClienteVagaExportacaoRepository que percorre o histórico de estacionamentos para as exportações em massa.
+ * A consulta é feita via JDBC, sem passar pelo contexto de persistência do JPA, com um cursor somente para frente
+ * e tamanho de busca (fetch size) configurado, de modo que cada linha é entregue ao chamador assim que lida e
+ * descartada em seguida. No MySQL, o cursor no servidor depende da opção useCursorFetch=true na URL de conexão.
+ * A consulta lê clientes_tem_vagas e clientes_tem_vagas_arquivo, incluindo os estacionamentos arquivados, com
+ * os filtros aplicados em cada lado do union all para que cada tabela use os seus índices.
+ */
+@Repository
+public class ClienteVagaExportacaoRepository {
+
+    /**
+     * Filtros opcionais da exportação. Campos nulos não filtram. O período se aplica à data de entrada,
+     * com o último dia incluído.
+     */
+    public record Filtro(String cpf, LocalDate inicio, LocalDate fim, String vaga) {
+    }
+
+    // A coluna id, a última, é usada apenas na ordenação do union
+    private static final String SELECT = "select cv.numero_recibo, c.cpf, c.nome, cv.placa, cv.marca, cv.modelo, cv.cor, "
+            + "v.codigo, cv.data_entrada, cv.data_saida, cv.valor, cv.desconto, cv.id "
+            + "from %s cv "
+            + "join clientes c on c.id = cv.id_cliente "
+            + "join vagas v on v.id = cv.id_vaga";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClienteVagaExportacaoRepository(DataSource dataSource,
+                                           @Value("${demopark.exportacao.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Percorre os estacionamentos que atendem ao filtro, em ordem de id, entregando cada linha ao handler.
+     * As colunas seguem a ordem: numero_recibo, cpf, nome, placa, marca, modelo, cor, codigo da vaga,
+     * data_entrada, data_saida, valor e desconto.
+     *
+     * @param filtro Os filtros da exportação.
+     * @param handler O callback chamado para cada linha do ResultSet.
+     */
+    public void percorrer(Filtro filtro, RowCallbackHandler handler) {
+        StringBuilder filtros = new StringBuilder();
+        List<Object> parametros = new ArrayList<>();
+        String conector = " where ";
+        if (filtro.cpf() != null) {
+            filtros.append(conector).append("c.cpf = ?");
+            parametros.add(filtro.cpf());
+            conector = " and ";
+        }
+        if (filtro.vaga() != null) {
+            filtros.append(conector).append("v.codigo = ?");
+            parametros.add(filtro.vaga());
+            conector = " and ";
+        }
+        if (filtro.inicio() != null) {
+            filtros.append(conector).append("cv.data_entrada >= ?");
+            parametros.add(filtro.inicio().atStartOfDay());
+            conector = " and ";
+        }
+        if (filtro.fim() != null) {
+            filtros.append(conector).append("cv.data_entrada < ?");
+            parametros.add(filtro.fim().plusDays(1).atStartOfDay());
+        }
+        String sql = String.format(SELECT, "clientes_tem_vagas") + filtros
+                + " union all " + String.format(SELECT, "clientes_tem_vagas_arquivo") + filtros
+                + " order by id";
+        List<Object> parametrosUniao = new ArrayList<>(parametros);
+        parametrosUniao.addAll(parametros);
+        jdbcTemplate.query(sql, handler, parametrosUniao.toArray());
+    }
+}
@@ -0,0 +1,257 @@
+package com.walter.demopark.repository;
+
+import com.walter.demopark.repository.projection.ClienteVagaProjection;
+import com.walter.demopark.repository.projection.ClienteVagaRelatorioProjection;
+import com.walter.demopark.repository.projection.HistoricoVersaoProjection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+/**
+ * Classe ClienteVagaHistoricoRepository com as consultas de histórico de estacionamentos, que incluem os
+ * estacionamentos já arquivados, de modo que os resultados não mudam quando o ArquivamentoService move um
+ * estacionamento para clientes_tem_vagas_arquivo.
+ *
+ * As consultas não usam a view clientes_tem_vagas_historico: o MySQL materializa a view (union all) por inteiro e
+ * não leva até ela o filtro por cliente, que vem da junção com clientes, então cada consulta percorreria as duas
+ * tabelas. Aqui cada consulta é um union all das duas tabelas com o filtro dentro de cada lado, que usa os índices
+ * por id_cliente (ver V2 e V5). As consultas são feitas via JDBC e as linhas devolvidas como as mesmas projeções
+ * usadas pelo Spring Data.
+ */
+@Repository
+public class ClienteVagaHistoricoRepository {
+
+    private static final String TABELA = "clientes_tem_vagas";
+    private static final String ARQUIVO = "clientes_tem_vagas_arquivo";
+
+    private static final String COLUNAS = "select cv.id as id, cv.placa as placa, cv.marca as marca, cv.modelo as modelo, "
+            + "cv.cor as cor, c.cpf as clienteCpf, cv.numero_recibo as recibo, cv.data_entrada as dataEntrada, "
+            + "cv.data_saida as dataSaida, v.codigo as vagaCodigo, cv.valor as valor";
+
+    private static final String COLUNAS_RELATORIO = COLUNAS + ", c.nome as clienteNome, cv.desconto as desconto";
+
+    private static final String JUNCOES = " cv join clientes c on c.id = cv.id_cliente join vagas v on v.id = cv.id_vaga ";
+
+    // Propriedades de ClienteVagaProjection aceitas na ordenação das páginas, que são também os nomes das colunas
+    private static final List<String> ORDENAVEIS = List.of("placa", "marca", "modelo", "cor", "clienteCpf", "recibo",
+            "dataEntrada", "dataSaida", "vagaCodigo", "valor");
+
+    // O H2 devolve as datas como Timestamp; as projeções usam LocalDateTime
+    private static final ColumnMapRowMapper LINHA = new ColumnMapRowMapper() {
+        @Override
+        protected Object getColumnValue(ResultSet rs, int index) throws SQLException {
+            Object valor = super.getColumnValue(rs, index);
+            return valor instanceof Timestamp data ? data.toLocalDateTime() : valor;
+        }
+    };
+
+    /**
+     * Totais de um intervalo do relatório por período.
+     */
+    public record TotaisPeriodo(long estacionamentos, BigDecimal receita, BigDecimal descontos, long segundosOcupados) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    public ClienteVagaHistoricoRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Conta o número de vagas que um cliente, identificado pelo CPF, utilizou e já tem uma data de saída (vaga já finalizada).
+     * As duas tabelas são contadas em separado e os totais somados; os arquivados sempre têm data de saída.
+     *
+     * @param cpf O CPF do cliente.
+     * @return O número de vagas que o cliente com o CPF fornecido já utilizou e tem data de saída preenchida.
+     */
+    public long countByClienteCpfAndDataSaidaIsNotNull(String cpf) {
+        Long total = jdbcTemplate.queryForObject(
+                "select (select count(*) from " + TABELA + " cv join clientes c on c.id = cv.id_cliente "
+                        + "where c.cpf = ? and cv.data_saida is not null) "
+                        + "+ (select count(*) from " + ARQUIVO + " cv join clientes c on c.id = cv.id_cliente "
+                        + "where c.cpf = ?)",
+                Long.class, cpf, cpf);
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Retorna uma página de projeções ClienteVagaProjection, filtrada pelo CPF do cliente.
+     * A paginação é controlada pelo parâmetro Pageable, permitindo resultados paginados. A ordenação usa os nomes
+     * da projeção (ex.: dataEntrada).
+     *
+     * @param cpf O CPF do cliente para filtrar as vagas.
+     * @param pageable Objeto Pageable que contém as informações de paginação.
+     * @return Uma página de ClienteVagaProjection correspondente ao CPF fornecido.
+     */
+    public Page<ClienteVagaProjection> findAllByClienteCpf(String cpf, Pageable pageable) {
+        return pagina("where c.cpf = ?", cpf, pageable);
+    }
+
+    /**
+     * Retorna uma página de projeções ClienteVagaProjection, filtrada pelo ID do usuário associado ao cliente.
+     * A paginação é controlada pelo parâmetro Pageable, permitindo resultados paginados. A ordenação usa os nomes
+     * da projeção (ex.: dataEntrada).
+     *
+     * @param id O ID do usuário associado ao cliente.
+     * @param pageable Objeto Pageable que contém as informações de paginação.
+     * @return Uma página de ClienteVagaProjection correspondente ao ID de usuário fornecido.
+     */
+    public Page<ClienteVagaProjection> findAllByClienteUsuarioId(Long id, Pageable pageable) {
+        return pagina("where c.id_usuario = ?", id, pageable);
+    }
+
+    /**
+     * Retorna a versão do histórico de estacionamentos de um cliente: o total de registros e a data da alteração
+     * mais recente. Qualquer check-in ou check-out do cliente muda ao menos um dos dois valores.
+     *
+     * @param cpf O CPF do cliente.
+     * @return Uma projeção com o total de registros e a data da última modificação do histórico.
+     */
+    public HistoricoVersaoProjection buscarVersaoHistorico(String cpf) {
+        String versao = "select count(*) as total, max(coalesce(cv.data_modificacao, cv.data_entrada)) as ultimaModificacao "
+                + "from %s cv join clientes c on c.id = cv.id_cliente where c.cpf = ?";
+        Map<String, Object> linha = jdbcTemplate.queryForObject(
+                "select sum(total) as total, max(ultimaModificacao) as ultimaModificacao from ("
+                        + String.format(versao, TABELA) + " union all " + String.format(versao, ARQUIVO) + ") h",
+                LINHA, cpf, cpf);
+        return projectionFactory.createProjection(HistoricoVersaoProjection.class, linha);
+    }
+
+    /**
+     * Retorna o próximo lote do histórico de estacionamentos de um cliente, em ordem de placa e id, a partir
+     * da última linha lida (paginação por chave). Diferente da paginação por offset, o custo de cada lote não
+     * cresce com a posição no histórico, permitindo percorrer históricos grandes em lotes de tamanho fixo.
+     *
+     * @param cpf O CPF do cliente.
+     * @param placa A placa da última linha lida, ou uma string vazia para o primeiro lote.
+     * @param id O id da última linha lida, ou 0 para o primeiro lote.
+     * @param tamanho O tamanho máximo do lote.
+     * @return Uma lista com, no máximo, o tamanho do lote de projeções para o relatório.
+     */
+    public List<ClienteVagaRelatorioProjection> buscarLoteRelatorio(String cpf, String placa, Long id, int tamanho) {
+        String sql = "select * from ("
+                + uniao(COLUNAS_RELATORIO, "where c.cpf = ? and (cv.placa > ? or (cv.placa = ? and cv.id > ?))")
+                + ") h order by placa, id limit ?";
+        return projetar(ClienteVagaRelatorioProjection.class, jdbcTemplate.query(sql, LINHA,
+                cpf, placa, placa, id, cpf, placa, placa, id, tamanho));
+    }
+
+    /**
+     * Soma, no banco de dados, os totais de todos os clientes no intervalo [inicio, fim): o número de
+     * estacionamentos encerrados no intervalo, com a sua receita e os seus descontos, e os segundos em que as vagas
+     * estiveram ocupadas dentro do intervalo, inclusive pelos estacionamentos ainda em aberto, que contam até agora.
+     * Cada tabela é somada em separado, com os filtros usando o índice por data de entrada e saída.
+     *
+     * @param inicio O início do intervalo, inclusivo.
+     * @param fim O fim do intervalo, exclusivo.
+     * @param agora O instante usado como saída dos estacionamentos em aberto.
+     * @return Os totais do intervalo.
+     */
+    public TotaisPeriodo somarPorPeriodo(LocalDateTime inicio, LocalDateTime fim, LocalDateTime agora) {
+        String totais = "select count(case when cv.data_saida < ? then 1 end) as estacionamentos, "
+                + "sum(case when cv.data_saida < ? then cv.valor end) as receita, "
+                + "sum(case when cv.data_saida < ? then cv.desconto end) as descontos, "
+                + "sum(greatest(timestampdiff(second, greatest(cv.data_entrada, ?), "
+                + "least(coalesce(cv.data_saida, ?), ?)), 0)) as segundos "
+                + "from %s cv where cv.data_entrada < ? and (cv.data_saida is null or cv.data_saida >= ?)";
+        Object[] parametros = {fim, fim, fim, inicio, agora, fim, fim, inicio};
+        return jdbcTemplate.queryForObject("select sum(estacionamentos), coalesce(sum(receita), 0), "
+                        + "coalesce(sum(descontos), 0), coalesce(sum(segundos), 0) from ("
+                        + String.format(totais, TABELA) + " union all " + String.format(totais, ARQUIVO) + ") h",
+                (rs, rowNum) -> new TotaisPeriodo(rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getLong(4)),
+                Stream.of(parametros, parametros).flatMap(Arrays::stream).toArray());
+    }
+
+    /**
+     * Percorre os estacionamentos de todos os clientes encerrados no intervalo [inicio, fim), em ordem de data de
+     * entrada e id, entregando o ResultSet ao extrator. As linhas são lidas à medida que o extrator avança, sem
+     * serem carregadas em uma lista. As colunas são as de ClienteVagaRelatorioProjection.
+     *
+     * @param inicio O início do intervalo, inclusivo.
+     * @param fim O fim do intervalo, exclusivo.
+     * @param extrator O callback que consome o ResultSet.
+     * @return O resultado do extrator.
+     */
+    public <T> T percorrerEncerradosPorPeriodo(LocalDateTime inicio, LocalDateTime fim, ResultSetExtractor<T> extrator) {
+        String sql = "select * from ("
+                + uniao(COLUNAS_RELATORIO, "where cv.data_entrada < ? and cv.data_saida >= ? and cv.data_saida < ?")
+                + ") h order by dataEntrada, id";
+        return jdbcTemplate.query(sql, extrator, fim, inicio, fim, fim, inicio, fim);
+    }
+
+    /**
+     * Monta uma página do histórico com o filtro, de um único parâmetro, aplicado às duas tabelas. A contagem
+     * só é feita quando o total não pode ser deduzido do conteúdo da página.
+     */
+    private Page<ClienteVagaProjection> pagina(String filtro, Object parametro, Pageable pageable) {
+        StringBuilder sql = new StringBuilder("select * from (").append(uniao(COLUNAS, filtro)).append(") h")
+                .append(ordenacao(pageable.getSort()));
+        List<Map<String, Object>> linhas;
+        if (pageable.isPaged()) {
+            sql.append(" limit ? offset ?");
+            linhas = jdbcTemplate.query(sql.toString(), LINHA, parametro, parametro, pageable.getPageSize(), pageable.getOffset());
+        } else {
+            linhas = jdbcTemplate.query(sql.toString(), LINHA, parametro, parametro);
+        }
+
+        String contagem = "select count(*) from %s" + JUNCOES + filtro;
+        return PageableExecutionUtils.getPage(projetar(ClienteVagaProjection.class, linhas), pageable, () -> {
+            Long total = jdbcTemplate.queryForObject(
+                    "select (" + String.format(contagem, TABELA) + ") + (" + String.format(contagem, ARQUIVO) + ")",
+                    Long.class, parametro, parametro);
+            return total == null ? 0 : total;
+        });
+    }
+
+    /**
+     * Une as duas tabelas com o mesmo filtro em cada lado, para que cada uma use os seus índices.
+     */
+    private static String uniao(String colunas, String filtro) {
+        return colunas + " from " + TABELA + JUNCOES + filtro
+                + " union all " + colunas + " from " + ARQUIVO + JUNCOES + filtro;
+    }
+
+    /**
+     * Converte a ordenação da página em SQL, aceitando apenas as propriedades da projeção. O id desempata as
+     * linhas com os mesmos valores, para que a divisão em páginas seja estável.
+     */
+    private static String ordenacao(Sort sort) {
+        StringJoiner ordem = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            if (!ORDENAVEIS.contains(order.getProperty())) {
+                throw new PropertyReferenceException(order.getProperty(),
+                        TypeInformation.of(ClienteVagaProjection.class), List.of());
+            }
+            ordem.add(order.getProperty() + (order.isAscending() ? " asc" : " desc"));
+        }
+        ordem.add("id");
+        return ordem.toString();
+    }
+
+    private <T> List<T> projetar(Class<T> tipo, List<Map<String, Object>> linhas) {
+        return linhas.stream().map(linha -> projectionFactory.createProjection(tipo, linha)).toList();
+    }
+}
@@ -1,56 +1,104 @@
 package com.walter.demopark.repository;
 
 import com.walter.demopark.entity.ClienteVaga;
-import com.walter.demopark.repository.projection.ClienteVagaProjection;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.walter.demopark.repository.projection.EstacionamentoAbertoProjection;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Interface ClienteVagaRepository que estende JpaRepository.
  * Esta interface é responsável por realizar operações de acesso a dados relacionadas à entidade ClienteVaga, utilizando a API JPA.
  * Ela contém métodos personalizados para consultar dados específicos no banco de dados, além de herdar operações CRUD da JpaRepository.
+ * Atua apenas sobre a tabela clientes_tem_vagas; as consultas de histórico, que incluem os estacionamentos
+ * arquivados, ficam em ClienteVagaHistoricoRepository.
  */
 public interface ClienteVagaRepository extends JpaRepository<ClienteVaga, Long> {
 
     /**
      * Busca uma instância de ClienteVaga cujo recibo corresponda ao fornecido e que não tenha data de saída (vaga ainda ativa).
      * A implementação deste método é gerada automaticamente pelo Spring Data JPA com base na nomenclatura do método.
+     * O grafo carrega, na mesma consulta, o cliente e a vaga usados no check-out e na resposta (CPF e código da vaga);
+     * o usuário do cliente não é carregado.
      *
      * @param recibo O número do recibo associado à vaga do cliente.
      * @return Um Optional que pode conter um ClienteVaga com o recibo fornecido e data de saída nula, ou estar vazio se não houver correspondência.
      */
+    @EntityGraph(attributePaths = {"cliente", "vaga"})
     Optional<ClienteVaga> findByReciboAndDataSaidaIsNull(String recibo);
 
     /**
-     * Conta o número de vagas que um cliente, identificado pelo CPF, utilizou e já tem uma data de saída (vaga já finalizada).
-     * A implementação é gerada automaticamente pelo Spring Data JPA.
+     * Conta os estacionamentos em aberto da placa, 0 ou 1. A consulta filtra pela coluna gerada placa_ativa,
+     * que só tem valor enquanto não há data de saída, para usar o seu índice único (ver V9).
      *
-     * @param cpf O CPF do cliente.
-     * @return O número de vagas que o cliente com o CPF fornecido já utilizou e tem data de saída preenchida.
+     * @param placa A placa do veículo.
+     * @return 1 se a placa tiver um estacionamento em aberto, 0 caso contrário.
      */
-    long countByClienteCpfAndDataSaidaIsNotNull(String cpf);
+    @Query(value = "select count(*) from clientes_tem_vagas where placa_ativa = :placa", nativeQuery = true)
+    long contarAbertosPorPlaca(@Param("placa") String placa);
 
     /**
-     * Retorna uma página de projeções ClienteVagaProjection, filtrada pelo CPF do cliente.
-     * A paginação é controlada pelo parâmetro Pageable, permitindo resultados paginados.
+     * Busca, sem carregar entidades, o estacionamento em aberto da placa. Como em contarAbertosPorPlaca, a consulta
+     * filtra pela coluna gerada placa_ativa para usar o seu índice único.
      *
-     * @param cpf O CPF do cliente para filtrar as vagas.
-     * @param pageable Objeto Pageable que contém as informações de paginação.
-     * @return Uma página de ClienteVagaProjection correspondente ao CPF fornecido.
+     * @param placa A placa do veículo, no formato gravado (AAA-0000).
+     * @return Um Optional com a projeção do estacionamento em aberto, ou vazio se a placa não estiver estacionada.
      */
-    Page<ClienteVagaProjection> findAllByClienteCpf(String cpf, Pageable pageable);
+    @Query(value = "select cv.id as id, cv.placa as placa, cv.marca as marca, cv.modelo as modelo, cv.cor as cor, "
+            + "c.cpf as clienteCpf, cv.numero_recibo as recibo, cv.data_entrada as dataEntrada, "
+            + "v.id as vagaId, v.codigo as vagaCodigo "
+            + "from clientes_tem_vagas cv join clientes c on c.id = cv.id_cliente join vagas v on v.id = cv.id_vaga "
+            + "where cv.placa_ativa = :placa", nativeQuery = true)
+    Optional<EstacionamentoAbertoProjection> buscarAbertoPorPlaca(@Param("placa") String placa);
 
     /**
-     * Retorna uma página de projeções ClienteVagaProjection, filtrada pelo ID do usuário associado ao cliente.
-     * A paginação é controlada pelo parâmetro Pageable, permitindo resultados paginados.
+     * Busca, sem carregar entidades, os dados do estacionamento em aberto com o recibo fornecido usados no check-out:
+     * o id para a atualização, a data de entrada para o cálculo do valor, o CPF para o desconto e a vaga a liberar.
      *
-     * @param id O ID do usuário associado ao cliente.
-     * @param pageable Objeto Pageable que contém as informações de paginação.
-     * @return Uma página de ClienteVagaProjection correspondente ao ID de usuário fornecido.
+     * @param recibo O número do recibo.
+     * @return Um Optional com a projeção do estacionamento em aberto, ou vazio se o recibo não existir ou já tiver check-out.
      */
-    Page<ClienteVagaProjection> findAllByClienteUsuarioId(Long id, Pageable pageable);
-}
+    @Query("select cv.id as id, cv.placa as placa, cv.marca as marca, cv.modelo as modelo, cv.cor as cor, "
+            + "c.cpf as clienteCpf, cv.recibo as recibo, cv.dataEntrada as dataEntrada, "
+            + "v.id as vagaId, v.codigo as vagaCodigo "
+            + "from ClienteVaga cv join cv.cliente c join cv.vaga v "
+            + "where cv.recibo = :recibo and cv.dataSaida is null")
+    Optional<EstacionamentoAbertoProjection> buscarAbertoPorRecibo(@Param("recibo") String recibo);
+
+    /**
+     * Busca, sem carregar entidades, todos os estacionamentos em aberto, para montar o índice de placas em memória.
+     *
+     * @return Uma lista com a projeção de cada estacionamento sem data de saída.
+     */
+    @Query("select cv.id as id, cv.placa as placa, cv.marca as marca, cv.modelo as modelo, cv.cor as cor, "
+            + "c.cpf as clienteCpf, cv.recibo as recibo, cv.dataEntrada as dataEntrada, "
+            + "v.id as vagaId, v.codigo as vagaCodigo "
+            + "from ClienteVaga cv join cv.cliente c join cv.vaga v "
+            + "where cv.dataSaida is null")
+    List<EstacionamentoAbertoProjection> buscarAbertos();
 
+    /**
+     * Encerra o estacionamento com um único update condicional: a linha só é alterada se ainda estiver em aberto.
+     * Entre requisições concorrentes ou repetidas para o mesmo recibo, apenas uma altera a linha; as demais
+     * recebem 0. A versão é incrementada, como faria o @Version, e os campos de auditoria são preenchidos aqui
+     * porque o update em massa não passa pelo AuditingEntityListener.
+     *
+     * @return O número de linhas alteradas, 1 se o estacionamento foi encerrado por esta chamada ou 0 caso contrário.
+     */
+    @Modifying
+    @Query("update ClienteVaga cv set cv.dataSaida = :dataSaida, cv.valor = :valor, cv.desconto = :desconto, "
+            + "cv.dataModificacao = :dataSaida, cv.modificadoPor = :usuario, cv.versao = cv.versao + 1 "
+            + "where cv.id = :id and cv.dataSaida is null")
+    int encerrar(@Param("id") Long id,
+                 @Param("dataSaida") LocalDateTime dataSaida,
+                 @Param("valor") BigDecimal valor,
+                 @Param("desconto") BigDecimal desconto,
+                 @Param("usuario") String usuario);
+}
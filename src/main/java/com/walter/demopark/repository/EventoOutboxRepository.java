@@ -0,0 +1,99 @@
+package com.walter.demopark.repository;
+
+import com.walter.demopark.evento.EventoEstacionamento;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classe EventoOutboxRepository que grava e lê os eventos de estacionamento da tabela eventos_outbox via JDBC.
+ * A gravação participa da transação em andamento, de modo que o evento só existe se a operação for confirmada.
+ */
+@Repository
+public class EventoOutboxRepository {
+
+    private static final RowMapper<EventoEstacionamento> MAPPER = (rs, rowNum) -> new EventoEstacionamento(
+            rs.getLong("id"),
+            EventoEstacionamento.Tipo.valueOf(rs.getString("tipo")),
+            rs.getString("recibo"),
+            rs.getString("cpf"),
+            rs.getString("vaga"),
+            rs.getTimestamp("instante").toLocalDateTime(),
+            rs.getBigDecimal("valor"),
+            rs.getBigDecimal("desconto"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EventoOutboxRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Grava o evento na outbox, na transação em andamento.
+     *
+     * @param evento O evento, sem id; o id é gerado pelo banco.
+     */
+    public void inserir(EventoEstacionamento evento) {
+        jdbcTemplate.update("insert into eventos_outbox (tipo, recibo, cpf, vaga, instante, valor, desconto) "
+                        + "values (?, ?, ?, ?, ?, ?, ?)",
+                evento.tipo().name(), evento.recibo(), evento.cpf(), evento.vaga(), evento.instante(),
+                evento.valor(), evento.desconto());
+    }
+
+    /**
+     * Bloqueia o próximo lote de eventos livres da outbox, em ordem de id: os que nunca foram reservados e os com a
+     * reserva vencida. As linhas já bloqueadas por outra instância que lê ao mesmo tempo são puladas (skip locked),
+     * então cada instância recebe um lote diferente. Deve ser chamado em uma transação, seguido de
+     * {@link #reservar}, que grava a reserva antes de o bloqueio terminar no commit.
+     * O id segue a ordem de inserção, não a de commit: um evento com id menor, de uma transação ainda aberta,
+     * aparece em uma leitura seguinte, depois de eventos com ids maiores.
+     *
+     * @param limite O número máximo de eventos.
+     * @param agora O instante atual; reservas que vencem até ele são consideradas livres.
+     * @return Uma lista com, no máximo, o limite de eventos.
+     */
+    public List<EventoEstacionamento> bloquearLivres(int limite, LocalDateTime agora) {
+        return jdbcTemplate.query("select id, tipo, recibo, cpf, vaga, instante, valor, desconto from eventos_outbox "
+                        + "where reservado_ate is null or reservado_ate <= ? order by id limit ? for update skip locked",
+                MAPPER, agora, limite);
+    }
+
+    /**
+     * Grava a reserva dos eventos até o instante informado. Enquanto a reserva vale, os eventos não são lidos
+     * por outra instância, mesmo depois do fim da transação que os bloqueou.
+     *
+     * @param ids Os ids dos eventos.
+     * @param reservadoAte O fim da reserva.
+     */
+    public void reservar(List<Long> ids, LocalDateTime reservadoAte) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> parametros = new ArrayList<>(ids.size() + 1);
+        parametros.add(reservadoAte);
+        parametros.addAll(ids);
+        jdbcTemplate.update("update eventos_outbox set reservado_ate = ? where id in (" + marcadores + ")",
+                parametros.toArray());
+    }
+
+    /**
+     * Remove da outbox os eventos já processados por todos os assinantes.
+     *
+     * @param ids Os ids dos eventos.
+     * @return O número de eventos removidos.
+     */
+    public int remover(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.update("delete from eventos_outbox where id in (" + marcadores + ")", ids.toArray());
+    }
+}
@@ -0,0 +1,42 @@
+package com.walter.demopark.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * Classe IndiceClientesRepository que percorre, via JDBC e com cursor, os clientes e as placas já usadas por cada
+ * um, para montar o índice de busca de clientes em memória. As linhas são entregues ao chamador à medida que são
+ * lidas, sem passar pelo contexto de persistência; fora de uma transação somente leitura, as consultas vão
+ * para o primário.
+ */
+@Repository
+public class IndiceClientesRepository {
+
+    // Linhas buscadas por vez pelo cursor (no MySQL exige useCursorFetch=true na URL)
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IndiceClientesRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Percorre todos os clientes, entregando as colunas id, nome e cpf de cada linha ao handler.
+     */
+    public void percorrerClientes(RowCallbackHandler handler) {
+        jdbcTemplate.query("select id, nome, cpf from clientes", handler);
+    }
+
+    /**
+     * Percorre as placas distintas de cada cliente no histórico completo, incluindo os estacionamentos arquivados,
+     * entregando as colunas id_cliente e placa de cada linha ao handler.
+     */
+    public void percorrerPlacas(RowCallbackHandler handler) {
+        jdbcTemplate.query("select distinct id_cliente, placa from clientes_tem_vagas_historico", handler);
+    }
+}
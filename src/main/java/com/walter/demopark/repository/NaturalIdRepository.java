@@ -0,0 +1,27 @@
+package com.walter.demopark.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Optional;
+
+/**
+ * Interface NaturalIdRepository que estende JpaRepository com a busca pela chave natural da entidade (@NaturalId).
+ * A busca passa pelo cache de chaves naturais do Hibernate: a chave é resolvida para o id e a entidade é carregada
+ * do cache de segundo nível, sem consulta ao banco de dados quando ambos já estão em cache.
+ * A implementação é fornecida por NaturalIdRepositoryImpl, registrada como classe base dos repositórios.
+ *
+ * @param <T> O tipo da entidade.
+ * @param <ID> O tipo do id da entidade.
+ */
+@NoRepositoryBean
+public interface NaturalIdRepository<T, ID> extends JpaRepository<T, ID> {
+
+    /**
+     * Busca uma entidade pela sua chave natural simples.
+     *
+     * @param naturalId O valor da chave natural.
+     * @return Um Optional contendo a entidade correspondente, ou vazio se não houver correspondência.
+     */
+    Optional<T> findBySimpleNaturalId(Object naturalId);
+}
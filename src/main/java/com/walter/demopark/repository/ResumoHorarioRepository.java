@@ -0,0 +1,181 @@
+package com.walter.demopark.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Classe ResumoHorarioRepository que mantém, via JDBC, a tabela resumos_horarios com os totais de check-ins,
+ * check-outs, receita, descontos e tempo estacionado de cada hora. Os incrementos são gravados com um único
+ * comando de upsert, que cria a linha da hora ou soma aos valores existentes de forma atômica no banco, sem
+ * leitura prévia; no MySQL com insert ... on duplicate key update e no H2 com merge.
+ * Cada hora é dividida em fatias (coluna fatia), e cada incremento vai para uma fatia sorteada: o upsert bloqueia
+ * a linha até o commit da operação, e com uma única linha por hora todos os check-ins e check-outs simultâneos
+ * esperariam uns pelos outros. As consultas somam as fatias de cada hora.
+ */
+@Repository
+public class ResumoHorarioRepository {
+
+    /**
+     * Totais de uma hora, ou de um dia quando a hora é nula.
+     */
+    public record Linha(LocalDate data, Integer hora, long checkIns, long checkOuts, BigDecimal receita,
+                        BigDecimal descontos, long segundosEstacionados) {
+
+        public Linha somar(Linha outra) {
+            return new Linha(data, hora, checkIns + outra.checkIns, checkOuts + outra.checkOuts,
+                    receita.add(outra.receita), descontos.add(outra.descontos),
+                    segundosEstacionados + outra.segundosEstacionados);
+        }
+    }
+
+    private static final String UPSERT_MYSQL = "insert into resumos_horarios "
+            + "(data, hora, fatia, check_ins, check_outs, receita, descontos, segundos_estacionados) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?) as novo on duplicate key update "
+            + "check_ins = resumos_horarios.check_ins + novo.check_ins, "
+            + "check_outs = resumos_horarios.check_outs + novo.check_outs, "
+            + "receita = resumos_horarios.receita + novo.receita, "
+            + "descontos = resumos_horarios.descontos + novo.descontos, "
+            + "segundos_estacionados = resumos_horarios.segundos_estacionados + novo.segundos_estacionados";
+
+    private static final String UPSERT_H2 = "merge into resumos_horarios r using (select cast(? as date) data, "
+            + "cast(? as int) hora, cast(? as int) fatia, cast(? as bigint) check_ins, cast(? as bigint) check_outs, "
+            + "cast(? as numeric(14, 2)) receita, cast(? as numeric(14, 2)) descontos, "
+            + "cast(? as bigint) segundos_estacionados) n on r.data = n.data and r.hora = n.hora and r.fatia = n.fatia "
+            + "when matched then update set check_ins = r.check_ins + n.check_ins, "
+            + "check_outs = r.check_outs + n.check_outs, receita = r.receita + n.receita, "
+            + "descontos = r.descontos + n.descontos, "
+            + "segundos_estacionados = r.segundos_estacionados + n.segundos_estacionados "
+            + "when not matched then insert (data, hora, fatia, check_ins, check_outs, receita, descontos, segundos_estacionados) "
+            + "values (n.data, n.hora, n.fatia, n.check_ins, n.check_outs, n.receita, n.descontos, n.segundos_estacionados)";
+
+    private static final String TOTAIS = "sum(check_ins), sum(check_outs), sum(receita), sum(descontos), "
+            + "sum(segundos_estacionados)";
+
+    private static final RowMapper<Linha> MAPPER_HORA = (rs, rowNum) -> new Linha(
+            rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getLong(3), rs.getLong(4),
+            rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getLong(7));
+
+    private static final RowMapper<Linha> MAPPER_DIA = (rs, rowNum) -> new Linha(
+            rs.getDate(1).toLocalDate(), null, rs.getLong(2), rs.getLong(3),
+            rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getLong(6));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsert;
+    private final int fatias;
+
+    public ResumoHorarioRepository(DataSource dataSource,
+                                   @Value("${demopark.resumo.fatias:16}") int fatias) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.upsert = produto(dataSource).startsWith("H2") ? UPSERT_H2 : UPSERT_MYSQL;
+        this.fatias = fatias;
+    }
+
+    private static String produto(DataSource dataSource) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException ex) {
+            throw new IllegalStateException("Não foi possível identificar o banco de dados", ex);
+        }
+    }
+
+    /**
+     * Soma o incremento aos totais de uma fatia sorteada da sua hora, criando a linha se ainda não existir, na
+     * transação em andamento.
+     *
+     * @param incremento Os valores a somar; data e hora identificam a hora.
+     */
+    public void somar(Linha incremento) {
+        jdbcTemplate.update(upsert, parametros(incremento, ThreadLocalRandom.current().nextInt(fatias)));
+    }
+
+    /**
+     * Soma os incrementos aos totais das suas horas, na primeira fatia, em um único lote JDBC. É usado pelo
+     * recálculo, que já removeu as linhas do dia e não concorre com outros recálculos do mesmo dia.
+     *
+     * @param incrementos Os valores a somar, no máximo um por hora.
+     */
+    public void somar(Collection<Linha> incrementos) {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(upsert, incrementos.stream().map(linha -> parametros(linha, 0)).toList());
+    }
+
+    private static Object[] parametros(Linha linha, int fatia) {
+        return new Object[]{linha.data(), linha.hora(), fatia, linha.checkIns(), linha.checkOuts(), linha.receita(),
+                linha.descontos(), linha.segundosEstacionados()};
+    }
+
+    /**
+     * Lista os totais de cada hora com movimento no período, somando as suas fatias, em ordem de data e hora.
+     *
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período, inclusivo.
+     */
+    public List<Linha> listarPorHora(LocalDate inicio, LocalDate fim) {
+        return jdbcTemplate.query("select data, hora, " + TOTAIS + " from resumos_horarios "
+                + "where data between ? and ? group by data, hora order by data, hora", MAPPER_HORA, inicio, fim);
+    }
+
+    /**
+     * Lista os totais de cada dia com movimento no período, somando as suas horas e fatias, em ordem de data.
+     *
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período, inclusivo.
+     */
+    public List<Linha> listarPorDia(LocalDate inicio, LocalDate fim) {
+        return jdbcTemplate.query("select data, " + TOTAIS + " from resumos_horarios "
+                + "where data between ? and ? group by data order by data", MAPPER_DIA, inicio, fim);
+    }
+
+    /**
+     * Remove as linhas de um dia, de todas as fatias, antes do seu recálculo.
+     *
+     * @param data O dia.
+     * @return O número de linhas removidas.
+     */
+    public int remover(LocalDate data) {
+        return jdbcTemplate.update("delete from resumos_horarios where data = ?", data);
+    }
+
+    /**
+     * Percorre as datas de entrada do histórico completo, incluindo os estacionamentos arquivados, no intervalo.
+     *
+     * @param inicio Início do intervalo, inclusivo.
+     * @param fim Fim do intervalo, exclusivo.
+     * @param handler O callback chamado para cada linha, com a coluna data_entrada.
+     */
+    public void percorrerEntradas(LocalDateTime inicio, LocalDateTime fim, RowCallbackHandler handler) {
+        jdbcTemplate.query("select data_entrada from clientes_tem_vagas where data_entrada >= ? and data_entrada < ? "
+                + "union all select data_entrada from clientes_tem_vagas_arquivo where data_entrada >= ? and data_entrada < ?",
+                handler, inicio, fim, inicio, fim);
+    }
+
+    /**
+     * Percorre os estacionamentos do histórico completo encerrados no intervalo.
+     *
+     * @param inicio Início do intervalo, inclusivo.
+     * @param fim Fim do intervalo, exclusivo.
+     * @param handler O callback chamado para cada linha, com as colunas data_entrada, data_saida, valor e desconto.
+     */
+    public void percorrerSaidas(LocalDateTime inicio, LocalDateTime fim, RowCallbackHandler handler) {
+        jdbcTemplate.query("select data_entrada, data_saida, valor, desconto from clientes_tem_vagas "
+                + "where data_saida >= ? and data_saida < ? "
+                + "union all select data_entrada, data_saida, valor, desconto from clientes_tem_vagas_arquivo "
+                + "where data_saida >= ? and data_saida < ?", handler, inicio, fim, inicio, fim);
+    }
+}
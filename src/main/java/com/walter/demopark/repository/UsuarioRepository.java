@@ -1,34 +1,28 @@
 package com.walter.demopark.repository;
 
 import com.walter.demopark.entity.Usuario;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.Query;
-
-import java.util.Optional;
+import org.springframework.data.jpa.repository.QueryHints;
 
 /**
- * Interface UsuarioRepository que estende JpaRepository.
+ * Interface UsuarioRepository que estende NaturalIdRepository.
  * Esta interface é responsável por realizar operações de acesso a dados relacionadas à entidade Usuario, utilizando a API JPA.
  * Ela contém métodos personalizados para consultar dados específicos no banco de dados, além de herdar operações CRUD da JpaRepository.
+ * A busca pelo nome de usuário, chave natural do usuário, é feita por findBySimpleNaturalId e atendida pelo cache de segundo nível.
  */
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
-
-    /**
-     * Busca um usuário pelo nome de usuário.
-     * A implementação deste método é gerada automaticamente pelo Spring Data JPA com base na convenção de nomenclatura do método.
-     *
-     * @param username O nome de usuário para buscar.
-     * @return Um Optional contendo o usuário correspondente ao nome fornecido, ou vazio se não houver correspondência.
-     */
-    Optional<Usuario> findByUsername(String username);
+public interface UsuarioRepository extends NaturalIdRepository<Usuario, Long> {
 
     /**
      * Busca o papel (role) de um usuário com base no nome de usuário.
      * Essa consulta utiliza JPQL para selecionar apenas o campo 'role' da entidade Usuario.
+     * O resultado fica no cache de consultas, invalidado pelo Hibernate quando a tabela usuarios é alterada.
      *
      * @param username O nome de usuário para buscar o papel (role).
      * @return O papel (role) do usuário correspondente ao nome fornecido.
      */
     @Query("select u.role from Usuario u where u.username like :username")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Usuario.Role findRoleByUsername(String username);
 }
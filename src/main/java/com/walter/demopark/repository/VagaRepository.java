@@ -1,25 +1,16 @@
 package com.walter.demopark.repository;
 
 import com.walter.demopark.entity.Vaga;
-import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
 /**
- * Interface VagaRepository que estende JpaRepository.
+ * Interface VagaRepository que estende NaturalIdRepository.
  * Esta interface é responsável por realizar operações de acesso a dados relacionadas à entidade Vaga, utilizando a API JPA.
  * Ela contém métodos personalizados para consultar dados específicos no banco de dados, além de herdar operações CRUD da JpaRepository.
+ * A busca pelo código, chave natural da vaga, é feita por findBySimpleNaturalId e atendida pelo cache de segundo nível.
  */
-public interface VagaRepository extends JpaRepository<Vaga, Long> {
-
-    /**
-     * Busca uma vaga com base no código fornecido.
-     * A implementação deste método é gerada automaticamente pelo Spring Data JPA com base na convenção de nomenclatura do método.
-     *
-     * @param codigo O código único da vaga para buscar.
-     * @return Um Optional contendo a vaga correspondente ao código fornecido, ou vazio se não houver correspondência.
-     */
-    Optional<Vaga> findByCodigo(String codigo);
+public interface VagaRepository extends NaturalIdRepository<Vaga, Long> {
 
     /**
      * Busca a primeira vaga com o status fornecido.
@@ -29,5 +20,12 @@ public interface VagaRepository extends JpaRepository<Vaga, Long> {
      * @return Um Optional contendo a primeira vaga encontrada com o status fornecido, ou vazio se não houver correspondência.
      */
     Optional<Vaga> findFirstByStatus(Vaga.StatusVaga statusVaga);
-}
 
+    /**
+     * Conta as vagas com o status fornecido.
+     *
+     * @param statusVaga O status das vagas contadas.
+     * @return O número de vagas com o status.
+     */
+    long countByStatus(Vaga.StatusVaga statusVaga);
+}
@@ -0,0 +1,11 @@
+package com.walter.demopark.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface ClienteVagaRelatorioProjection extends ClienteVagaProjection {
+
+    Long getId();
+    String getClienteNome();
+    BigDecimal getDesconto();
+
+}
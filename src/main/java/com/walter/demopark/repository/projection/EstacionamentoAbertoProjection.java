@@ -0,0 +1,18 @@
+package com.walter.demopark.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface EstacionamentoAbertoProjection {
+
+    Long getId();
+    String getPlaca();
+    String getMarca();
+    String getModelo();
+    String getCor();
+    String getClienteCpf();
+    String getRecibo();
+    LocalDateTime getDataEntrada();
+    Long getVagaId();
+    String getVagaCodigo();
+
+}
@@ -0,0 +1,10 @@
+package com.walter.demopark.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface HistoricoVersaoProjection {
+
+    Long getTotal();
+    LocalDateTime getUltimaModificacao();
+
+}
@@ -0,0 +1,93 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.repository.ClienteVagaArquivoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Classe ArquivamentoService que move periodicamente para clientes_tem_vagas_arquivo os estacionamentos
+ * encerrados há mais do que o número de dias configurado, mantendo a tabela clientes_tem_vagas pequena.
+ * Cada lote é reservado e movido em uma transação própria, com uma pausa entre os lotes para limitar a carga sobre
+ * o banco. A reserva pula as linhas bloqueadas por outra instância, então instâncias que executam o agendamento ao
+ * mesmo tempo movem lotes diferentes, sem copiar a mesma linha duas vezes.
+ * As consultas de histórico leem as duas tabelas, então o arquivamento não altera os resultados.
+ */
+@Slf4j
+@Service
+public class ArquivamentoService {
+
+    private final ClienteVagaArquivoRepository clienteVagaArquivoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int dias;
+    private final Duration pausa;
+
+    public ArquivamentoService(ClienteVagaArquivoRepository clienteVagaArquivoRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${demopark.arquivamento.habilitado:false}") boolean habilitado,
+                               @Value("${demopark.arquivamento.dias:90}") int dias,
+                               @Value("${demopark.arquivamento.pausa:200ms}") Duration pausa) {
+        this.clienteVagaArquivoRepository = clienteVagaArquivoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitado = habilitado;
+        this.dias = dias;
+        this.pausa = pausa;
+    }
+
+    /**
+     * Execução agendada do arquivamento, quando habilitado.
+     */
+    @Scheduled(cron = "${demopark.arquivamento.cron:0 0 3 * * *}")
+    public void executar() {
+        if (habilitado) {
+            arquivar(LocalDateTime.now().minusDays(dias));
+        }
+    }
+
+    /**
+     * Arquiva, em lotes, todos os estacionamentos encerrados antes da data limite.
+     *
+     * @param limite A data de saída limite, exclusiva.
+     * @return O número de estacionamentos arquivados.
+     */
+    public long arquivar(LocalDateTime limite) {
+        long total = 0;
+        while (true) {
+            Integer movidos = transactionTemplate.execute(status -> {
+                List<Long> ids = clienteVagaArquivoRepository.reservarIdsEncerradosAntesDe(limite);
+                return ids.isEmpty() ? 0 : clienteVagaArquivoRepository.mover(ids, LocalDateTime.now());
+            });
+            if (movidos == null || movidos == 0) {
+                break;
+            }
+            total += movidos;
+            if (!pausar()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("{} estacionamentos encerrados antes de {} arquivados", total, limite);
+        }
+        return total;
+    }
+
+    /**
+     * Aguarda a pausa entre os lotes. Retorna false se a thread for interrompida, encerrando o arquivamento.
+     */
+    private boolean pausar() {
+        try {
+            Thread.sleep(pausa.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.walter.demopark.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Classe CacheEstatisticaService que expõe as estatísticas do cache de segundo nível do Hibernate por região:
+ * as regiões das entidades Vaga, Cliente e Usuario, as de suas chaves naturais e a de resultados de consultas.
+ * Os contadores são acumulados desde a inicialização da aplicação e exigem hibernate.generate_statistics=true.
+ */
+@Service
+public class CacheEstatisticaService {
+
+    /**
+     * Contadores de uma região do cache.
+     */
+    public record EstatisticaRegiao(String regiao, long acertos, long faltas, long insercoes, long elementos) {
+
+        /**
+         * Fração das leituras atendidas pelo cache, entre 0 e 1, ou 0 se a região ainda não foi lida.
+         */
+        public double taxaAcerto() {
+            long leituras = acertos + faltas;
+            return leituras == 0 ? 0 : (double) acertos / leituras;
+        }
+    }
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Lista as estatísticas de cada região do cache, em ordem de nome. A região de timestamps de atualização,
+     * usada apenas para invalidar os resultados de consultas, não é incluída.
+     *
+     * @return As estatísticas por região, ou uma lista vazia se o cache ou as estatísticas estiverem desligados.
+     */
+    public List<EstatisticaRegiao> listar() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        List<EstatisticaRegiao> regioes = new ArrayList<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return regioes;
+        }
+
+        CacheImplementor cache = (CacheImplementor) sessionFactory.getCache();
+        for (String nome : new TreeSet<>(cache.getCacheRegionNames())) {
+            Region regiao = cache.getRegion(nome);
+            CacheRegionStatistics estatistica;
+            if (regiao instanceof QueryResultsRegion) {
+                estatistica = statistics.getQueryRegionStatistics(nome);
+            } else if (regiao instanceof DomainDataRegion) {
+                estatistica = statistics.getDomainDataRegionStatistics(nome);
+            } else {
+                continue;
+            }
+            if (estatistica != null) {
+                regioes.add(new EstatisticaRegiao(nome, estatistica.getHitCount(), estatistica.getMissCount(),
+                        estatistica.getPutCount(), estatistica.getElementCountInMemory()));
+            }
+        }
+        return regioes;
+    }
+}
@@ -1,5 +1,6 @@
 package com.walter.demopark.service;
 
+import com.walter.demopark.config.RoteamentoDataSource;
 import com.walter.demopark.entity.Cliente;
 import com.walter.demopark.exception.CpfUniqueViolationException;
 import com.walter.demopark.exception.EntityNotFoundException;
@@ -29,6 +30,12 @@ public class ClienteService {
     @Autowired
     private ClienteRepository clienteRepository;
 
+    /**
+     * Injeção do IndiceClientesService para incluir o cliente cadastrado no índice de busca em memória.
+     */
+    @Autowired
+    private IndiceClientesService indiceClientesService;
+
     /**
      * Método para buscar uma lista paginada de projeções de Cliente.
      * A operação é marcada como somente leitura (readOnly = true) para garantir que não há alterações no banco de dados.
@@ -49,7 +56,7 @@ public class ClienteService {
      * @return O cliente correspondente ao ID fornecido.
      * @throws EntityNotFoundException se o cliente não for encontrado.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public Cliente findById(Long id) {
         return clienteRepository.findById(id).orElseThrow(() -> new EntityNotFoundException(String.format("Cliente id=%d não encontrado", id)));
     }
@@ -60,7 +67,7 @@ public class ClienteService {
      * @param id O ID do usuário.
      * @return O cliente correspondente ao usuário fornecido.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public Cliente findByUserId(Long id) {
         return clienteRepository.buscarPorClienteId(id);
     }
@@ -68,6 +75,8 @@ public class ClienteService {
     /**
      * Salva um novo cliente no banco de dados.
      * Se o CPF já existir, uma exceção CpfUniqueViolationException será lançada.
+     * A inserção é enviada ao banco imediatamente, para que a violação do índice único seja convertida aqui
+     * e não chegue como erro no commit.
      *
      * @param cliente O cliente a ser salvo.
      * @return O cliente salvo.
@@ -76,7 +85,9 @@ public class ClienteService {
     @Transactional
     public Cliente save(Cliente cliente) {
         try {
-            return clienteRepository.save(cliente);
+            Cliente salvo = clienteRepository.saveAndFlush(cliente);
+            indiceClientesService.registrarCliente(salvo);
+            return salvo;
         } catch (org.springframework.dao.DataIntegrityViolationException ex) {
             throw new CpfUniqueViolationException(String.format("O cpf %s já existe no sistema", cliente.getCpf()));
         }
@@ -90,9 +101,9 @@ public class ClienteService {
      * @return O cliente correspondente ao CPF fornecido.
      * @throws EntityNotFoundException se o cliente não for encontrado.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public Cliente findByCpf(String cpf) {
-        return clienteRepository.findByCpf(cpf).orElseThrow(
+        return clienteRepository.findBySimpleNaturalId(cpf).orElseThrow(
                 () -> new EntityNotFoundException(String.format("Cliente com o cpf %s não encontrado", cpf)));
     }
 }
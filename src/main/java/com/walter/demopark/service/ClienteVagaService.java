@@ -1,15 +1,31 @@
 package com.walter.demopark.service;
 
+import com.walter.demopark.config.RoteamentoDataSource;
 import com.walter.demopark.entity.ClienteVaga;
 import com.walter.demopark.exception.EntityNotFoundException;
+import com.walter.demopark.exception.PlacaUniqueViolationException;
+import com.walter.demopark.repository.ClienteVagaHistoricoRepository;
+import com.walter.demopark.repository.ClienteVagaHistoricoRepository.TotaisPeriodo;
 import com.walter.demopark.repository.ClienteVagaRepository;
 import com.walter.demopark.repository.projection.ClienteVagaProjection;
+import com.walter.demopark.repository.projection.ClienteVagaRelatorioProjection;
+import com.walter.demopark.repository.projection.EstacionamentoAbertoProjection;
+import com.walter.demopark.repository.projection.HistoricoVersaoProjection;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Classe ClienteVagaService que fornece serviços relacionados à entidade ClienteVaga.
  * Esta classe contém métodos para realizar operações de leitura e gravação no banco de dados utilizando o ClienteVagaRepository.
@@ -25,15 +41,50 @@ public class ClienteVagaService {
     @Autowired
     private ClienteVagaRepository clienteVagaRepository;
 
+    /**
+     * Repositório das consultas de histórico, que incluem os estacionamentos arquivados.
+     */
+    @Autowired
+    private ClienteVagaHistoricoRepository clienteVagaHistoricoRepository;
+
+    /**
+     * Fornece o usuário autenticado para os campos de auditoria das atualizações em massa.
+     */
+    @Autowired
+    private AuditorAware<String> auditorAware;
+
     /**
      * Salva uma nova instância de ClienteVaga no banco de dados.
+     * A inserção é enviada ao banco imediatamente, para que uma placa já em aberto, recusada pelo índice único
+     * da coluna placa_ativa, seja convertida aqui em PlacaUniqueViolationException e não chegue como erro no commit.
      *
      * @param clienteVaga A instância de ClienteVaga a ser salva.
      * @return A instância de ClienteVaga salva.
+     * @throws PlacaUniqueViolationException se a placa já tiver um estacionamento em aberto.
      */
     @Transactional
     public ClienteVaga save(ClienteVaga clienteVaga) {
-        return clienteVagaRepository.save(clienteVaga);
+        try {
+            return clienteVagaRepository.saveAndFlush(clienteVaga);
+        } catch (DataIntegrityViolationException ex) {
+            String mensagem = ex.getMostSpecificCause().getMessage();
+            if (mensagem != null && mensagem.toLowerCase(Locale.ROOT).contains("uk_clientes_tem_vagas_placa_ativa")) {
+                throw new PlacaUniqueViolationException(
+                        String.format("O veículo de placa %s já está estacionado", clienteVaga.getPlaca()));
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Verifica no banco se a placa tem um estacionamento em aberto, em qualquer instância da aplicação.
+     *
+     * @param placa A placa do veículo.
+     * @return true se a placa já estiver estacionada.
+     */
+    @Transactional(readOnly = true)
+    public boolean isPlacaEstacionada(String placa) {
+        return clienteVagaRepository.contarAbertosPorPlaca(placa) > 0;
     }
 
     /**
@@ -44,12 +95,41 @@ public class ClienteVagaService {
      * @return A instância de ClienteVaga correspondente ao recibo fornecido.
      * @throws EntityNotFoundException se o recibo não for encontrado ou a data de saída não for nula.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public ClienteVaga findByRecibo(String recibo) {
         return clienteVagaRepository.findByReciboAndDataSaidaIsNull(recibo)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Recibo %s não encontrado ou check-out já realizado", recibo)));
     }
 
+    /**
+     * Busca os dados do estacionamento em aberto com o recibo fornecido, sem carregar entidades.
+     * Um check-out repetido termina aqui, com uma única consulta.
+     *
+     * @param recibo O recibo do estacionamento.
+     * @return A projeção do estacionamento em aberto.
+     * @throws EntityNotFoundException se o recibo não for encontrado ou a data de saída não for nula.
+     */
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
+    public EstacionamentoAbertoProjection findAbertoByRecibo(String recibo) {
+        return clienteVagaRepository.buscarAbertoPorRecibo(recibo)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Recibo %s não encontrado ou check-out já realizado", recibo)));
+    }
+
+    /**
+     * Encerra o estacionamento se ele ainda estiver em aberto, com um único update condicional.
+     *
+     * @param id O id do estacionamento.
+     * @param dataSaida A data de saída.
+     * @param valor O valor cobrado.
+     * @param desconto O desconto aplicado.
+     * @return true se esta chamada encerrou o estacionamento, false se ele já havia sido encerrado por outra.
+     */
+    @Transactional
+    public boolean encerrar(Long id, LocalDateTime dataSaida, BigDecimal valor, BigDecimal desconto) {
+        String usuario = auditorAware.getCurrentAuditor().orElse(null);
+        return clienteVagaRepository.encerrar(id, dataSaida, valor, desconto, usuario) == 1;
+    }
+
     /**
      * Conta o número de vezes que o cliente, identificado pelo CPF, utilizou o estacionamento e completou o check-out (data de saída preenchida).
      *
@@ -58,7 +138,7 @@ public class ClienteVagaService {
      */
     @Transactional(readOnly = true)
     public long getTotalDeVezesEstacionamentoCompleto(String cpf) {
-        return clienteVagaRepository.countByClienteCpfAndDataSaidaIsNotNull(cpf);
+        return clienteVagaHistoricoRepository.countByClienteCpfAndDataSaidaIsNotNull(cpf);
     }
 
     /**
@@ -71,7 +151,7 @@ public class ClienteVagaService {
      */
     @Transactional(readOnly = true)
     public Page<ClienteVagaProjection> findAllByClienteCpf(String cpf, Pageable pageable) {
-        return clienteVagaRepository.findAllByClienteCpf(cpf, pageable);
+        return clienteVagaHistoricoRepository.findAllByClienteCpf(cpf, pageable);
     }
 
     /**
@@ -84,7 +164,61 @@ public class ClienteVagaService {
      */
     @Transactional(readOnly = true)
     public Page<ClienteVagaProjection> findAllByUsuarioId(Long id, Pageable pageable) {
-        return clienteVagaRepository.findAllByClienteUsuarioId(id, pageable);
+        return clienteVagaHistoricoRepository.findAllByClienteUsuarioId(id, pageable);
+    }
+
+    /**
+     * Retorna a versão atual do histórico de estacionamentos do cliente, usada como chave do cache de relatórios.
+     *
+     * @param cpf O CPF do cliente.
+     * @return Uma string que muda sempre que o histórico do cliente é alterado.
+     */
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
+    public String getVersaoHistorico(String cpf) {
+        HistoricoVersaoProjection versao = clienteVagaHistoricoRepository.buscarVersaoHistorico(cpf);
+        LocalDateTime ultima = versao.getUltimaModificacao();
+        long nanos = ultima == null ? 0L : ultima.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + ultima.getNano();
+        return versao.getTotal() + "-" + Long.toHexString(nanos);
     }
-}
 
+    /**
+     * Retorna o próximo lote do histórico de estacionamentos do cliente para o relatório, a partir da última linha lida.
+     *
+     * @param cpf O CPF do cliente.
+     * @param placa A placa da última linha lida, ou uma string vazia para o primeiro lote.
+     * @param id O id da última linha lida, ou 0 para o primeiro lote.
+     * @param tamanho O tamanho máximo do lote.
+     * @return Uma lista de projeções ordenadas por placa e id.
+     */
+    @Transactional(readOnly = true)
+    public List<ClienteVagaRelatorioProjection> findLoteRelatorio(String cpf, String placa, Long id, int tamanho) {
+        return clienteVagaHistoricoRepository.buscarLoteRelatorio(cpf, placa, id, tamanho);
+    }
+
+    /**
+     * Retorna os totais de todos os clientes no intervalo [inicio, fim), somados no banco de dados.
+     *
+     * @param inicio O início do intervalo, inclusivo.
+     * @param fim O fim do intervalo, exclusivo.
+     * @param agora O instante usado como saída dos estacionamentos em aberto.
+     * @return Os totais de estacionamentos encerrados, receita, descontos e tempo ocupado.
+     */
+    @Transactional(readOnly = true)
+    public TotaisPeriodo somarPorPeriodo(LocalDateTime inicio, LocalDateTime fim, LocalDateTime agora) {
+        return clienteVagaHistoricoRepository.somarPorPeriodo(inicio, fim, agora);
+    }
+
+    /**
+     * Percorre os estacionamentos de todos os clientes encerrados no intervalo [inicio, fim), em ordem de data de
+     * entrada, entregando o ResultSet ao extrator dentro da transação.
+     *
+     * @param inicio O início do intervalo, inclusivo.
+     * @param fim O fim do intervalo, exclusivo.
+     * @param extrator O callback que consome o ResultSet.
+     * @return O resultado do extrator.
+     */
+    @Transactional(readOnly = true)
+    public <T> T percorrerEncerradosPorPeriodo(LocalDateTime inicio, LocalDateTime fim, ResultSetExtractor<T> extrator) {
+        return clienteVagaHistoricoRepository.percorrerEncerradosPorPeriodo(inicio, fim, extrator);
+    }
+}
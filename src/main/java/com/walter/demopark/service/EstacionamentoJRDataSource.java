@@ -0,0 +1,92 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.repository.projection.ClienteVagaRelatorioProjection;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Classe EstacionamentoJRDataSource que alimenta o relatório de estacionamentos a partir do histórico do cliente,
+ * lido em lotes de tamanho fixo por paginação por chave (placa, id). Apenas o lote atual fica em memória, então o
+ * consumo não depende do tamanho do histórico. A ordem por placa é a mesma da consulta embutida no template,
+ * preservando o agrupamento por veículo. Cada instância é de uso único e não deve ser compartilhada entre threads.
+ */
+public class EstacionamentoJRDataSource implements JRDataSource {
+
+    private final ClienteVagaService clienteVagaService;
+    private final String cpf;
+    private final int tamanhoLote;
+
+    // Lote atual e a linha corrente.
+    private Iterator<ClienteVagaRelatorioProjection> lote;
+    private ClienteVagaRelatorioProjection atual;
+
+    // Chave da última linha lida e se ainda podem existir linhas após o lote atual.
+    private String ultimaPlaca = "";
+    private Long ultimoId = 0L;
+    private boolean haMais = true;
+
+    public EstacionamentoJRDataSource(ClienteVagaService clienteVagaService, String cpf, int tamanhoLote) {
+        this.clienteVagaService = clienteVagaService;
+        this.cpf = cpf;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    public boolean next() {
+        if ((lote == null || !lote.hasNext()) && haMais) {
+            List<ClienteVagaRelatorioProjection> registros =
+                    clienteVagaService.findLoteRelatorio(cpf, ultimaPlaca, ultimoId, tamanhoLote);
+            // Um lote incompleto indica que o histórico terminou, evitando uma consulta extra vazia
+            haMais = registros.size() == tamanhoLote;
+            lote = registros.iterator();
+        }
+        if (lote == null || !lote.hasNext()) {
+            atual = null;
+            return false;
+        }
+        atual = lote.next();
+        ultimaPlaca = atual.getPlaca();
+        ultimoId = atual.getId();
+        return true;
+    }
+
+    /**
+     * Retorna o valor de um campo do template para a linha corrente. Os nomes e tipos são os mesmos das
+     * colunas da consulta embutida em estacionamentos.jasper.
+     */
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        return switch (field.getName()) {
+            case "cpf" -> atual.getClienteCpf();
+            case "nome" -> atual.getClienteNome();
+            case "placa" -> atual.getPlaca();
+            case "marca" -> atual.getMarca();
+            case "modelo" -> atual.getModelo();
+            case "cor" -> atual.getCor();
+            case "numero_recibo" -> atual.getRecibo();
+            case "codigo" -> atual.getVagaCodigo();
+            case "valor" -> atual.getValor();
+            case "desconto" -> atual.getDesconto();
+            case "data_entrada" -> atual.getDataEntrada();
+            case "data_saida" -> atual.getDataSaida();
+            case "hours" -> permanencia() == null ? null : (int) permanencia().toHours();
+            case "minutes" -> permanencia() == null ? null : permanencia().toMinutesPart();
+            default -> throw new JRException("Campo desconhecido no relatório de estacionamentos: " + field.getName());
+        };
+    }
+
+    /**
+     * Calcula o tempo de permanência da linha corrente, equivalente ao TIMEDIFF usado na consulta do template.
+     */
+    private Duration permanencia() {
+        if (atual.getDataEntrada() == null || atual.getDataSaida() == null) {
+            return null;
+        }
+        return Duration.between(atual.getDataEntrada(), atual.getDataSaida()).abs();
+    }
+}
@@ -3,6 +3,11 @@ package com.walter.demopark.service;
 import com.walter.demopark.entity.Cliente;
 import com.walter.demopark.entity.ClienteVaga;
 import com.walter.demopark.entity.Vaga;
+import com.walter.demopark.evento.EventoEstacionamento;
+import com.walter.demopark.exception.EntityNotFoundException;
+import com.walter.demopark.exception.PlacaUniqueViolationException;
+import com.walter.demopark.repository.EventoOutboxRepository;
+import com.walter.demopark.repository.projection.EstacionamentoAbertoProjection;
 import com.walter.demopark.util.EstacionamentoUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -38,6 +43,42 @@ public class EstacionamentoService {
     @Autowired
     private VagaService vagaService;
 
+    /**
+     * Injeção do VersaoService para invalidar as versões (ETag) em cache dos recursos alterados.
+     */
+    @Autowired
+    private VersaoService versaoService;
+
+    /**
+     * Injeção do EventoOutboxRepository para gravar os eventos de check-in e check-out na mesma transação.
+     */
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    /**
+     * Injeção do ResumoHorarioService para somar cada check-in e check-out ao resumo da sua hora.
+     */
+    @Autowired
+    private ResumoHorarioService resumoHorarioService;
+
+    /**
+     * Injeção do IndicePlacasService para manter o índice em memória dos estacionamentos em aberto por placa.
+     */
+    @Autowired
+    private IndicePlacasService indicePlacasService;
+
+    /**
+     * Injeção do IndiceClientesService para incluir a placa do check-in no índice de busca de clientes.
+     */
+    @Autowired
+    private IndiceClientesService indiceClientesService;
+
+    /**
+     * Injeção do OcupacaoService para publicar a ocupação das vagas após o check-in e o check-out.
+     */
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
     /**
      * Realiza o processo de check-in de um cliente no estacionamento.
      * O método busca o cliente com base no CPF, encontra uma vaga livre, registra a data de entrada,
@@ -45,9 +86,19 @@ public class EstacionamentoService {
      *
      * @param clienteVaga A instância de ClienteVaga contendo as informações do check-in.
      * @return A instância de ClienteVaga salva com as informações de check-in preenchidas.
+     * @throws PlacaUniqueViolationException se a placa já tiver um estacionamento em aberto.
      */
     @Transactional
     public ClienteVaga checkIn(ClienteVaga clienteVaga) {
+        // O índice em memória só conhece as operações desta instância: se ele indica a placa como estacionada, o
+        // banco confirma antes da recusa, pois o check-out pode ter sido feito em outra instância. Se não indica,
+        // o índice único de placa_ativa recusa no save as placas estacionadas por outras instâncias
+        if (indicePlacasService.buscar(clienteVaga.getPlaca()).isPresent()
+                && clienteVagaService.isPlacaEstacionada(clienteVaga.getPlaca())) {
+            throw new PlacaUniqueViolationException(
+                    String.format("O veículo de placa %s já está estacionado", clienteVaga.getPlaca()));
+        }
+
         // Busca o cliente com base no CPF
         Cliente cliente = clienteService.findByCpf(clienteVaga.getCliente().getCpf());
         clienteVaga.setCliente(cliente);
@@ -61,41 +112,98 @@ public class EstacionamentoService {
         clienteVaga.setDataEntrada(LocalDateTime.now());
         clienteVaga.setRecibo(EstacionamentoUtils.gerarRecibo());
 
-        // Salva a instância de ClienteVaga
-        return clienteVagaService.save(clienteVaga);
+        // A vaga mudou de status, a versão em cache deixa de ser válida
+        versaoService.invalidar(VersaoService.vaga(vaga.getCodigo()));
+
+        // Grava o evento de check-in na outbox, publicado aos assinantes depois do commit pelo DespachanteEventos
+        eventoOutboxRepository.inserir(EventoEstacionamento.checkIn(
+                clienteVaga.getRecibo(), cliente.getCpf(), vaga.getCodigo(), clienteVaga.getDataEntrada()));
+
+        // Salva a instância de ClienteVaga e a inclui no índice de placas após o commit
+        ClienteVaga salvo = clienteVagaService.save(clienteVaga);
+        indicePlacasService.registrarCheckIn(salvo);
+        indiceClientesService.registrarPlaca(salvo.getCliente().getId(), salvo.getPlaca());
+        ocupacaoService.registrarCheckIn();
+
+        // Soma o check-in ao resumo da hora de entrada; por último, para que a fatia fique bloqueada só até o commit
+        resumoHorarioService.registrarCheckIn(salvo.getDataEntrada());
+        return salvo;
     }
 
     /**
      * Realiza o processo de check-out de um cliente no estacionamento.
      * O método calcula o valor a ser pago com base na data de entrada e saída, aplica descontos,
      * e marca a vaga como livre após o check-out.
+     * O estacionamento é lido por projeção, sem carregar entidades, e encerrado com um update condicional que só
+     * altera a linha se ela ainda estiver em aberto. Assim, entre check-outs repetidos ou concorrentes do mesmo
+     * recibo apenas um é cobrado; os demais recebem EntityNotFoundException, como um recibo já encerrado.
      *
      * @param recibo O recibo associado ao cliente que está realizando o check-out.
-     * @return A instância de ClienteVaga salva com as informações de check-out atualizadas.
+     * @return Uma instância de ClienteVaga, não gerenciada, com as informações do check-out para a resposta.
+     * @throws EntityNotFoundException se o recibo não existir ou já tiver check-out.
      */
     @Transactional
     public ClienteVaga checkOut(String recibo) {
-        // Busca a instância de ClienteVaga com base no recibo
-        ClienteVaga clienteVaga = clienteVagaService.findByRecibo(recibo);
+        // Busca o estacionamento em aberto; um check-out repetido termina aqui, com uma única consulta
+        EstacionamentoAbertoProjection aberto = clienteVagaService.findAbertoByRecibo(recibo);
+
+        // Calcula o total de vezes que o cliente usou o estacionamento, antes de encerrar o estacionamento atual
+        long totalDeVezes = clienteVagaService.getTotalDeVezesEstacionamentoCompleto(aberto.getClienteCpf());
 
-        // Define a data de saída e calcula o valor
+        // Define a data de saída, calcula o valor e aplica o desconto baseado no número de utilizações
         LocalDateTime dataSaida = LocalDateTime.now();
-        BigDecimal valor = EstacionamentoUtils.calcularCusto(clienteVaga.getDataEntrada(), dataSaida);
-        clienteVaga.setValor(valor);
+        BigDecimal valor = EstacionamentoUtils.calcularCusto(aberto.getDataEntrada(), dataSaida);
+        BigDecimal desconto = EstacionamentoUtils.calcularDesconto(valor, totalDeVezes);
 
-        // Calcula o total de vezes que o cliente usou o estacionamento
-        long totalDeVezes = clienteVagaService.getTotalDeVezesEstacionamentoCompleto(clienteVaga.getCliente().getCpf());
+        // Encerra o estacionamento se ainda estiver em aberto; se outra requisição encerrou antes, esta não cobra nada
+        if (!clienteVagaService.encerrar(aberto.getId(), dataSaida, valor, desconto)) {
+            throw new EntityNotFoundException(String.format("Recibo %s não encontrado ou check-out já realizado", recibo));
+        }
 
-        // Aplica desconto baseado no número de utilizações do estacionamento
-        BigDecimal desconto = EstacionamentoUtils.calcularDesconto(valor, totalDeVezes);
-        clienteVaga.setDesconto(desconto);
+        // Marca a vaga como livre, na mesma transação
+        vagaService.liberar(aberto.getVagaId());
 
-        // Atualiza a data de saída e marca a vaga como livre
-        clienteVaga.setDataSaida(dataSaida);
-        clienteVaga.getVaga().setStatus(Vaga.StatusVaga.LIVRE);
+        // Recibo e vaga foram alterados, as versões em cache deixam de ser válidas
+        versaoService.invalidar(VersaoService.recibo(recibo), VersaoService.vaga(aberto.getVagaCodigo()));
+
+        // Grava o evento de check-out na outbox, publicado aos assinantes depois do commit pelo DespachanteEventos
+        eventoOutboxRepository.inserir(EventoEstacionamento.checkOut(
+                recibo, aberto.getClienteCpf(), aberto.getVagaCodigo(), dataSaida, valor, desconto));
 
-        // Salva a instância de ClienteVaga
-        return clienteVagaService.save(clienteVaga);
+        // Soma o check-out, com valor, desconto e duração, ao resumo da hora de saída
+        resumoHorarioService.registrarCheckOut(aberto.getDataEntrada(), dataSaida, valor, desconto);
+
+        // Remove a placa do índice de estacionamentos em aberto após o commit
+        indicePlacasService.registrarCheckOut(aberto.getPlaca(), recibo);
+        ocupacaoService.registrarCheckOut();
+
+        return encerrado(aberto, dataSaida, valor, desconto);
+    }
+
+    /**
+     * Monta, para a resposta do check-out, um ClienteVaga não gerenciado com os dados do estacionamento encerrado.
+     */
+    private static ClienteVaga encerrado(EstacionamentoAbertoProjection aberto, LocalDateTime dataSaida,
+                                         BigDecimal valor, BigDecimal desconto) {
+        Cliente cliente = new Cliente();
+        cliente.setCpf(aberto.getClienteCpf());
+        Vaga vaga = new Vaga();
+        vaga.setCodigo(aberto.getVagaCodigo());
+
+        ClienteVaga clienteVaga = new ClienteVaga();
+        clienteVaga.setId(aberto.getId());
+        clienteVaga.setRecibo(aberto.getRecibo());
+        clienteVaga.setPlaca(aberto.getPlaca());
+        clienteVaga.setMarca(aberto.getMarca());
+        clienteVaga.setModelo(aberto.getModelo());
+        clienteVaga.setCor(aberto.getCor());
+        clienteVaga.setDataEntrada(aberto.getDataEntrada());
+        clienteVaga.setDataSaida(dataSaida);
+        clienteVaga.setValor(valor);
+        clienteVaga.setDesconto(desconto);
+        clienteVaga.setCliente(cliente);
+        clienteVaga.setVaga(vaga);
+        return clienteVaga;
     }
 }
 
@@ -0,0 +1,102 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.exception.PeriodoInvalidoException;
+import com.walter.demopark.repository.ClienteVagaExportacaoRepository;
+import com.walter.demopark.repository.ClienteVagaExportacaoRepository.Filtro;
+import com.walter.demopark.util.EscritorCsv;
+import com.walter.demopark.util.EscritorTabela;
+import com.walter.demopark.util.EscritorXlsx;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe ExportacaoService que exporta o histórico de estacionamentos em CSV ou XLSX para a contabilidade.
+ * As linhas são lidas por um cursor somente para frente e escritas no fluxo de saída à medida que chegam,
+ * sem objetos intermediários nem acúmulo em memória, o que mantém o consumo de memória constante
+ * independentemente do número de linhas exportadas.
+ */
+@Service
+public class ExportacaoService {
+
+    /**
+     * Formatos de exportação disponíveis.
+     */
+    public enum Formato {
+        CSV, XLSX
+    }
+
+    private static final String[] CABECALHO = {"recibo", "cpf", "nome", "placa", "marca", "modelo", "cor",
+            "vaga", "data_entrada", "data_saida", "valor", "desconto"};
+
+    @Autowired
+    private ClienteVagaExportacaoRepository clienteVagaExportacaoRepository;
+
+    /**
+     * Valida os filtros da exportação. Deve ser chamado antes de definir os cabeçalhos do arquivo na resposta,
+     * para que um erro seja respondido como JSON e não como o arquivo para download.
+     *
+     * @param filtro Os filtros de CPF, período de entrada e código da vaga.
+     * @throws PeriodoInvalidoException se o fim do período for anterior ao início.
+     */
+    public void validar(Filtro filtro) {
+        if (filtro.inicio() != null && filtro.fim() != null && filtro.fim().isBefore(filtro.inicio())) {
+            throw new PeriodoInvalidoException("O fim do período deve ser igual ou posterior ao início");
+        }
+    }
+
+    /**
+     * Exporta os estacionamentos que atendem ao filtro no formato informado, escrevendo diretamente no fluxo de saída.
+     *
+     * @param filtro Os filtros de CPF, período de entrada e código da vaga.
+     * @param formato O formato do arquivo.
+     * @param saida Fluxo onde o arquivo será escrito.
+     * @return O número de estacionamentos exportados.
+     * @throws PeriodoInvalidoException se o fim do período for anterior ao início.
+     * @throws IOException se ocorrer algum erro ao escrever no fluxo de saída.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Filtro filtro, Formato formato, OutputStream saida) throws IOException {
+        validar(filtro);
+
+        AtomicLong total = new AtomicLong();
+        try (EscritorTabela escritor = formato == Formato.XLSX ? new EscritorXlsx(saida, "Estacionamentos") : new EscritorCsv(saida)) {
+            for (String coluna : CABECALHO) {
+                escritor.texto(coluna);
+            }
+            escritor.fimLinha();
+
+            try {
+                clienteVagaExportacaoRepository.percorrer(filtro, rs -> {
+                    try {
+                        escritor.texto(rs.getString(1));
+                        escritor.texto(rs.getString(2));
+                        escritor.texto(rs.getString(3));
+                        escritor.texto(rs.getString(4));
+                        escritor.texto(rs.getString(5));
+                        escritor.texto(rs.getString(6));
+                        escritor.texto(rs.getString(7));
+                        escritor.texto(rs.getString(8));
+                        escritor.dataHora(rs.getObject(9, LocalDateTime.class));
+                        escritor.dataHora(rs.getObject(10, LocalDateTime.class));
+                        escritor.numero(rs.getBigDecimal(11));
+                        escritor.numero(rs.getBigDecimal(12));
+                        escritor.fimLinha();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    total.incrementAndGet();
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+        return total.get();
+    }
+}
@@ -0,0 +1,525 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.entity.Cliente;
+import com.walter.demopark.repository.IndiceClientesRepository;
+import com.walter.demopark.util.TransacaoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Classe IndiceClientesService que mantém em memória um índice de busca de clientes por prefixo das palavras do
+ * nome, do CPF e das placas já usadas pelo cliente. Os termos, normalizados sem acentos, pontuação e maiúsculas,
+ * ficam em um mapa ordenado (ConcurrentSkipListMap), que funciona como uma trie: todos os termos que começam com
+ * um prefixo formam um intervalo contínuo do mapa. Cada termo aponta para os ids dos clientes que o contêm.
+ * Quando nenhum cliente começa com as palavras buscadas, a busca tolera erros de digitação nas palavras do nome:
+ * os termos com trigramas em comum com a palavra são os candidatos, e os que ficam a uma ou duas edições dela
+ * (inserção, remoção, troca ou transposição de letras) são percorridos em ordem de distância; assim "rodirgo"
+ * encontra "rodrigo". CPFs e placas só são encontrados por prefixo.
+ * O índice é montado a partir do banco na inicialização e atualizado após o commit do cadastro de um cliente e do
+ * check-in com uma placa nova. As buscas não consultam o banco de dados nem bloqueiam as atualizações.
+ */
+@Slf4j
+@Service
+public class IndiceClientesService implements SmartInitializingSingleton {
+
+    /**
+     * Um cliente no índice, com as placas já usadas por ele.
+     */
+    public record ClienteIndexado(Long id, String nome, String cpf, List<String> placas) {
+    }
+
+    /**
+     * O cliente e os seus termos normalizados, usados para conferir as demais palavras da busca.
+     */
+    private record Entrada(ClienteIndexado cliente, List<String> termos) {
+
+        boolean contemPrefixos(List<String> prefixos) {
+            for (String prefixo : prefixos) {
+                if (termos.stream().noneMatch(termo -> termo.startsWith(prefixo))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean contemAproximados(List<String> palavras) {
+            for (String palavra : palavras) {
+                int tolerancia = tolerancia(palavra);
+                if (termos.stream().noneMatch(termo -> termo.startsWith(palavra)
+                        || (tolerancia > 0 && distanciaPrefixo(palavra, termo, tolerancia) <= tolerancia))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Os clientes por id, os ids dos clientes de cada termo, em ordem crescente, e os termos do nome que contêm
+     * cada trigrama. Os arrays de ids não são alterados depois de publicados: cada atualização grava um array novo.
+     */
+    private record Indice(Map<Long, Entrada> clientes, NavigableMap<String, long[]> termos,
+                          Map<String, Set<String>> trigramas) {
+    }
+
+    /**
+     * Um termo candidato da busca tolerante e a sua distância de edição até a palavra buscada.
+     */
+    private record Proximo(String termo, int distancia) {
+    }
+
+    // Número máximo de resultados de uma busca
+    private static final int LIMITE_MAXIMO = 50;
+
+    // Número máximo de ids examinados por busca, que limita o tempo de um prefixo muito comum em várias palavras
+    private static final int VARREDURA_MAXIMA = 20_000;
+
+    // Número máximo de termos comparados pela busca tolerante, os que têm mais trigramas em comum com a palavra
+    private static final int CANDIDATOS_MAXIMOS = 2_000;
+
+    private final IndiceClientesRepository indiceClientesRepository;
+
+    private volatile Indice indice = new Indice(new ConcurrentHashMap<>(), new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+
+    // Serializa as reconstruções. Um ReentrantLock, e não synchronized, para não prender a thread do sistema
+    // operacional durante a leitura do banco quando a aplicação usa threads virtuais
+    private final ReentrantLock reconstrucao = new ReentrantLock();
+
+    // Atualizações feitas durante uma reconstrução, repetidas sobre o índice novo antes de publicá-lo; null fora
+    // de uma reconstrução. Acessado apenas sob o monitor desta classe
+    private List<Map.Entry<Long, UnaryOperator<ClienteIndexado>>> pendentes;
+
+    public IndiceClientesService(IndiceClientesRepository indiceClientesRepository) {
+        this.indiceClientesRepository = indiceClientesRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconstruir();
+    }
+
+    /**
+     * Monta de novo o índice com todos os clientes e as placas do histórico, lidos do primário. As atualizações
+     * feitas enquanto o banco é lido são guardadas e repetidas sobre o índice novo antes que ele substitua o atual,
+     * de modo que nenhum cadastro ou check-in confirmado durante a leitura fica de fora.
+     *
+     * @return O número de clientes no índice.
+     */
+    public int reconstruir() {
+        reconstrucao.lock();
+        try {
+            synchronized (this) {
+                pendentes = new ArrayList<>();
+            }
+            try {
+                Indice novo = montar();
+                synchronized (this) {
+                    for (Map.Entry<Long, UnaryOperator<ClienteIndexado>> pendente : pendentes) {
+                        aplicar(novo, pendente.getKey(), pendente.getValue());
+                    }
+                    indice = novo;
+                }
+                log.info("Índice de clientes reconstruído com {} clientes e {} termos",
+                        novo.clientes().size(), novo.termos().size());
+                return novo.clientes().size();
+            } finally {
+                synchronized (this) {
+                    pendentes = null;
+                }
+            }
+        } finally {
+            reconstrucao.unlock();
+        }
+    }
+
+    /**
+     * Lê os clientes e as placas do banco e monta um índice novo, ainda não publicado.
+     */
+    private Indice montar() {
+        Map<Long, ClienteIndexado> clientes = new HashMap<>();
+        indiceClientesRepository.percorrerClientes(rs -> {
+            ClienteIndexado cliente = new ClienteIndexado(rs.getLong(1), rs.getString(2), rs.getString(3), new ArrayList<>());
+            clientes.put(cliente.id(), cliente);
+        });
+        indiceClientesRepository.percorrerPlacas(rs -> {
+            ClienteIndexado cliente = clientes.get(rs.getLong(1));
+            if (cliente != null) {
+                cliente.placas().add(rs.getString(2));
+            }
+        });
+
+        // Os ids de cada termo são acumulados e ordenados uma única vez, em vez de copiados a cada cliente
+        Map<Long, Entrada> entradas = new ConcurrentHashMap<>(Math.max(16, clientes.size() * 2));
+        Map<String, IdsEmConstrucao> porTermo = new TreeMap<>();
+        for (ClienteIndexado cliente : clientes.values()) {
+            Entrada entrada = entrada(new ClienteIndexado(cliente.id(), cliente.nome(), cliente.cpf(), List.copyOf(cliente.placas())));
+            entradas.put(cliente.id(), entrada);
+            for (String termo : entrada.termos()) {
+                porTermo.computeIfAbsent(termo, chave -> new IdsEmConstrucao()).adicionar(cliente.id());
+            }
+        }
+        NavigableMap<String, long[]> termos = new ConcurrentSkipListMap<>();
+        Map<String, Set<String>> trigramas = new ConcurrentHashMap<>();
+        porTermo.forEach((termo, ids) -> {
+            termos.put(termo, ids.ordenados());
+            incluirTrigramas(trigramas, termo);
+        });
+        return new Indice(entradas, termos, trigramas);
+    }
+
+    /**
+     * Busca os clientes em que cada palavra do texto é o início de uma palavra do nome, do CPF ou de uma placa.
+     * Os resultados seguem a ordem alfabética do termo encontrado para a palavra mais longa do texto, de modo que
+     * o termo exato vem antes dos que apenas começam com ela. Se nenhum cliente for encontrado, a busca é repetida
+     * tolerando erros de digitação nas palavras do nome, e os resultados seguem a distância até a palavra.
+     *
+     * @param texto O texto da busca, como "rod sil", "0919177", "FIT-10" ou "rodirgo".
+     * @param limite O número máximo de resultados, até LIMITE_MAXIMO.
+     * @return Os clientes encontrados, no máximo o limite.
+     */
+    public List<ClienteIndexado> buscar(String texto, int limite) {
+        List<String> prefixos = palavras(texto);
+        if (prefixos.isEmpty()) {
+            return List.of();
+        }
+        int maximo = Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+        Indice atual = indice;
+
+        // A palavra mais longa é a mais seletiva: o seu intervalo de termos é percorrido e as demais são conferidas
+        String principal = prefixos.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        List<ClienteIndexado> resultado = percorrer(atual,
+                atual.termos().subMap(principal, true, principal + Character.MAX_VALUE, false).values(),
+                entrada -> entrada.contemPrefixos(prefixos), maximo);
+        if (!resultado.isEmpty()) {
+            return resultado;
+        }
+        return percorrer(atual, aproximados(atual, principal), entrada -> entrada.contemAproximados(prefixos), maximo);
+    }
+
+    /**
+     * Percorre as listas de ids em ordem e retorna os clientes aceitos pelo filtro, sem repetir um cliente e
+     * examinando no máximo VARREDURA_MAXIMA ids.
+     */
+    private static List<ClienteIndexado> percorrer(Indice atual, Iterable<long[]> listas, Predicate<Entrada> filtro,
+                                                   int maximo) {
+        Set<Long> vistos = new HashSet<>();
+        List<ClienteIndexado> resultado = new ArrayList<>(maximo);
+        int varridos = 0;
+        for (long[] ids : listas) {
+            for (long id : ids) {
+                if (varridos++ == VARREDURA_MAXIMA) {
+                    return resultado;
+                }
+                if (!vistos.add(id)) {
+                    continue;
+                }
+                Entrada entrada = atual.clientes().get(id);
+                if (entrada != null && filtro.test(entrada)) {
+                    resultado.add(entrada.cliente());
+                    if (resultado.size() == maximo) {
+                        return resultado;
+                    }
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna as listas de ids dos termos do nome próximos da palavra, em ordem de distância e de termo. Os
+     * candidatos são os termos com trigramas em comum com a palavra, a começar pelos que têm mais.
+     */
+    private static List<long[]> aproximados(Indice atual, String palavra) {
+        int tolerancia = tolerancia(palavra);
+        if (tolerancia == 0) {
+            return List.of();
+        }
+        Map<String, Integer> comuns = new HashMap<>();
+        for (String trigrama : trigramas(palavra)) {
+            Set<String> termos = atual.trigramas().get(trigrama);
+            if (termos != null) {
+                for (String termo : termos) {
+                    comuns.merge(termo, 1, Integer::sum);
+                }
+            }
+        }
+        return comuns.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(CANDIDATOS_MAXIMOS)
+                .map(candidato -> new Proximo(candidato.getKey(), distanciaPrefixo(palavra, candidato.getKey(), tolerancia)))
+                .filter(proximo -> proximo.distancia() <= tolerancia)
+                .sorted(Comparator.comparingInt(Proximo::distancia).thenComparing(Proximo::termo))
+                .map(proximo -> atual.termos().get(proximo.termo()))
+                .filter(ids -> ids != null)
+                .toList();
+    }
+
+    /**
+     * Inclui ou atualiza no índice, após o commit, o cliente cadastrado.
+     *
+     * @param cliente O cliente gravado, com id.
+     */
+    public void registrarCliente(Cliente cliente) {
+        Long id = cliente.getId();
+        String nome = cliente.getNome();
+        String cpf = cliente.getCpf();
+        TransacaoUtils.aposCommit(() -> atualizar(id, atual -> new ClienteIndexado(id, nome, cpf,
+                atual == null ? List.of() : atual.placas())));
+    }
+
+    /**
+     * Inclui no índice, após o commit, a placa usada pelo cliente em um check-in, se ainda não estiver lá.
+     *
+     * @param clienteId O id do cliente.
+     * @param placa A placa do check-in.
+     */
+    public void registrarPlaca(Long clienteId, String placa) {
+        TransacaoUtils.aposCommit(() -> atualizar(clienteId, atual -> {
+            if (atual == null || atual.placas().contains(placa)) {
+                return atual;
+            }
+            List<String> placas = new ArrayList<>(atual.placas());
+            placas.add(placa);
+            return new ClienteIndexado(atual.id(), atual.nome(), atual.cpf(), List.copyOf(placas));
+        }));
+    }
+
+    /**
+     * Substitui o cliente no índice e ajusta os termos que entraram ou saíram. As atualizações são sincronizadas
+     * entre si e com a publicação de um índice reconstruído; as buscas concorrentes veem o cliente antigo ou o novo.
+     * Durante uma reconstrução, a atualização é guardada para ser repetida sobre o índice novo.
+     */
+    private synchronized void atualizar(Long id, UnaryOperator<ClienteIndexado> alteracao) {
+        aplicar(indice, id, alteracao);
+        if (pendentes != null) {
+            pendentes.add(Map.entry(id, alteracao));
+        }
+    }
+
+    private static void aplicar(Indice atual, Long id, UnaryOperator<ClienteIndexado> alteracao) {
+        Entrada antiga = atual.clientes().get(id);
+        ClienteIndexado novo = alteracao.apply(antiga == null ? null : antiga.cliente());
+        if (novo == null || (antiga != null && novo == antiga.cliente())) {
+            return;
+        }
+        Entrada nova = entrada(novo);
+        atual.clientes().put(id, nova);
+        for (String termo : nova.termos()) {
+            if (antiga == null || !antiga.termos().contains(termo)) {
+                if (atual.termos().compute(termo, (chave, ids) -> comId(ids, id)).length == 1) {
+                    incluirTrigramas(atual.trigramas(), termo);
+                }
+            }
+        }
+        if (antiga != null) {
+            for (String termo : antiga.termos()) {
+                if (!nova.termos().contains(termo)
+                        && atual.termos().computeIfPresent(termo, (chave, ids) -> semId(ids, id)) == null) {
+                    removerTrigramas(atual.trigramas(), termo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inclui o termo no conjunto de cada um dos seus trigramas, se for uma palavra do nome (apenas letras).
+     */
+    private static void incluirTrigramas(Map<String, Set<String>> trigramas, String termo) {
+        if (tolerancia(termo) > 0) {
+            for (String trigrama : trigramas(termo)) {
+                trigramas.computeIfAbsent(trigrama, chave -> ConcurrentHashMap.newKeySet()).add(termo);
+            }
+        }
+    }
+
+    private static void removerTrigramas(Map<String, Set<String>> trigramas, String termo) {
+        for (String trigrama : trigramas(termo)) {
+            trigramas.computeIfPresent(trigrama, (chave, termos) -> {
+                termos.remove(termo);
+                return termos.isEmpty() ? null : termos;
+            });
+        }
+    }
+
+    /**
+     * Retorna os trigramas do termo, com um espaço no início para que as primeiras letras pesem mais.
+     * "rodrigo" resulta em [" ro", "rod", "odr", "dri", "rig", "igo"].
+     */
+    static List<String> trigramas(String termo) {
+        String marcado = " " + termo;
+        List<String> trigramas = new ArrayList<>(marcado.length());
+        for (int i = 0; i + 3 <= marcado.length(); i++) {
+            trigramas.add(marcado.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    /**
+     * Retorna o número de erros tolerados em uma palavra: nenhum abaixo de 4 letras ou em termos com dígitos
+     * (CPFs e placas), 1 até 7 letras e 2 a partir de 8.
+     */
+    static int tolerancia(String palavra) {
+        if (palavra.length() < 4 || !palavra.chars().allMatch(Character::isLetter)) {
+            return 0;
+        }
+        return palavra.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Retorna a distância de edição entre a palavra e o termo, ou entre a palavra e o início do termo com o mesmo
+     * tamanho, a menor das duas, para que uma palavra incompleta com um erro também encontre o termo.
+     * Distâncias maiores que o máximo são retornadas como maximo + 1.
+     */
+    static int distanciaPrefixo(String palavra, String termo, int maximo) {
+        int inteira = distancia(palavra, termo, maximo);
+        if (termo.length() <= palavra.length() || inteira == 0) {
+            return inteira;
+        }
+        return Math.min(inteira, distancia(palavra, termo.substring(0, palavra.length()), maximo));
+    }
+
+    /**
+     * Distância de edição entre dois termos, contando inserção, remoção, troca e transposição de letras vizinhas
+     * como uma edição cada. O cálculo para assim que a distância passa do máximo.
+     */
+    static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] anterior2 = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] atual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            atual[0] = i;
+            int menor = atual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                atual[j] = Math.min(Math.min(atual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + custo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    atual[j] = Math.min(atual[j], anterior2[j - 2] + 1);
+                }
+                menor = Math.min(menor, atual[j]);
+            }
+            if (menor > maximo) {
+                return maximo + 1;
+            }
+            int[] reciclado = anterior2;
+            anterior2 = anterior;
+            anterior = atual;
+            atual = reciclado;
+        }
+        return Math.min(anterior[b.length()], maximo + 1);
+    }
+
+    private static Entrada entrada(ClienteIndexado cliente) {
+        List<String> termos = new ArrayList<>(palavras(cliente.nome()));
+        termos.add(normalizar(cliente.cpf()));
+        for (String placa : cliente.placas()) {
+            termos.add(normalizar(placa));
+        }
+        return new Entrada(cliente, termos.stream().filter(termo -> !termo.isEmpty()).distinct().toList());
+    }
+
+    private static long[] comId(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+        int posicao = Arrays.binarySearch(ids, id);
+        if (posicao >= 0) {
+            return ids;
+        }
+        posicao = -posicao - 1;
+        long[] novos = new long[ids.length + 1];
+        System.arraycopy(ids, 0, novos, 0, posicao);
+        novos[posicao] = id;
+        System.arraycopy(ids, posicao, novos, posicao + 1, ids.length - posicao);
+        return novos;
+    }
+
+    private static long[] semId(long[] ids, long id) {
+        int posicao = Arrays.binarySearch(ids, id);
+        if (posicao < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] novos = new long[ids.length - 1];
+        System.arraycopy(ids, 0, novos, 0, posicao);
+        System.arraycopy(ids, posicao + 1, novos, posicao, ids.length - posicao - 1);
+        return novos;
+    }
+
+    /**
+     * Separa o texto em palavras, pelos espaços, e normaliza cada uma. "Rodrigo  Silva" resulta em
+     * [rodrigo, silva] e "FIT-1020" em [fit1020].
+     */
+    static List<String> palavras(String texto) {
+        if (texto == null) {
+            return List.of();
+        }
+        return Arrays.stream(texto.trim().split("\\s+"))
+                .map(IndiceClientesService::normalizar)
+                .filter(palavra -> !palavra.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Normaliza um termo: remove acentos e tudo o que não for letra ou dígito, e converte para minúsculas.
+     */
+    static String normalizar(String texto) {
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder termo = new StringBuilder(decomposto.length());
+        for (int i = 0; i < decomposto.length(); i++) {
+            char c = decomposto.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                termo.append(Character.toLowerCase(c));
+            }
+        }
+        return termo.toString();
+    }
+
+    /**
+     * Lista de ids de um termo em construção, usada apenas na reconstrução do índice.
+     */
+    private static final class IdsEmConstrucao {
+
+        private long[] valores = new long[2];
+        private int tamanho;
+
+        void adicionar(long id) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = id;
+        }
+
+        long[] ordenados() {
+            long[] ids = Arrays.copyOf(valores, tamanho);
+            Arrays.sort(ids);
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.entity.ClienteVaga;
+import com.walter.demopark.exception.EntityNotFoundException;
+import com.walter.demopark.repository.ClienteVagaRepository;
+import com.walter.demopark.repository.projection.EstacionamentoAbertoProjection;
+import com.walter.demopark.util.TransacaoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classe IndicePlacasService que mantém em memória um índice hash dos estacionamentos em aberto, pela placa
+ * normalizada (apenas letras e dígitos, em maiúsculas). Atende às câmeras de leitura de placas das cancelas,
+ * que precisam do estacionamento de um veículo sem consultar o banco de dados.
+ * O índice é montado a partir do banco na inicialização, antes de o servidor receber requisições, e atualizado
+ * pelo check-in e pelo check-out somente após o commit da transação. Ele reflete as operações feitas nesta
+ * instância da aplicação: um check-in feito por outra instância não está no índice, e a busca da API confirma
+ * a ausência no banco de dados antes de responder 404.
+ */
+@Slf4j
+@Service
+public class IndicePlacasService implements SmartInitializingSingleton {
+
+    /**
+     * Os dados de um estacionamento em aberto guardados no índice, suficientes para a resposta da busca.
+     */
+    public record EstacionamentoAtivo(String recibo, String placa, String marca, String modelo, String cor,
+                                      String clienteCpf, String vagaCodigo, LocalDateTime dataEntrada) {
+    }
+
+    private final ClienteVagaRepository clienteVagaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Map<String, EstacionamentoAtivo> abertos = new ConcurrentHashMap<>();
+
+    public IndicePlacasService(ClienteVagaRepository clienteVagaRepository, TransactionTemplate transactionTemplate) {
+        this.clienteVagaRepository = clienteVagaRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconstruir();
+    }
+
+    /**
+     * Monta de novo o índice com os estacionamentos em aberto no banco de dados, lidos do primário.
+     * Check-ins e check-outs confirmados durante a leitura podem ficar de fora; por isso o índice é
+     * reconstruído na inicialização, quando ainda não há requisições.
+     *
+     * @return O número de estacionamentos em aberto no índice.
+     */
+    public int reconstruir() {
+        List<EstacionamentoAbertoProjection> registros = transactionTemplate.execute(status -> clienteVagaRepository.buscarAbertos());
+        Map<String, EstacionamentoAtivo> novos = new ConcurrentHashMap<>(Math.max(16, registros.size() * 2));
+        for (EstacionamentoAbertoProjection registro : registros) {
+            EstacionamentoAtivo ativo = new EstacionamentoAtivo(registro.getRecibo(), registro.getPlaca(), registro.getMarca(),
+                    registro.getModelo(), registro.getCor(), registro.getClienteCpf(), registro.getVagaCodigo(),
+                    registro.getDataEntrada());
+            novos.put(normalizar(ativo.placa()), ativo);
+        }
+        abertos = novos;
+        log.info("Índice de placas reconstruído com {} estacionamentos em aberto", novos.size());
+        return novos.size();
+    }
+
+    /**
+     * Busca o estacionamento em aberto da placa, sem acessar o banco de dados.
+     *
+     * @param placa A placa, com ou sem hífen, em maiúsculas ou minúsculas.
+     * @return Um Optional com o estacionamento em aberto, ou vazio se a placa não estiver estacionada.
+     */
+    public Optional<EstacionamentoAtivo> buscar(String placa) {
+        return Optional.ofNullable(abertos.get(normalizar(placa)));
+    }
+
+    /**
+     * Busca o estacionamento em aberto da placa para a resposta da API, que responde 404 se ele não existir.
+     * Um acerto no índice não acessa o banco de dados. Uma ausência é confirmada no banco, pelo índice único da
+     * coluna placa_ativa, porque o check-in pode ter sido feito por outra instância da aplicação. O resultado do
+     * banco não é incluído no índice: um check-out desta instância confirmado durante a consulta deixaria no
+     * índice um estacionamento já encerrado.
+     *
+     * @param placa A placa, com ou sem hífen, em maiúsculas ou minúsculas.
+     * @return O estacionamento em aberto da placa.
+     * @throws EntityNotFoundException se a placa não tiver estacionamento em aberto.
+     */
+    public EstacionamentoAtivo findByPlaca(String placa) {
+        return buscar(placa)
+                .or(() -> buscarNoBanco(placa))
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Nenhum estacionamento em aberto para a placa %s", placa)));
+    }
+
+    private Optional<EstacionamentoAtivo> buscarNoBanco(String placa) {
+        String chave = normalizar(placa);
+        // A placa é gravada no formato AAA-0000; outra chave não tem como estar no banco
+        if (!chave.matches("[A-Z]{3}[0-9]{4}")) {
+            return Optional.empty();
+        }
+        String gravada = chave.substring(0, 3) + "-" + chave.substring(3);
+        return transactionTemplate.execute(status -> clienteVagaRepository.buscarAbertoPorPlaca(gravada))
+                .map(registro -> new EstacionamentoAtivo(registro.getRecibo(), registro.getPlaca(), registro.getMarca(),
+                        registro.getModelo(), registro.getCor(), registro.getClienteCpf(), registro.getVagaCodigo(),
+                        registro.getDataEntrada()));
+    }
+
+    /**
+     * Inclui no índice, após o commit, o estacionamento aberto pelo check-in.
+     *
+     * @param clienteVaga O estacionamento gravado, com cliente e vaga.
+     */
+    public void registrarCheckIn(ClienteVaga clienteVaga) {
+        EstacionamentoAtivo ativo = new EstacionamentoAtivo(clienteVaga.getRecibo(), clienteVaga.getPlaca(),
+                clienteVaga.getMarca(), clienteVaga.getModelo(), clienteVaga.getCor(), clienteVaga.getCliente().getCpf(),
+                clienteVaga.getVaga().getCodigo(), clienteVaga.getDataEntrada());
+        TransacaoUtils.aposCommit(() -> abertos.put(normalizar(ativo.placa()), ativo));
+    }
+
+    /**
+     * Remove do índice, após o commit, o estacionamento encerrado pelo check-out. A entrada só é removida se ainda
+     * for do mesmo recibo, preservando um check-in mais recente da mesma placa.
+     *
+     * @param placa A placa do estacionamento encerrado.
+     * @param recibo O recibo do estacionamento encerrado.
+     */
+    public void registrarCheckOut(String placa, String recibo) {
+        TransacaoUtils.aposCommit(() -> abertos.computeIfPresent(normalizar(placa),
+                (chave, ativo) -> ativo.recibo().equals(recibo) ? null : ativo));
+    }
+
+    /**
+     * Normaliza a placa para a chave do índice: mantém apenas letras e dígitos, em maiúsculas.
+     * Assim "fit-1020", "FIT 1020" e "FIT1020" são a mesma placa.
+     */
+    public static String normalizar(String placa) {
+        StringBuilder chave = new StringBuilder(placa.length());
+        for (int i = 0; i < placa.length(); i++) {
+            char c = placa.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                chave.append(Character.toUpperCase(c));
+            }
+        }
+        return chave.toString();
+    }
+}
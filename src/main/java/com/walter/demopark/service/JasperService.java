@@ -1,12 +1,25 @@
 package com.walter.demopark.service;
 
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperCompileManager;
 import net.sf.jasperreports.engine.JasperExportManager;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
@@ -14,67 +27,282 @@ import org.springframework.stereotype.Service;
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
 
+/**
+ * Classe JasperService responsável por gerar os relatórios PDF a partir dos templates Jasper.
+ * O template compilado é carregado uma única vez na inicialização e reutilizado por todas as requisições,
+ * já que um JasperReport é imutável e pode ser preenchido por várias threads ao mesmo tempo.
+ * Os parâmetros são mantidos por requisição, e a conexão obtida do pool é sempre devolvida ao final do preenchimento.
+ * Os tempos de preenchimento e de exportação são publicados como métricas do Micrometer.
+ * Quando configurado, um virtualizador move as páginas já preenchidas para um arquivo de troca em disco,
+ * limitando a memória usada por relatórios muito grandes.
+ */
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class JasperService {
 
-    // Carregador de recursos para obter o arquivo de relatório Jasper.
-    private final ResourceLoader resourceLoader;
+    // Diretório onde os arquivos Jasper estão localizados.
+    private static final String JASPER_DIRECTORY = "classpath:reports/";
 
-    // Fonte de dados utilizada para preencher o relatório.
+    // Fonte de dados (pool de conexões) utilizada para preencher o relatório.
     private final DataSource dataSource;
 
-    // Mapa de parâmetros que será passado para o relatório Jasper.
-    private Map<String, Object> params = new HashMap<>();
+    // Template compilado do relatório de estacionamentos, carregado uma única vez.
+    private final JasperReport estacionamentos;
 
-    // Diretório onde os arquivos Jasper estão localizados.
-    private static final String JASPER_DIRECTORY = "classpath:reports/";
+    // Template do relatório administrativo por período, compilado uma única vez a partir do .jrxml.
+    private final JasperReport estacionamentosPeriodo;
+
+    // Métricas de tempo de preenchimento e de exportação dos relatórios.
+    private final Timer tempoPreenchimento;
+    private final Timer tempoExportacao;
+    private final Timer tempoPreenchimentoPeriodo;
+    private final Timer tempoExportacaoPeriodo;
+
+    // Número máximo de páginas mantidas em memória por relatório; 0 desativa o virtualizador.
+    private final int paginasEmMemoria;
+
+    // Diretório dos arquivos de troca do virtualizador.
+    private final Path diretorioSwap;
+
+    public JasperService(ResourceLoader resourceLoader, DataSource dataSource, MeterRegistry meterRegistry,
+                         @Value("${demopark.relatorio.virtualizador.paginas:50}") int paginasEmMemoria,
+                         @Value("${demopark.relatorio.virtualizador.diretorio:${java.io.tmpdir}/demopark-relatorios-swap}") Path diretorioSwap) throws IOException {
+        this.dataSource = dataSource;
+        this.paginasEmMemoria = paginasEmMemoria;
+        this.diretorioSwap = Files.createDirectories(diretorioSwap);
+        this.estacionamentos = carregar(resourceLoader, "estacionamentos.jasper");
+        this.estacionamentosPeriodo = compilar(resourceLoader, "estacionamentos-periodo.jrxml");
+        this.tempoPreenchimento = timerPreenchimento(meterRegistry, "estacionamentos");
+        this.tempoExportacao = timerExportacao(meterRegistry, "estacionamentos");
+        this.tempoPreenchimentoPeriodo = timerPreenchimento(meterRegistry, "periodo");
+        this.tempoExportacaoPeriodo = timerExportacao(meterRegistry, "periodo");
+    }
+
+    private static Timer timerPreenchimento(MeterRegistry meterRegistry, String relatorio) {
+        return Timer.builder("demopark.relatorio.preenchimento")
+                .description("Tempo de preenchimento do relatório Jasper")
+                .tag("relatorio", relatorio)
+                .register(meterRegistry);
+    }
+
+    private static Timer timerExportacao(MeterRegistry meterRegistry, String relatorio) {
+        return Timer.builder("demopark.relatorio.exportacao")
+                .description("Tempo de exportação do relatório Jasper para PDF")
+                .tag("relatorio", relatorio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega um template .jasper já compilado do diretório de relatórios.
+     *
+     * @param arquivo Nome do arquivo .jasper.
+     * @return O template compilado.
+     * @throws IllegalStateException se o template não puder ser carregado.
+     */
+    private static JasperReport carregar(ResourceLoader resourceLoader, String arquivo) {
+        Resource resource = resourceLoader.getResource(JASPER_DIRECTORY.concat(arquivo));
+        try (InputStream stream = resource.getInputStream()) {
+            return (JasperReport) JRLoader.loadObject(stream);
+        } catch (IOException | JRException e) {
+            throw new IllegalStateException("Não foi possível carregar o relatório " + arquivo, e);
+        }
+    }
 
     /**
-     * Método responsável por adicionar parâmetros ao relatório.
+     * Compila um template .jrxml do diretório de relatórios.
+     *
+     * @param arquivo Nome do arquivo .jrxml.
+     * @return O template compilado.
+     * @throws IllegalStateException se o template não puder ser compilado.
+     */
+    private static JasperReport compilar(ResourceLoader resourceLoader, String arquivo) {
+        Resource resource = resourceLoader.getResource(JASPER_DIRECTORY.concat(arquivo));
+        try (InputStream stream = resource.getInputStream()) {
+            return JasperCompileManager.compileReport(stream);
+        } catch (IOException | JRException e) {
+            throw new IllegalStateException("Não foi possível compilar o relatório " + arquivo, e);
+        }
+    }
+
+    /**
+     * Monta o mapa de parâmetros de uma requisição.
      * Parâmetros padrões como diretório de imagens e localização são adicionados automaticamente.
      *
-     * @param key   Nome do parâmetro.
-     * @param value Valor do parâmetro.
+     * @param params Parâmetros informados pelo chamador.
+     * @return Um novo mapa, exclusivo da requisição.
      */
-    public void addParams(String key, Object value) {
-        // Adiciona o diretório de imagens e as configurações de localização padrão
-        this.params.put("IMAGEM_DIRETORIO", JASPER_DIRECTORY);
-        this.params.put("REPORT_LOCALE", new Locale("pt", "BR"));
-        // Adiciona o parâmetro passado pelo usuário
-        this.params.put(key, value);
+    private Map<String, Object> parametros(Map<String, Object> params) {
+        Map<String, Object> parametros = new HashMap<>();
+        parametros.put("IMAGEM_DIRETORIO", JASPER_DIRECTORY);
+        parametros.put("REPORT_LOCALE", new Locale("pt", "BR"));
+        parametros.putAll(params);
+        return parametros;
     }
 
     /**
-     * Método responsável por gerar o relatório PDF com base no template Jasper.
+     * Cria um virtualizador exclusivo do preenchimento, que grava as páginas excedentes em um arquivo de troca.
+     * O arquivo pertence ao virtualizador e é apagado no cleanup.
      *
-     * @return Array de bytes contendo o conteúdo do relatório gerado.
+     * @return O virtualizador, ou null se estiver desativado.
+     */
+    private JRSwapFileVirtualizer virtualizador() {
+        if (paginasEmMemoria <= 0) {
+            return null;
+        }
+        JRSwapFile swap = new JRSwapFile(diretorioSwap.toString(), 4096, 64);
+        return new JRSwapFileVirtualizer(paginasEmMemoria, swap, true);
+    }
+
+    /**
+     * Método responsável por gerar o relatório PDF com base no template Jasper, escrevendo o PDF
+     * diretamente no fluxo de saída informado. O relatório é preenchido pela consulta embutida no template,
+     * usando uma conexão do pool.
+     *
+     * @param params Parâmetros do relatório, por exemplo o CPF do cliente.
+     * @param saida Fluxo onde o PDF será escrito, por exemplo o fluxo de saída da resposta HTTP ou um arquivo.
+     * @throws RuntimeException se houver erro durante a geração do relatório.
+     */
+    public void generateReport(Map<String, Object> params, OutputStream saida) {
+        gerar(params, saida, parametros -> {
+            // Devolve a conexão ao pool ao final do preenchimento
+            try (Connection connection = dataSource.getConnection()) {
+                return JasperFillManager.fillReport(estacionamentos, parametros, connection);
+            }
+        });
+    }
+
+    /**
+     * Método responsável por gerar o relatório PDF com base no template Jasper, preenchido a partir da fonte
+     * de dados informada no lugar da consulta embutida no template.
+     *
+     * @param params Parâmetros do relatório, por exemplo o CPF do cliente.
+     * @param registros Fonte de dados com as linhas do relatório, consumida uma única vez.
+     * @param saida Fluxo onde o PDF será escrito.
      * @throws RuntimeException se houver erro durante a geração do relatório.
      */
-    public byte[] generateReport() {
-        byte[] bytes = null;
+    public void generateReport(Map<String, Object> params, JRDataSource registros, OutputStream saida) {
+        gerar(params, saida, parametros -> JasperFillManager.fillReport(estacionamentos, parametros, registros));
+    }
+
+    /**
+     * Preenchimento do relatório a partir dos parâmetros da requisição.
+     */
+    @FunctionalInterface
+    private interface Preenchimento {
+        JasperPrint preencher(Map<String, Object> parametros) throws SQLException, JRException;
+    }
+
+    /**
+     * Preenche o relatório e o exporta para PDF diretamente no fluxo de saída. O documento não é mantido
+     * inteiro em memória: o PDF é escrito à medida que é exportado e, com o virtualizador ativo, as páginas
+     * preenchidas ficam em disco até a exportação.
+     */
+    private void gerar(Map<String, Object> params, OutputStream saida, Preenchimento preenchimento) {
+        JRSwapFileVirtualizer virtualizador = virtualizador();
         try {
-            // Carrega o arquivo .jasper do diretório especificado
-            Resource resource = resourceLoader.getResource(JASPER_DIRECTORY.concat("estacionamentos.jasper"));
-            InputStream stream = resource.getInputStream();
+            Map<String, Object> parametros = parametros(params);
+            if (virtualizador != null) {
+                parametros.put(JRParameter.REPORT_VIRTUALIZER, virtualizador);
+            }
 
             // Preenche o relatório com os dados fornecidos e os parâmetros
-            JasperPrint print = JasperFillManager.fillReport(stream, params, dataSource.getConnection());
+            JasperPrint print;
+            Timer.Sample amostra = Timer.start(Clock.SYSTEM);
+            try {
+                print = preenchimento.preencher(parametros);
+            } finally {
+                amostra.stop(tempoPreenchimento);
+            }
+            if (virtualizador != null) {
+                // As páginas não mudam mais após o preenchimento e não precisam ser regravadas ao sair da memória
+                virtualizador.setReadOnly(true);
+            }
 
-            // Exporta o relatório preenchido para o formato PDF
-            bytes = JasperExportManager.exportReportToPdf(print);
-        } catch (IOException | SQLException | JRException e) {
+            // Exporta o relatório preenchido para o formato PDF, diretamente no fluxo de saída
+            amostra = Timer.start(Clock.SYSTEM);
+            try {
+                JasperExportManager.exportReportToPdfStream(print, saida);
+            } finally {
+                amostra.stop(tempoExportacao);
+            }
+        } catch (SQLException | JRException e) {
             // Loga o erro e lança uma exceção de runtime caso ocorra algum erro
-            log.error("Erro ao gerar relatório: {}", e.getCause());
+            log.error("Erro ao gerar relatório: {}", e.getMessage());
             throw new RuntimeException(e);
+        } finally {
+            if (virtualizador != null) {
+                virtualizador.cleanup();
+            }
         }
-        return bytes;
     }
-}
 
+    /**
+     * Preenchimento de uma partição do relatório administrativo por período.
+     */
+    @FunctionalInterface
+    public interface PreenchimentoParticao {
+        JasperPrint preencher(Map<String, Object> params, JRDataSource registros);
+    }
+
+    /**
+     * Gera o relatório administrativo por período em PDF, com uma seção por partição, escrito diretamente no fluxo
+     * de saída. O chamador recebe o preenchimento de uma partição e devolve as partições preenchidas, na ordem do
+     * relatório; elas podem ser preenchidas em paralelo. Todas as partições compartilham um único virtualizador,
+     * então o limite de páginas em memória vale para o relatório inteiro, e não para cada partição.
+     *
+     * @param particoes Função que preenche as partições com o preenchimento informado e as devolve na ordem.
+     * @param saida Fluxo onde o PDF será escrito.
+     * @throws RuntimeException se houver erro durante o preenchimento ou a exportação.
+     */
+    public void generatePeriodReport(Function<PreenchimentoParticao, List<JasperPrint>> particoes, OutputStream saida) {
+        JRSwapFileVirtualizer virtualizador = virtualizador();
+        try {
+            List<JasperPrint> prints = particoes.apply((params, registros) -> {
+                Map<String, Object> parametros = parametros(params);
+                if (virtualizador != null) {
+                    parametros.put(JRParameter.REPORT_VIRTUALIZER, virtualizador);
+                }
+                Timer.Sample amostra = Timer.start(Clock.SYSTEM);
+                try {
+                    return JasperFillManager.fillReport(estacionamentosPeriodo, parametros, registros);
+                } catch (JRException e) {
+                    log.error("Erro ao preencher relatório por período: {}", e.getMessage());
+                    throw new RuntimeException(e);
+                } finally {
+                    amostra.stop(tempoPreenchimentoPeriodo);
+                }
+            });
+            if (virtualizador != null) {
+                virtualizador.setReadOnly(true);
+            }
+
+            JRPdfExporter exporter = new JRPdfExporter();
+            exporter.setExporterInput(SimpleExporterInput.getInstance(prints));
+            exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(saida));
+            Timer.Sample amostra = Timer.start(Clock.SYSTEM);
+            try {
+                exporter.exportReport();
+            } finally {
+                amostra.stop(tempoExportacaoPeriodo);
+            }
+        } catch (JRException e) {
+            log.error("Erro ao exportar relatório: {}", e.getMessage());
+            throw new RuntimeException(e);
+        } finally {
+            if (virtualizador != null) {
+                virtualizador.cleanup();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.entity.Vaga;
+import com.walter.demopark.repository.VagaRepository;
+import com.walter.demopark.util.TransacaoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Classe OcupacaoService que mantém em memória a ocupação do estacionamento (total de vagas e vagas ocupadas) e a
+ * publica como um fluxo reativo para as cancelas e painéis, que ficam conectados esperando as mudanças.
+ * A ocupação é contada no banco na inicialização e atualizada pelo check-in, pelo check-out e pelo cadastro de
+ * vagas somente após o commit da transação. Essas atualizações refletem apenas as operações feitas nesta
+ * instância da aplicação; a recontagem periódica no banco (demopark.reativo.ocupacao.intervalo) incorpora as
+ * operações das demais instâncias e corrige uma mudança perdida entre a contagem e a sua publicação.
+ */
+@Slf4j
+@Service
+public class OcupacaoService implements SmartInitializingSingleton {
+
+    /**
+     * A ocupação do estacionamento em um instante.
+     */
+    public record Ocupacao(long total, long ocupadas) {
+
+        public long livres() {
+            return total - ocupadas;
+        }
+    }
+
+    private final VagaRepository vagaRepository;
+
+    // Guarda a última ocupação e a entrega a cada novo assinante antes das mudanças seguintes
+    private final Sinks.Many<Ocupacao> mudancas = Sinks.many().replay().latest();
+
+    private volatile Ocupacao atual = new Ocupacao(0, 0);
+
+    public OcupacaoService(VagaRepository vagaRepository) {
+        this.vagaRepository = vagaRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconstruir();
+    }
+
+    /**
+     * Conta de novo as vagas no banco de dados, lidas do primário, e publica a ocupação.
+     *
+     * @return A ocupação contada.
+     */
+    public Ocupacao reconstruir() {
+        publicar(contar());
+        log.info("Ocupação reconstruída com {} vagas, {} ocupadas", atual.total(), atual.ocupadas());
+        return atual;
+    }
+
+    /**
+     * Recontagem periódica das vagas no banco. A ocupação só é publicada se for diferente da atual, para não
+     * enviar aos assinantes um valor repetido.
+     */
+    @Scheduled(fixedDelayString = "${demopark.reativo.ocupacao.intervalo:30000}",
+            initialDelayString = "${demopark.reativo.ocupacao.intervalo:30000}")
+    public void sincronizar() {
+        Ocupacao contada = contar();
+        if (!contada.equals(atual)) {
+            log.debug("Ocupação sincronizada com o banco: {} vagas, {} ocupadas", contada.total(), contada.ocupadas());
+            publicar(contada);
+        }
+    }
+
+    private Ocupacao contar() {
+        return new Ocupacao(vagaRepository.count(), vagaRepository.countByStatus(Vaga.StatusVaga.OCUPADA));
+    }
+
+    /**
+     * Retorna a ocupação atual, sem acessar o banco de dados.
+     */
+    public Ocupacao atual() {
+        return atual;
+    }
+
+    /**
+     * Retorna o fluxo da ocupação: a atual, na assinatura, e cada mudança seguinte.
+     */
+    public Flux<Ocupacao> mudancas() {
+        return mudancas.asFlux();
+    }
+
+    /**
+     * Soma, após o commit, a vaga ocupada pelo check-in.
+     */
+    public void registrarCheckIn() {
+        TransacaoUtils.aposCommit(() -> alterar(0, 1));
+    }
+
+    /**
+     * Subtrai, após o commit, a vaga liberada pelo check-out.
+     */
+    public void registrarCheckOut() {
+        TransacaoUtils.aposCommit(() -> alterar(0, -1));
+    }
+
+    /**
+     * Soma, após o commit, a vaga cadastrada, ocupada ou não conforme o seu status.
+     *
+     * @param vaga A vaga gravada.
+     */
+    public void registrarVaga(Vaga vaga) {
+        int ocupada = vaga.getStatus() == Vaga.StatusVaga.OCUPADA ? 1 : 0;
+        TransacaoUtils.aposCommit(() -> alterar(1, ocupada));
+    }
+
+    private synchronized void alterar(int total, int ocupadas) {
+        publicar(new Ocupacao(atual.total() + total, atual.ocupadas() + ocupadas));
+    }
+
+    /**
+     * Publica a nova ocupação. É sincronizado porque o sink aceita uma emissão por vez; a entrega aos assinantes
+     * apenas enfileira o valor, sem esperar a escrita nas conexões.
+     */
+    private synchronized void publicar(Ocupacao ocupacao) {
+        atual = ocupacao;
+        mudancas.tryEmitNext(ocupacao);
+    }
+}
@@ -0,0 +1,242 @@
+package com.walter.demopark.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe RelatorioCacheService que mantém em disco os relatórios PDF já gerados, indexados pelo CPF do cliente
+ * e pela versão do seu histórico de estacionamentos. Enquanto o histórico não muda, o mesmo PDF é reaproveitado
+ * sem acionar o Jasper. Apenas a versão mais recente de cada CPF é mantida, e os relatórios menos usados são
+ * removidos quando o tamanho total ultrapassa o limite configurado (LRU por tamanho).
+ *
+ * Cada versão é gravada em um arquivo temporário e renomeada atomicamente para o seu nome definitivo, que nunca é
+ * sobrescrito. Um arquivo substituído ou removido do índice não é apagado na hora: um sendfile adiado do Tomcat ou
+ * o download de um job podem ainda estar lendo o arquivo. Ele só é apagado após o período de carência
+ * (demopark.relatorio.cache.carencia), e a remoção que falhar, como no Windows com o arquivo ainda aberto, é
+ * repetida na limpeza seguinte.
+ */
+@Slf4j
+@Service
+public class RelatorioCacheService {
+
+    /**
+     * Um relatório armazenado no cache.
+     */
+    private record Entrada(String versao, Path arquivo, long tamanho) {
+    }
+
+    /**
+     * Um arquivo que saiu do índice e aguarda o fim do período de carência para ser apagado.
+     */
+    private record Descartado(Path arquivo, Instant descartadoEm) {
+    }
+
+    private final JasperService jasperService;
+
+    private final ClienteVagaService clienteVagaService;
+
+    // Quando verdadeiro, o relatório é preenchido pelo histórico lido em lotes, e não pela consulta do template.
+    private final boolean streaming;
+
+    // Número de linhas do histórico lidas por lote no modo streaming.
+    private final int tamanhoLote;
+
+    // Diretório onde os PDFs em cache são armazenados.
+    private final Path diretorio;
+
+    // Tamanho máximo, em bytes, ocupado pelos PDFs em cache.
+    private final long tamanhoMaximo;
+
+    // Índice em ordem de acesso (LRU), do CPF para o relatório da versão mais recente. Protegido por synchronized.
+    private final LinkedHashMap<String, Entrada> indice = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Tamanho total, em bytes, dos relatórios do índice. Protegido por synchronized.
+    private long tamanhoTotal;
+
+    // Tempo mínimo entre a saída de um arquivo do índice e a sua remoção do disco.
+    private final Duration carencia;
+
+    // Arquivos que saíram do índice, na ordem em que foram descartados. Protegido por synchronized.
+    private final List<Descartado> descartados = new ArrayList<>();
+
+    private final Counter acertos;
+    private final Counter falhas;
+
+    public RelatorioCacheService(JasperService jasperService,
+                                 ClienteVagaService clienteVagaService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${demopark.relatorio.cache.diretorio:${java.io.tmpdir}/demopark-relatorios-cache}") Path diretorio,
+                                 @Value("${demopark.relatorio.cache.tamanho-maximo:256MB}") DataSize tamanhoMaximo,
+                                 @Value("${demopark.relatorio.modo:jdbc}") String modo,
+                                 @Value("${demopark.relatorio.lote:500}") int tamanhoLote,
+                                 @Value("${demopark.relatorio.cache.carencia:5m}") Duration carencia) throws IOException {
+        this.jasperService = jasperService;
+        this.clienteVagaService = clienteVagaService;
+        this.streaming = "streaming".equalsIgnoreCase(modo);
+        this.tamanhoLote = tamanhoLote;
+        this.diretorio = Files.createDirectories(diretorio);
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+        this.carencia = carencia;
+        this.acertos = Counter.builder("demopark.relatorio.cache").tag("resultado", "acerto").register(meterRegistry);
+        this.falhas = Counter.builder("demopark.relatorio.cache").tag("resultado", "falha").register(meterRegistry);
+        removerArquivosAntigos();
+    }
+
+    /**
+     * Remove os PDFs que sobraram de uma execução anterior da aplicação, já que o índice fica apenas em memória.
+     */
+    private void removerArquivosAntigos() throws IOException {
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, "*.{pdf,tmp}")) {
+            for (Path arquivo : arquivos) {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+    }
+
+    /**
+     * Retorna o PDF do relatório de estacionamentos do cliente. Se a versão do histórico não mudou desde a
+     * última geração, o arquivo em cache é reaproveitado; caso contrário, o relatório é gerado novamente.
+     *
+     * @param cpf O CPF do cliente.
+     * @return O caminho do PDF em disco.
+     */
+    public Path buscarOuGerar(String cpf) {
+        String versao = clienteVagaService.getVersaoHistorico(cpf);
+
+        synchronized (this) {
+            Entrada entrada = indice.get(cpf);
+            if (entrada != null && entrada.versao().equals(versao) && Files.exists(entrada.arquivo())) {
+                acertos.increment();
+                return entrada.arquivo();
+            }
+        }
+
+        falhas.increment();
+        Path temporario = gerar(cpf);
+        synchronized (this) {
+            Entrada nova = publicar(temporario, cpf, versao);
+            Entrada anterior = indice.put(cpf, nova);
+            tamanhoTotal += nova.tamanho();
+            if (anterior != null) {
+                // Uma versão antiga do mesmo CPF deixa de ser útil assim que a nova é gerada
+                tamanhoTotal -= anterior.tamanho();
+                if (!anterior.arquivo().equals(nova.arquivo())) {
+                    descartar(anterior.arquivo());
+                }
+            }
+            removerMenosUsados(cpf);
+            return nova.arquivo();
+        }
+    }
+
+    /**
+     * Gera o relatório em um arquivo temporário.
+     */
+    private Path gerar(String cpf) {
+        Path temporario = null;
+        try {
+            temporario = Files.createTempFile(diretorio, cpf, ".tmp");
+            try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(temporario))) {
+                if (streaming) {
+                    jasperService.generateReport(Map.of("CPF", cpf),
+                            new EstacionamentoJRDataSource(clienteVagaService, cpf, tamanhoLote), saida);
+                } else {
+                    jasperService.generateReport(Map.of("CPF", cpf), saida);
+                }
+            }
+            return temporario;
+        } catch (IOException | RuntimeException ex) {
+            if (temporario != null) {
+                remover(temporario);
+            }
+            throw ex instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) ex;
+        }
+    }
+
+    /**
+     * Renomeia atomicamente o arquivo temporário para o nome definitivo, composto pelo CPF e pela versão.
+     * Se outra geração da mesma versão já publicou o arquivo, ele é mantido, pois pode estar sendo lido, e o
+     * temporário é apagado. Chamado com o monitor da classe, que protege a verificação e a renomeação.
+     */
+    private Entrada publicar(Path temporario, String cpf, String versao) {
+        Path arquivo = diretorio.resolve(cpf + "-" + versao + ".pdf");
+        try {
+            if (Files.exists(arquivo)) {
+                remover(temporario);
+                // O arquivo pode ter sido descartado antes e voltado ao índice com a mesma versão
+                descartados.removeIf(descartado -> descartado.arquivo().equals(arquivo));
+            } else {
+                Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new Entrada(versao, arquivo, Files.size(arquivo));
+        } catch (IOException ex) {
+            remover(temporario);
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Remove os relatórios menos usados até que o tamanho total fique dentro do limite.
+     * O relatório recém gerado nunca é removido, mesmo que sozinho ultrapasse o limite.
+     */
+    private void removerMenosUsados(String cpfAtual) {
+        Iterator<Map.Entry<String, Entrada>> iterator = indice.entrySet().iterator();
+        while (tamanhoTotal > tamanhoMaximo && iterator.hasNext()) {
+            Map.Entry<String, Entrada> eldest = iterator.next();
+            if (eldest.getKey().equals(cpfAtual)) {
+                continue;
+            }
+            iterator.remove();
+            tamanhoTotal -= eldest.getValue().tamanho();
+            descartar(eldest.getValue().arquivo());
+        }
+    }
+
+    /**
+     * Agenda a remoção de um arquivo que saiu do índice para depois do período de carência.
+     */
+    private void descartar(Path arquivo) {
+        descartados.add(new Descartado(arquivo, Instant.now()));
+    }
+
+    /**
+     * Apaga os arquivos descartados cujo período de carência já passou. Os que não puderem ser apagados
+     * continuam na fila e são tentados de novo na próxima execução.
+     */
+    @Scheduled(fixedDelayString = "${demopark.relatorio.cache.limpeza:60000}")
+    public synchronized void removerDescartados() {
+        Instant limite = Instant.now().minus(carencia);
+        descartados.removeIf(descartado -> descartado.descartadoEm().isBefore(limite) && remover(descartado.arquivo()));
+    }
+
+    private boolean remover(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+            return true;
+        } catch (IOException ex) {
+            log.warn("Não foi possível remover o relatório em cache {}", arquivo, ex);
+            return false;
+        }
+    }
+}
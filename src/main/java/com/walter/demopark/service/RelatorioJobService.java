@@ -0,0 +1,214 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.exception.EntityNotFoundException;
+import com.walter.demopark.exception.RelatorioFilaCheiaException;
+import com.walter.demopark.exception.RelatorioNaoConcluidoException;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe RelatorioJobService que gera os relatórios PDF de forma assíncrona, fora das threads do Tomcat.
+ * Os jobs são executados por um pool limitado de threads de baixa prioridade, para não competir com o tráfego
+ * de check-in e check-out. No perfil virtual (spring.threads.virtual.enabled) as threads do pool são virtuais; o
+ * número de workers continua limitando os relatórios gerados ao mesmo tempo, que usam CPU e memória do Jasper.
+ * O PDF gerado fica no cache de relatórios em disco, e o job expira após o TTL configurado.
+ * Pedidos repetidos para o mesmo CPF enquanto um job está pendente ou em execução retornam o mesmo job.
+ */
+@Slf4j
+@Service
+public class RelatorioJobService {
+
+    /**
+     * Estados possíveis de um job de relatório.
+     */
+    public enum StatusJob {
+        PENDENTE, EXECUTANDO, CONCLUIDO, ERRO
+    }
+
+    /**
+     * Representa um pedido de geração de relatório. Os campos mutáveis são voláteis, pois são
+     * atualizados pela thread do pool e lidos pelas threads das requisições de consulta.
+     */
+    @Getter
+    public static class RelatorioJob {
+
+        private final String id;
+        private final Long usuarioId;
+        private final String cpf;
+        private final LocalDateTime criadoEm = LocalDateTime.now();
+        private volatile StatusJob status = StatusJob.PENDENTE;
+        private volatile LocalDateTime concluidoEm;
+        private volatile String mensagem;
+        private volatile Path arquivo;
+
+        RelatorioJob(String id, Long usuarioId, String cpf) {
+            this.id = id;
+            this.usuarioId = usuarioId;
+            this.cpf = cpf;
+        }
+
+        boolean isFinalizado() {
+            return status == StatusJob.CONCLUIDO || status == StatusJob.ERRO;
+        }
+    }
+
+    private final RelatorioCacheService relatorioCacheService;
+
+    // Tempo que um job finalizado permanece disponível para consulta e download.
+    private final Duration ttl;
+
+    // Pool limitado de threads de baixa prioridade com fila também limitada.
+    private final ThreadPoolExecutor executor;
+
+    // Todos os jobs conhecidos, indexados pelo id.
+    private final Map<String, RelatorioJob> jobs = new ConcurrentHashMap<>();
+
+    // Jobs pendentes ou em execução, indexados pelo CPF, usados para agrupar pedidos repetidos.
+    private final Map<String, RelatorioJob> ativosPorCpf = new ConcurrentHashMap<>();
+
+    public RelatorioJobService(RelatorioCacheService relatorioCacheService,
+                               @Value("${demopark.relatorio.ttl:1h}") Duration ttl,
+                               @Value("${demopark.relatorio.workers:2}") int workers,
+                               @Value("${demopark.relatorio.fila:100}") int fila,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+        this.relatorioCacheService = relatorioCacheService;
+        this.ttl = ttl;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(fila), threadFactory(threadsVirtuais), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Cria as threads do pool com prioridade mínima, para que o agendador do sistema operacional
+     * privilegie as threads que atendem as requisições da portaria. Threads virtuais não têm prioridade:
+     * a espera pelo banco e pelo disco libera a thread do sistema operacional para as requisições.
+     */
+    private static ThreadFactory threadFactory(boolean virtuais) {
+        if (virtuais) {
+            return Thread.ofVirtual().name("relatorio-", 1).factory();
+        }
+        AtomicInteger contador = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "relatorio-" + contador.incrementAndGet());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Submete um novo job de relatório para o CPF informado. Se já existir um job pendente ou em execução
+     * para o mesmo CPF, esse job é retornado no lugar de um novo.
+     *
+     * @param usuarioId O ID do usuário dono do relatório.
+     * @param cpf O CPF do cliente.
+     * @return O job criado ou o job já existente para o CPF.
+     * @throws RelatorioFilaCheiaException se a fila de relatórios estiver cheia.
+     */
+    public RelatorioJob submeter(Long usuarioId, String cpf) {
+        RelatorioJob novo = new RelatorioJob(UUID.randomUUID().toString(), usuarioId, cpf);
+        RelatorioJob existente = ativosPorCpf.putIfAbsent(cpf, novo);
+        if (existente != null) {
+            return existente;
+        }
+
+        jobs.put(novo.getId(), novo);
+        try {
+            executor.execute(() -> executar(novo));
+        } catch (RejectedExecutionException ex) {
+            ativosPorCpf.remove(cpf, novo);
+            jobs.remove(novo.getId());
+            throw new RelatorioFilaCheiaException("Fila de relatórios cheia, tente novamente em instantes");
+        }
+        return novo;
+    }
+
+    /**
+     * Executa o job na thread do pool. O PDF é obtido do cache de relatórios, que só aciona o Jasper
+     * quando o histórico do cliente mudou desde a última geração.
+     */
+    private void executar(RelatorioJob job) {
+        job.status = StatusJob.EXECUTANDO;
+        try {
+            job.arquivo = relatorioCacheService.buscarOuGerar(job.getCpf());
+            job.concluidoEm = LocalDateTime.now();
+            job.status = StatusJob.CONCLUIDO;
+        } catch (Exception ex) {
+            log.error("Erro ao executar o job de relatório {}", job.getId(), ex);
+            job.mensagem = "Erro ao gerar o relatório";
+            job.concluidoEm = LocalDateTime.now();
+            job.status = StatusJob.ERRO;
+        } finally {
+            ativosPorCpf.remove(job.getCpf(), job);
+        }
+    }
+
+    /**
+     * Busca um job pelo id, garantindo que ele pertence ao usuário informado.
+     *
+     * @param id O id do job.
+     * @param usuarioId O ID do usuário autenticado.
+     * @return O job correspondente.
+     * @throws EntityNotFoundException se o job não existir, tiver expirado ou pertencer a outro usuário.
+     */
+    public RelatorioJob buscar(String id, Long usuarioId) {
+        RelatorioJob job = jobs.get(id);
+        if (job == null || !Objects.equals(job.getUsuarioId(), usuarioId)) {
+            throw new EntityNotFoundException(String.format("Relatório %s não encontrado", id));
+        }
+        return job;
+    }
+
+    /**
+     * Retorna o arquivo PDF de um job concluído.
+     *
+     * @param id O id do job.
+     * @param usuarioId O ID do usuário autenticado.
+     * @return O caminho do PDF gerado.
+     * @throws RelatorioNaoConcluidoException se o job ainda não foi concluído ou terminou com erro.
+     */
+    public Path buscarArquivo(String id, Long usuarioId) {
+        RelatorioJob job = buscar(id, usuarioId);
+        if (job.getStatus() != StatusJob.CONCLUIDO) {
+            throw new RelatorioNaoConcluidoException(String.format("Relatório %s com status %s", id, job.getStatus()));
+        }
+        if (!Files.exists(job.getArquivo())) {
+            // O PDF foi substituído por uma versão mais nova ou removido do cache
+            throw new EntityNotFoundException(String.format("Relatório %s expirado, solicite um novo", id));
+        }
+        return job.getArquivo();
+    }
+
+    /**
+     * Remove periodicamente os jobs finalizados cujo tempo de expiração já passou.
+     * Os arquivos PDF pertencem ao cache de relatórios e são removidos por ele.
+     */
+    @Scheduled(fixedDelayString = "${demopark.relatorio.limpeza:60000}")
+    public void removerExpirados() {
+        LocalDateTime limite = LocalDateTime.now().minus(ttl);
+        jobs.values().removeIf(job -> job.isFinalizado() && job.getConcluidoEm().isBefore(limite));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,273 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.exception.PeriodoInvalidoException;
+import com.walter.demopark.repository.ClienteVagaHistoricoRepository.TotaisPeriodo;
+import jakarta.annotation.PreDestroy;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Classe RelatorioPeriodoService que gera o relatório administrativo de receita e ocupação de todos os clientes
+ * em um período. O período é dividido em partições de um dia ou de uma semana, e cada partição é consultada e
+ * preenchida de forma independente em um pool fork-join dedicado. As partições são juntadas, na ordem, em um
+ * único PDF ou CSV.
+ * Os totais de cada partição são somados no banco de dados, e as linhas do PDF são lidas do ResultSet à medida
+ * que o relatório é preenchido, com as páginas preenchidas mantidas pelo virtualizador do JasperService: nenhuma
+ * partição é carregada inteira em memória.
+ * A receita de um estacionamento é contada na partição do check-out, e a ocupação considera o tempo em que cada
+ * vaga esteve ocupada dentro da partição, inclusive por veículos que ainda não saíram.
+ */
+@Service
+public class RelatorioPeriodoService {
+
+    /**
+     * Tamanho das partições em que o período é dividido.
+     */
+    public enum Particao {
+        DIA(1), SEMANA(7);
+
+        private final int dias;
+
+        Particao(int dias) {
+            this.dias = dias;
+        }
+    }
+
+    /**
+     * Um intervalo [inicio, fim) do período.
+     */
+    private record Intervalo(LocalDateTime inicio, LocalDateTime fim) {
+    }
+
+    /**
+     * Totais de receita e ocupação de uma partição.
+     */
+    private record Resumo(Intervalo intervalo, long estacionamentos, BigDecimal receita, BigDecimal descontos,
+                          double horasOcupadas, double ocupacao) {
+    }
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    // Maior período aceito, para limitar o número de partições de uma única requisição.
+    private static final long DIAS_MAXIMOS = 366;
+
+    private final ClienteVagaService clienteVagaService;
+
+    private final VagaService vagaService;
+
+    private final JasperService jasperService;
+
+    // Pool dedicado às partições, para não ocupar o pool comum da JVM com consultas ao banco de dados.
+    private final ForkJoinPool pool;
+
+    public RelatorioPeriodoService(ClienteVagaService clienteVagaService,
+                                   VagaService vagaService,
+                                   JasperService jasperService,
+                                   @Value("${demopark.relatorio.periodo.paralelismo:4}") int paralelismo) {
+        this.clienteVagaService = clienteVagaService;
+        this.vagaService = vagaService;
+        this.jasperService = jasperService;
+        this.pool = new ForkJoinPool(paralelismo);
+    }
+
+    /**
+     * Valida o período do relatório. Deve ser chamado antes de definir os cabeçalhos do arquivo na resposta,
+     * para que um erro seja respondido como JSON e não como o arquivo.
+     *
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período, inclusivo.
+     * @throws PeriodoInvalidoException se o período for inválido ou longo demais.
+     */
+    public void validar(LocalDate inicio, LocalDate fim) {
+        if (inicio == null || fim == null || fim.isBefore(inicio)) {
+            throw new PeriodoInvalidoException("O fim do período deve ser igual ou posterior ao início");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fim) >= DIAS_MAXIMOS) {
+            throw new PeriodoInvalidoException(String.format("O período não pode ser maior que %d dias", DIAS_MAXIMOS));
+        }
+    }
+
+    /**
+     * Gera o relatório por período em PDF, com uma seção por partição contendo os estacionamentos encerrados
+     * na partição e os seus totais de receita e ocupação.
+     *
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período, inclusivo.
+     * @param particao O tamanho das partições.
+     * @param saida Fluxo onde o PDF será escrito.
+     * @throws PeriodoInvalidoException se o período for inválido ou longo demais.
+     */
+    public void gerarPdf(LocalDate inicio, LocalDate fim, Particao particao, OutputStream saida) {
+        List<Intervalo> intervalos = particionar(inicio, fim, particao);
+        long vagas = vagaService.count();
+        LocalDateTime agora = LocalDateTime.now();
+        jasperService.generatePeriodReport(preenchimento -> emParalelo(intervalos, intervalo -> {
+            Resumo resumo = resumir(intervalo, vagas, agora);
+            return clienteVagaService.percorrerEncerradosPorPeriodo(intervalo.inicio(), intervalo.fim(),
+                    rs -> preenchimento.preencher(parametros(resumo), new Registros(rs)));
+        }), saida);
+    }
+
+    /**
+     * Gera o relatório por período em CSV, com uma linha de totais por partição e uma linha final com os totais do período.
+     *
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período, inclusivo.
+     * @param particao O tamanho das partições.
+     * @param saida Fluxo onde o CSV será escrito, em UTF-8.
+     * @throws PeriodoInvalidoException se o período for inválido ou longo demais.
+     * @throws IOException se ocorrer algum erro ao escrever no fluxo de saída.
+     */
+    public void gerarCsv(LocalDate inicio, LocalDate fim, Particao particao, OutputStream saida) throws IOException {
+        List<Intervalo> intervalos = particionar(inicio, fim, particao);
+        long vagas = vagaService.count();
+        LocalDateTime agora = LocalDateTime.now();
+        List<Resumo> resumos = emParalelo(intervalos, intervalo -> resumir(intervalo, vagas, agora));
+
+        long estacionamentos = 0;
+        BigDecimal receita = BigDecimal.ZERO;
+        BigDecimal descontos = BigDecimal.ZERO;
+        double horasOcupadas = 0;
+        Writer writer = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+        writer.write("inicio,fim,estacionamentos,receita,descontos,horas_ocupadas,ocupacao\n");
+        for (Resumo resumo : resumos) {
+            escrever(writer, resumo.intervalo().inicio().toLocalDate().toString(),
+                    resumo.intervalo().fim().toLocalDate().minusDays(1).toString(), resumo);
+            estacionamentos += resumo.estacionamentos();
+            receita = receita.add(resumo.receita());
+            descontos = descontos.add(resumo.descontos());
+            horasOcupadas += resumo.horasOcupadas();
+        }
+        double horasPeriodo = vagas * (double) ChronoUnit.HOURS.between(inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay());
+        Resumo total = new Resumo(null, estacionamentos, receita, descontos, horasOcupadas,
+                horasPeriodo == 0 ? 0 : horasOcupadas / horasPeriodo);
+        escrever(writer, "total", "", total);
+        writer.flush();
+    }
+
+    private static void escrever(Writer writer, String inicio, String fim, Resumo resumo) throws IOException {
+        writer.write(inicio + ',' + fim + ',' + resumo.estacionamentos() + ',' + resumo.receita().toPlainString() + ','
+                + resumo.descontos().toPlainString() + ',' + String.format(Locale.ROOT, "%.2f", resumo.horasOcupadas()) + ','
+                + String.format(Locale.ROOT, "%.4f", resumo.ocupacao()) + '\n');
+    }
+
+    /**
+     * Divide o período em intervalos consecutivos do tamanho da partição. O último intervalo termina no fim do período.
+     */
+    private List<Intervalo> particionar(LocalDate inicio, LocalDate fim, Particao particao) {
+        validar(inicio, fim);
+        List<Intervalo> intervalos = new ArrayList<>();
+        LocalDate limite = fim.plusDays(1);
+        for (LocalDate dia = inicio; dia.isBefore(limite); dia = dia.plusDays(particao.dias)) {
+            LocalDate proximo = dia.plusDays(particao.dias);
+            intervalos.add(new Intervalo(dia.atStartOfDay(), (proximo.isAfter(limite) ? limite : proximo).atStartOfDay()));
+        }
+        return intervalos;
+    }
+
+    /**
+     * Executa a tarefa de cada partição no pool fork-join e retorna os resultados na ordem das partições.
+     */
+    private <T> List<T> emParalelo(List<Intervalo> intervalos, Function<Intervalo, T> tarefa) {
+        List<ForkJoinTask<T>> tarefas = new ArrayList<>(intervalos.size());
+        for (Intervalo intervalo : intervalos) {
+            tarefas.add(pool.submit(() -> tarefa.apply(intervalo)));
+        }
+        List<T> resultados = new ArrayList<>(tarefas.size());
+        for (ForkJoinTask<T> t : tarefas) {
+            resultados.add(t.join());
+        }
+        return resultados;
+    }
+
+    /**
+     * Calcula os totais da partição a partir das somas feitas no banco de dados. A ocupação é a soma do tempo em que
+     * cada vaga esteve ocupada dentro do intervalo, dividida pela capacidade do intervalo (número de vagas
+     * multiplicado pela duração).
+     */
+    private Resumo resumir(Intervalo intervalo, long vagas, LocalDateTime agora) {
+        TotaisPeriodo totais = clienteVagaService.somarPorPeriodo(intervalo.inicio(), intervalo.fim(), agora);
+        double horasOcupadas = totais.segundosOcupados() / 3600.0;
+        double capacidade = vagas * (double) Duration.between(intervalo.inicio(), intervalo.fim()).toHours();
+        return new Resumo(intervalo, totais.estacionamentos(), totais.receita(), totais.descontos(), horasOcupadas,
+                capacidade == 0 ? 0 : horasOcupadas / capacidade);
+    }
+
+    private static Map<String, Object> parametros(Resumo resumo) {
+        Map<String, Object> parametros = new HashMap<>();
+        parametros.put("PERIODO_INICIO", resumo.intervalo().inicio().format(FORMATO_DATA));
+        parametros.put("PERIODO_FIM", resumo.intervalo().fim().minusDays(1).format(FORMATO_DATA));
+        parametros.put("ESTACIONAMENTOS", resumo.estacionamentos());
+        parametros.put("RECEITA", resumo.receita());
+        parametros.put("DESCONTOS", resumo.descontos());
+        parametros.put("HORAS_OCUPADAS", resumo.horasOcupadas());
+        parametros.put("OCUPACAO", resumo.ocupacao());
+        return parametros;
+    }
+
+    /**
+     * Fonte de dados do Jasper sobre o ResultSet dos estacionamentos encerrados na partição, que lê uma linha a
+     * cada avanço do preenchimento. Os campos são os do template estacionamentos-periodo.
+     */
+    private record Registros(ResultSet rs) implements JRDataSource {
+
+        @Override
+        public boolean next() throws JRException {
+            try {
+                return rs.next();
+            } catch (SQLException e) {
+                throw new JRException(e);
+            }
+        }
+
+        @Override
+        public Object getFieldValue(JRField campo) throws JRException {
+            try {
+                return switch (campo.getName()) {
+                    case "data_entrada" -> rs.getObject("dataEntrada", LocalDateTime.class).format(FORMATO_DATA_HORA);
+                    case "data_saida" -> rs.getObject("dataSaida", LocalDateTime.class).format(FORMATO_DATA_HORA);
+                    case "numero_recibo" -> rs.getString("recibo");
+                    case "placa" -> rs.getString("placa");
+                    case "codigo" -> rs.getString("vagaCodigo");
+                    case "cpf" -> rs.getString("clienteCpf");
+                    case "valor" -> rs.getBigDecimal("valor");
+                    case "desconto" -> rs.getBigDecimal("desconto");
+                    default -> null;
+                };
+            } catch (SQLException e) {
+                throw new JRException(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,164 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.exception.PeriodoInvalidoException;
+import com.walter.demopark.repository.ResumoHorarioRepository;
+import com.walter.demopark.repository.ResumoHorarioRepository.Linha;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Classe ResumoHorarioService que mantém e consulta o resumo por hora de check-ins, check-outs, receita, descontos
+ * e tempo estacionado (tabela resumos_horarios). Cada check-in e check-out soma o seu movimento a uma das fatias
+ * da linha da hora, na mesma transação da operação, então os painéis leem poucas linhas por dia em vez de
+ * percorrer os estacionamentos, e operações simultâneas raramente disputam o bloqueio da mesma linha.
+ * O recálculo refaz os dias a partir do histórico completo, quando necessário.
+ */
+@Slf4j
+@Service
+public class ResumoHorarioService {
+
+    /**
+     * Agrupamento dos totais retornados pela consulta.
+     */
+    public enum Agrupamento {
+        DIA, HORA
+    }
+
+    // Período máximo de uma consulta ou recálculo, o mesmo do relatório por período
+    private static final long DIAS_MAXIMOS = 366;
+
+    private final ResumoHorarioRepository resumoHorarioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean recalculoHabilitado;
+
+    public ResumoHorarioService(ResumoHorarioRepository resumoHorarioRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${demopark.resumo.recalculo.habilitado:false}") boolean recalculoHabilitado) {
+        this.resumoHorarioRepository = resumoHorarioRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.recalculoHabilitado = recalculoHabilitado;
+    }
+
+    /**
+     * Soma um check-in à hora da entrada, na transação em andamento.
+     *
+     * @param dataEntrada A data de entrada do estacionamento.
+     */
+    public void registrarCheckIn(LocalDateTime dataEntrada) {
+        resumoHorarioRepository.somar(checkIn(dataEntrada));
+    }
+
+    /**
+     * Soma um check-out, com o seu valor, desconto e duração, à hora da saída, na transação em andamento.
+     *
+     * @param dataEntrada A data de entrada do estacionamento.
+     * @param dataSaida A data de saída do estacionamento.
+     * @param valor O valor cobrado.
+     * @param desconto O desconto concedido.
+     */
+    public void registrarCheckOut(LocalDateTime dataEntrada, LocalDateTime dataSaida, BigDecimal valor, BigDecimal desconto) {
+        resumoHorarioRepository.somar(checkOut(dataEntrada, dataSaida, valor, desconto));
+    }
+
+    /**
+     * Lista os totais do período por dia ou por hora. Dias e horas sem movimento não aparecem na lista.
+     *
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período, inclusivo.
+     * @param agrupamento Totais por dia ou por hora.
+     * @return Os totais em ordem de data e hora.
+     * @throws PeriodoInvalidoException se o período for inválido ou longo demais.
+     */
+    @Transactional(readOnly = true)
+    public List<Linha> listar(LocalDate inicio, LocalDate fim, Agrupamento agrupamento) {
+        validar(inicio, fim);
+        return agrupamento == Agrupamento.HORA
+                ? resumoHorarioRepository.listarPorHora(inicio, fim)
+                : resumoHorarioRepository.listarPorDia(inicio, fim);
+    }
+
+    /**
+     * Execução agendada, quando habilitada, do recálculo do dia anterior.
+     */
+    @Scheduled(cron = "${demopark.resumo.recalculo.cron:0 30 3 * * *}")
+    public void executar() {
+        if (recalculoHabilitado) {
+            LocalDate ontem = LocalDate.now().minusDays(1);
+            recalcular(ontem, ontem);
+        }
+    }
+
+    /**
+     * Recalcula os resumos do período a partir do histórico completo de estacionamentos, incluindo os arquivados.
+     * Cada dia é recalculado em uma transação própria: as linhas do dia são removidas, o que no MySQL bloqueia
+     * os incrementos concorrentes desse dia até o commit, e gravadas de novo com os totais lidos do histórico.
+     *
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período, inclusivo.
+     * @return O número de linhas (horas com movimento) gravadas.
+     * @throws PeriodoInvalidoException se o período for inválido ou longo demais.
+     */
+    public long recalcular(LocalDate inicio, LocalDate fim) {
+        validar(inicio, fim);
+        long total = 0;
+        for (LocalDate dia = inicio; !dia.isAfter(fim); dia = dia.plusDays(1)) {
+            LocalDate atual = dia;
+            Integer linhas = transactionTemplate.execute(status -> recalcularDia(atual));
+            total += linhas == null ? 0 : linhas;
+        }
+        log.info("Resumos horários de {} a {} recalculados: {} horas com movimento", inicio, fim, total);
+        return total;
+    }
+
+    private int recalcularDia(LocalDate dia) {
+        LocalDateTime inicio = dia.atStartOfDay();
+        LocalDateTime fim = inicio.plusDays(1);
+        Map<Integer, Linha> horas = new TreeMap<>();
+
+        resumoHorarioRepository.remover(dia);
+        resumoHorarioRepository.percorrerEntradas(inicio, fim, rs ->
+                acumular(horas, checkIn(rs.getTimestamp(1).toLocalDateTime())));
+        resumoHorarioRepository.percorrerSaidas(inicio, fim, rs ->
+                acumular(horas, checkOut(rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime(),
+                        rs.getBigDecimal(3), rs.getBigDecimal(4))));
+        resumoHorarioRepository.somar(horas.values());
+        return horas.size();
+    }
+
+    private static void acumular(Map<Integer, Linha> horas, Linha incremento) {
+        horas.merge(incremento.hora(), incremento, Linha::somar);
+    }
+
+    private static Linha checkIn(LocalDateTime dataEntrada) {
+        return new Linha(dataEntrada.toLocalDate(), dataEntrada.getHour(), 1, 0, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+    }
+
+    private static Linha checkOut(LocalDateTime dataEntrada, LocalDateTime dataSaida, BigDecimal valor, BigDecimal desconto) {
+        return new Linha(dataSaida.toLocalDate(), dataSaida.getHour(), 0, 1,
+                valor == null ? BigDecimal.ZERO : valor,
+                desconto == null ? BigDecimal.ZERO : desconto,
+                Math.max(0, Duration.between(dataEntrada, dataSaida).toSeconds()));
+    }
+
+    private static void validar(LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio)) {
+            throw new PeriodoInvalidoException("O fim do período deve ser igual ou posterior ao início");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fim) >= DIAS_MAXIMOS) {
+            throw new PeriodoInvalidoException(String.format("O período não pode ser maior que %d dias", DIAS_MAXIMOS));
+        }
+    }
+}
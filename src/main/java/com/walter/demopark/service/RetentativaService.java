@@ -0,0 +1,51 @@
+package com.walter.demopark.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Classe RetentativaService que repete uma operação transacional quando ela falha por conflito de versão
+ * (OptimisticLockingFailureException). A transação que falhou é desfeita por inteiro, então cada tentativa
+ * começa do zero e lê o estado atual do banco. Deve ser usada apenas em operações que podem ser repetidas sem
+ * efeito duplicado, e fora de uma transação, para que cada tentativa tenha a sua própria transação.
+ * Esgotadas as tentativas, o conflito é repassado e respondido com 409 pelo ApiExceptionHandler.
+ */
+@Slf4j
+@Service
+public class RetentativaService {
+
+    private final int tentativas;
+
+    public RetentativaService(@Value("${demopark.concorrencia.tentativas:3}") int tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    /**
+     * Executa a operação, repetindo-a em caso de conflito de versão até o número de tentativas configurado.
+     *
+     * @param operacao A operação, que deve abrir a sua própria transação.
+     * @return O resultado da primeira tentativa sem conflito.
+     * @throws OptimisticLockingFailureException se todas as tentativas falharem por conflito de versão.
+     * @throws IllegalStateException se chamado dentro de uma transação.
+     */
+    public <T> T executar(Supplier<T> operacao) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A retentativa deve envolver a transação, e não ser chamada dentro dela");
+        }
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (tentativa >= tentativas) {
+                    throw ex;
+                }
+                log.warn("Conflito de versão na tentativa {} de {}, repetindo a operação: {}", tentativa, tentativas, ex.getMessage());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.walter.demopark.service;
 
+import com.walter.demopark.config.RoteamentoDataSource;
 import com.walter.demopark.entity.Usuario;
 import com.walter.demopark.exception.EntityNotFoundException;
 import com.walter.demopark.exception.PasswordInvalidException;
@@ -41,7 +42,7 @@ public class UsuarioService {
      *
      * @return Uma lista de todos os usuários.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public List<Usuario> findAll() {
         return usuarioRepository.findAll();
     }
@@ -53,7 +54,7 @@ public class UsuarioService {
      * @return O usuário correspondente ao ID fornecido.
      * @throws EntityNotFoundException se o usuário não for encontrado.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public Usuario findById(Long id) {
         return usuarioRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException(String.format("Usuário id=%d não encontrado", id)));
@@ -66,15 +67,17 @@ public class UsuarioService {
      * @return O usuário correspondente ao nome de usuário fornecido.
      * @throws EntityNotFoundException se o usuário não for encontrado.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public Usuario findByUsername(String username) {
-        return usuarioRepository.findByUsername(username).orElseThrow(() ->
+        return usuarioRepository.findBySimpleNaturalId(username).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Usuário %s não encontrado", username)));
     }
 
     /**
      * Salva um novo usuário no banco de dados, codificando sua senha antes de salvar.
      * Se o nome de usuário já existir, uma exceção UsernameUniqueViolationException será lançada.
+     * A inserção é enviada ao banco imediatamente: com o id gerado por tabela ela só sairia no flush do commit,
+     * e a violação do índice único chegaria como erro 500 em vez de ser convertida aqui.
      *
      * @param usuario O objeto Usuario a ser salvo.
      * @return O objeto Usuario salvo no banco de dados.
@@ -84,7 +87,7 @@ public class UsuarioService {
     public Usuario save(Usuario usuario) {
         try {
             usuario.setPassword(passwordEncoder.encode(usuario.getPassword()));
-            return usuarioRepository.save(usuario);
+            return usuarioRepository.saveAndFlush(usuario);
         } catch (org.springframework.dao.DataIntegrityViolationException ex) {
             throw new UsernameUniqueViolationException(String.format("O nome de usuário %s já existe", usuario.getUsername()));
         }
@@ -123,7 +126,7 @@ public class UsuarioService {
      * @param username O nome de usuário para buscar o papel.
      * @return O papel (role) correspondente ao nome de usuário fornecido.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public Usuario.Role findRoleByUsername(String username) {
         return usuarioRepository.findRoleByUsername(username);
     }
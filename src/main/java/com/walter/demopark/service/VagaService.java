@@ -1,5 +1,6 @@
 package com.walter.demopark.service;
 
+import com.walter.demopark.config.RoteamentoDataSource;
 import com.walter.demopark.entity.Vaga;
 import com.walter.demopark.exception.CodigoUniqueViolationException;
 import com.walter.demopark.exception.EntityNotFoundException;
@@ -23,9 +24,20 @@ public class VagaService {
     @Autowired
     private VagaRepository vagaRepository;
 
+    /**
+     * Injeção do OcupacaoService para somar a vaga cadastrada à ocupação publicada.
+     */
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
     /**
      * Salva uma nova vaga no banco de dados.
      * Se o código da vaga já existir, uma exceção CodigoUniqueViolationException será lançada.
+     * A inserção é enviada ao banco imediatamente, para que a violação do índice único seja convertida aqui
+     * e não chegue como erro no commit.
+     * Uma vaga já existente é comparada, pela versão, com a cópia do cache de segundo nível: uma alteração gravada
+     * fora do Hibernate desta instância (SQL direto ou outra instância, já que o cache é local) só é detectada como
+     * conflito depois que a entrada da vaga expira ou é removida do cache.
      *
      * @param vaga O objeto Vaga a ser salvo.
      * @return O objeto Vaga salvo no banco de dados.
@@ -34,7 +46,9 @@ public class VagaService {
     @Transactional
     public Vaga save(Vaga vaga) {
         try {
-            return vagaRepository.save(vaga);
+            Vaga salva = vagaRepository.saveAndFlush(vaga);
+            ocupacaoService.registrarVaga(salva);
+            return salva;
         } catch (DataIntegrityViolationException ex) {
             throw new CodigoUniqueViolationException(String.format("O código %s já existe no sistema", vaga.getCodigo()));
         }
@@ -47,9 +61,9 @@ public class VagaService {
      * @return A instância de Vaga correspondente ao código fornecido.
      * @throws EntityNotFoundException se a vaga não for encontrada.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public Vaga findByCodigo(String codigo) {
-        return vagaRepository.findByCodigo(codigo).orElseThrow(
+        return vagaRepository.findBySimpleNaturalId(codigo).orElseThrow(
                 () -> new EntityNotFoundException(String.format("Vaga %s não encontrada", codigo)));
     }
 
@@ -64,4 +78,31 @@ public class VagaService {
         return vagaRepository.findFirstByStatus(Vaga.StatusVaga.LIVRE)
                 .orElseThrow(() -> new EntityNotFoundException("Vaga livre não encontrada"));
     }
+
+    /**
+     * Marca a vaga como livre. A vaga é lida pelo id, atendida pelo cache de segundo nível, e gravada no commit
+     * com a verificação de versão. Um update em massa (JPQL) evitaria a leitura, mas o Hibernate esvazia as regiões
+     * inteiras do cache de vagas a cada update em massa, e todas as outras vagas voltariam a ser lidas do banco.
+     *
+     * @param id O id da vaga.
+     * @return A vaga liberada.
+     * @throws EntityNotFoundException se a vaga não for encontrada.
+     */
+    @Transactional
+    public Vaga liberar(Long id) {
+        Vaga vaga = vagaRepository.findById(id).orElseThrow(
+                () -> new EntityNotFoundException(String.format("Vaga id=%d não encontrada", id)));
+        vaga.setStatus(Vaga.StatusVaga.LIVRE);
+        return vaga;
+    }
+
+    /**
+     * Retorna o número total de vagas cadastradas, usado como capacidade no cálculo de ocupação.
+     *
+     * @return O total de vagas.
+     */
+    @Transactional(readOnly = true)
+    public long count() {
+        return vagaRepository.count();
+    }
 }
@@ -0,0 +1,137 @@
+package com.walter.demopark.service;
+
+import com.walter.demopark.util.TransacaoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe VersaoService que mantém um pequeno cache em memória com a versão (ETag) dos recursos mais consultados.
+ * Permite que as requisições GET condicionais (If-None-Match) sejam respondidas com 304 sem carregar a entidade
+ * do banco de dados. As entradas são invalidadas pelas operações de escrita somente após o commit da transação.
+ *
+ * O cache é local a cada instância: uma gravação feita por outra instância não invalida as entradas desta. Por isso
+ * cada entrada expira após demopark.etag.ttl, que limita por quanto tempo um 304 pode ser respondido para uma versão
+ * já substituída em outra instância.
+ */
+@Service
+public class VersaoService {
+
+    /**
+     * Cache LRU com o número máximo de entradas configurável.
+     */
+    private final Map<String, Entrada> versoes;
+
+    /**
+     * Tempo de vida de uma entrada, em nanossegundos.
+     */
+    private final long ttl;
+
+    /**
+     * Contador incrementado a cada invalidação. Uma leitura só registra a sua versão se nenhuma invalidação
+     * ocorreu enquanto a entidade era carregada, evitando que uma versão antiga volte para o cache.
+     */
+    private final AtomicLong geracao = new AtomicLong();
+
+    public VersaoService(@Value("${demopark.etag.cache-size:10000}") int tamanhoMaximo,
+                         @Value("${demopark.etag.ttl:5s}") Duration ttl) {
+        this.ttl = ttl.toNanos();
+        this.versoes = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > tamanhoMaximo;
+            }
+        });
+    }
+
+    public static String vaga(String codigo) {
+        return "vaga:" + codigo;
+    }
+
+    public static String recibo(String recibo) {
+        return "recibo:" + recibo;
+    }
+
+    public static String clienteDoUsuario(Long usuarioId) {
+        return "cliente-usuario:" + usuarioId;
+    }
+
+    /**
+     * Gera o valor da ETag a partir do id e da versão (@Version) da entidade. A versão é incrementada a cada
+     * gravação, então duas alterações no mesmo instante geram ETags diferentes, o que a data de modificação
+     * não garante.
+     *
+     * @param id O id da entidade.
+     * @param versao A versão da entidade.
+     * @return O valor da ETag entre aspas.
+     */
+    public static String etag(Long id, Long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+
+    /**
+     * Retorna a ETag conhecida para a chave, ou null se não estiver em cache ou se a entrada já expirou.
+     */
+    public String buscar(String chave) {
+        synchronized (versoes) {
+            Entrada entrada = versoes.get(chave);
+            if (entrada == null) {
+                return null;
+            }
+            if (System.nanoTime() - entrada.registradaEm() >= ttl) {
+                versoes.remove(chave);
+                return null;
+            }
+            return entrada.etag();
+        }
+    }
+
+    /**
+     * Retorna a geração atual do cache. Deve ser lida antes de carregar a entidade e informada em {@link #registrar}.
+     */
+    public long geracao() {
+        return geracao.get();
+    }
+
+    /**
+     * Registra a ETag atual de um recurso recém carregado.
+     *
+     * @param chave A chave do recurso.
+     * @param etag A ETag calculada a partir da entidade carregada.
+     * @param geracaoLida A geração lida antes do carregamento da entidade.
+     * @return A própria ETag.
+     */
+    public String registrar(String chave, String etag, long geracaoLida) {
+        synchronized (versoes) {
+            if (geracao.get() == geracaoLida) {
+                versoes.put(chave, new Entrada(etag, System.nanoTime()));
+            }
+        }
+        return etag;
+    }
+
+    /**
+     * Remove as chaves do cache. Se houver uma transação ativa, a remoção é feita após o commit,
+     * evitando que uma leitura concorrente volte a armazenar a versão antiga antes da gravação.
+     */
+    public void invalidar(String... chaves) {
+        TransacaoUtils.aposCommit(() -> remover(chaves));
+    }
+
+    private void remover(String... chaves) {
+        synchronized (versoes) {
+            geracao.incrementAndGet();
+            for (String chave : chaves) {
+                versoes.remove(chave);
+            }
+        }
+    }
+
+    private record Entrada(String etag, long registradaEm) {
+    }
+}
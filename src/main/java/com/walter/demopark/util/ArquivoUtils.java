@@ -0,0 +1,56 @@
+package com.walter.demopark.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Classe utilitária ArquivoUtils para enviar arquivos gravados em disco como corpo da resposta HTTP.
+ * Quando o conector do Tomcat suporta sendfile, a transferência é delegada ao sistema operacional (zero-copy),
+ * sem passar o conteúdo do arquivo pela heap da JVM. Caso contrário, o arquivo é transferido pelo FileChannel.
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class ArquivoUtils {
+
+    // Atributos de requisição reconhecidos pelo Tomcat (org.apache.catalina.Globals) para o uso de sendfile.
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Envia o arquivo como corpo da resposta. O tipo de conteúdo e demais cabeçalhos devem ser definidos antes.
+     *
+     * @param arquivo O arquivo a ser enviado.
+     * @param request A requisição atual.
+     * @param response A resposta onde o arquivo será escrito.
+     * @throws IOException se houver erro na leitura do arquivo ou na escrita da resposta.
+     */
+    public static void enviar(Path arquivo, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            response.setContentLengthLong(tamanho);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // O Tomcat envia o arquivo diretamente do page cache para o socket após o retorno do controller
+                request.setAttribute(SENDFILE_FILENAME, arquivo.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, tamanho);
+                return;
+            }
+
+            WritableByteChannel destino = Channels.newChannel(response.getOutputStream());
+            long posicao = 0;
+            while (posicao < tamanho) {
+                posicao += canal.transferTo(posicao, tamanho - posicao, destino);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.walter.demopark.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Classe EscritorCsv que escreve dados tabulares no formato CSV (RFC 4180), em UTF-8, separados por vírgula.
+ * Os valores são escritos diretamente no buffer do Writer, e apenas os textos que contêm separador, aspas ou
+ * quebra de linha são colocados entre aspas.
+ */
+public class EscritorCsv implements EscritorTabela {
+
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Writer writer;
+
+    // Indica se a próxima célula é a primeira da linha, para não escrever o separador antes dela.
+    private boolean inicioLinha = true;
+
+    public EscritorCsv(OutputStream saida) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void texto(String valor) throws IOException {
+        separador();
+        if (valor == null) {
+            return;
+        }
+        if (!precisaDeAspas(valor)) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void numero(BigDecimal valor) throws IOException {
+        separador();
+        if (valor != null) {
+            writer.write(valor.toPlainString());
+        }
+    }
+
+    @Override
+    public void dataHora(LocalDateTime valor) throws IOException {
+        separador();
+        if (valor != null) {
+            FORMATO_DATA_HORA.formatTo(valor, writer);
+        }
+    }
+
+    @Override
+    public void fimLinha() throws IOException {
+        writer.write("\r\n");
+        inicioLinha = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void separador() throws IOException {
+        if (!inicioLinha) {
+            writer.write(',');
+        }
+        inicioLinha = false;
+    }
+
+    private static boolean precisaDeAspas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.walter.demopark.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Interface EscritorTabela para a escrita sequencial de dados tabulares, célula a célula e linha a linha.
+ * As implementações escrevem diretamente no fluxo de saída, sem manter as linhas em memória, o que permite
+ * exportar milhões de registros com consumo de memória constante. Valores nulos geram células vazias.
+ */
+public interface EscritorTabela extends Closeable {
+
+    void texto(String valor) throws IOException;
+
+    void numero(BigDecimal valor) throws IOException;
+
+    void dataHora(LocalDateTime valor) throws IOException;
+
+    /**
+     * Encerra a linha atual. A próxima célula escrita inicia uma nova linha.
+     */
+    void fimLinha() throws IOException;
+
+    /**
+     * Conclui o documento e descarrega o buffer. O fluxo de saída subjacente não é fechado.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,161 @@
+package com.walter.demopark.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Classe EscritorXlsx que escreve uma planilha XLSX (Office Open XML) com uma única aba, em streaming.
+ * As partes fixas do pacote são gravadas na criação, e a aba é escrita linha a linha diretamente na entrada
+ * do arquivo ZIP, com os textos embutidos nas células (inlineStr). Assim nenhuma tabela de textos compartilhados
+ * nem linha já escrita é mantida em memória, ao contrário das bibliotecas que montam a planilha inteira antes de gravá-la.
+ */
+public class EscritorXlsx implements EscritorTabela {
+
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String CONTENT_TYPES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+            <Default Extension="xml" ContentType="application/xml"/>\
+            <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+            <Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>\
+            </Types>""";
+
+    private static final String RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>\
+            </Relationships>""";
+
+    private static final String WORKBOOK_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>\
+            </Relationships>""";
+
+    private static final String SHEET_INICIO = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <worksheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main"><sheetData>""";
+
+    private static final String SHEET_FIM = "</sheetData></worksheet>";
+
+    private final ZipOutputStream zip;
+
+    private final Writer writer;
+
+    // Indica se há uma linha aberta na aba.
+    private boolean linhaAberta;
+
+    public EscritorXlsx(OutputStream saida, String nomeAba) throws IOException {
+        this.zip = new ZipOutputStream(saida, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        parte("[Content_Types].xml", CONTENT_TYPES);
+        parte("_rels/.rels", RELS);
+        parte("xl/workbook.xml", """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+                xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+                <sheets><sheet name="%s" sheetId="1" r:id="rId1"/></sheets></workbook>""".formatted(escapar(nomeAba)));
+        parte("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write(SHEET_INICIO);
+    }
+
+    private void parte(String nome, String conteudo) throws IOException {
+        zip.putNextEntry(new ZipEntry(nome));
+        writer.write(conteudo);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    @Override
+    public void texto(String valor) throws IOException {
+        if (valor == null) {
+            vazia();
+            return;
+        }
+        abrirLinha();
+        writer.write("<c t=\"inlineStr\"><is><t>");
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                case '&' -> writer.write("&amp;");
+                default -> writer.write(c);
+            }
+        }
+        writer.write("</t></is></c>");
+    }
+
+    @Override
+    public void numero(BigDecimal valor) throws IOException {
+        if (valor == null) {
+            vazia();
+            return;
+        }
+        abrirLinha();
+        writer.write("<c><v>");
+        writer.write(valor.toPlainString());
+        writer.write("</v></c>");
+    }
+
+    @Override
+    public void dataHora(LocalDateTime valor) throws IOException {
+        if (valor == null) {
+            vazia();
+            return;
+        }
+        abrirLinha();
+        writer.write("<c t=\"inlineStr\"><is><t>");
+        FORMATO_DATA_HORA.formatTo(valor, writer);
+        writer.write("</t></is></c>");
+    }
+
+    @Override
+    public void fimLinha() throws IOException {
+        abrirLinha();
+        writer.write("</row>");
+        linhaAberta = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (linhaAberta) {
+            fimLinha();
+        }
+        writer.write(SHEET_FIM);
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    /**
+     * Escreve uma célula vazia, mantendo a posição das colunas seguintes.
+     */
+    private void vazia() throws IOException {
+        abrirLinha();
+        writer.write("<c/>");
+    }
+
+    private void abrirLinha() throws IOException {
+        if (!linhaAberta) {
+            writer.write("<row>");
+            linhaAberta = true;
+        }
+    }
+
+    private static String escapar(String valor) {
+        return valor.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,35 @@
+package com.walter.demopark.util;
+
+import lombok.NoArgsConstructor;
+import org.springframework.http.MediaType;
+
+/**
+ * Classe utilitária MediaTypeUtils com os tipos de mídia aceitos pelos terminais de portaria.
+ * Além do JSON, as respostas podem ser codificadas em CBOR ou Smile, formatos binários mais compactos e mais rápidos
+ * de interpretar em links de baixa largura de banda. Os conversores correspondentes são registrados pelo Spring MVC
+ * automaticamente quando jackson-dataformat-cbor e jackson-dataformat-smile estão no classpath.
+ * Também define os tipos de mídia dos arquivos exportados.
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class MediaTypeUtils {
+
+    /**
+     * Tipo de mídia do formato binário Smile do Jackson.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Tipo de mídia do formato binário Smile do Jackson.
+     */
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    /**
+     * Tipo de mídia das exportações em CSV.
+     */
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    /**
+     * Tipo de mídia das exportações em planilha XLSX.
+     */
+    public static final String APPLICATION_XLSX_VALUE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+}
@@ -0,0 +1,32 @@
+package com.walter.demopark.util;
+
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Classe utilitária TransacaoUtils para adiar ao commit as atualizações das estruturas mantidas em memória,
+ * como os índices de placas e de clientes, de modo que uma operação desfeita não apareça nelas.
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class TransacaoUtils {
+
+    /**
+     * Executa a ação após o commit da transação em andamento, ou imediatamente se não houver transação.
+     * A ação não é executada se a transação for desfeita.
+     *
+     * @param acao A ação a executar.
+     */
+    public static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
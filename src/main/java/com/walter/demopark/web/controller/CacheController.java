@@ -0,0 +1,52 @@
+package com.walter.demopark.web.controller;
+
+import com.walter.demopark.service.CacheEstatisticaService;
+import com.walter.demopark.web.dto.cache.CacheRegiaoResponseDto;
+import com.walter.demopark.web.dto.mapper.CacheMapper;
+import com.walter.demopark.web.exception.ErrorMessage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Cache", description = "Contém as estatísticas do cache de segundo nível")
+@RestController
+@RequestMapping("/api/v1/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheEstatisticaService cacheEstatisticaService;
+
+    /**
+     * Endpoint para consultar as estatísticas do cache de segundo nível por região.
+     * Requisição exige um Bearer Token. Acesso restrito a usuários com Role='ADMIN'.
+     */
+    @Operation(summary = "Estatísticas do cache",
+            description = "Recurso para retornar acertos, faltas, inserções e taxa de acerto de cada região do cache de segundo nível. " +
+                    "Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    array = @ArraySchema(schema = @Schema(implementation = CacheRegiaoResponseDto.class)))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @GetMapping("/estatisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheRegiaoResponseDto>> getEstatisticas() {
+        return ResponseEntity.ok(CacheMapper.toDto(cacheEstatisticaService.listar()));
+    }
+}
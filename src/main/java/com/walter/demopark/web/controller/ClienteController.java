@@ -4,7 +4,10 @@ import com.walter.demopark.entity.Cliente;
 import com.walter.demopark.jwt.JwtUserDetails;
 import com.walter.demopark.repository.projection.ClienteProjection;
 import com.walter.demopark.service.ClienteService;
+import com.walter.demopark.service.IndiceClientesService;
 import com.walter.demopark.service.UsuarioService;
+import com.walter.demopark.service.VersaoService;
+import com.walter.demopark.web.dto.cliente.ClienteBuscaResponseDto;
 import com.walter.demopark.web.dto.cliente.ClienteCreateDto;
 import com.walter.demopark.web.dto.cliente.ClienteResponseDto;
 import com.walter.demopark.web.dto.mapper.ClienteMapper;
@@ -34,6 +37,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
 import java.util.List;
@@ -63,6 +67,18 @@ public class ClienteController {
     @Autowired
     private UsuarioService usuarioService;
 
+    /**
+     * Injeção do VersaoService para o controle de versões (ETag) das respostas.
+     */
+    @Autowired
+    private VersaoService versaoService;
+
+    /**
+     * Injeção do IndiceClientesService para a busca de clientes em memória.
+     */
+    @Autowired
+    private IndiceClientesService indiceClientesService;
+
     /**
      * Endpoint para recuperar uma lista paginada de clientes.
      * Apenas usuários com o perfil ADMIN têm acesso a este endpoint.
@@ -99,11 +115,48 @@ public class ClienteController {
         return ResponseEntity.ok(PageableMapper.toDto(clientes));
     }
 
+    /**
+     * Endpoint para buscar clientes pelo início das palavras do nome, do CPF ou de uma placa já usada, como no
+     * atendimento do balcão. A busca é feita no índice em memória, sem consultar o banco de dados.
+     * Apenas usuários com o perfil ADMIN têm acesso a este endpoint.
+     *
+     * @param texto O texto da busca, com uma ou mais palavras.
+     * @param limite O número máximo de clientes retornados, até 50.
+     * @return Um ResponseEntity contendo os clientes encontrados.
+     */
+    @Operation(summary = "Buscar clientes por nome, CPF ou placa",
+            description = "Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = QUERY, name = "texto", required = true,
+                            content = @Content(schema = @Schema(type = "string")),
+                            description = "Início das palavras do nome, do CPF ou da placa, como 'rod sil' ou 'FIT-10'"),
+                    @Parameter(in = QUERY, name = "limite",
+                            content = @Content(schema = @Schema(type = "integer", defaultValue = "10", maximum = "50")),
+                            description = "Número máximo de clientes retornados")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Recurso recuperado com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    array = @ArraySchema(schema = @Schema(implementation = ClienteBuscaResponseDto.class)))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @GetMapping("/busca")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ClienteBuscaResponseDto>> buscar(@RequestParam String texto,
+                                                                @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(ClienteMapper.toBuscaDto(indiceClientesService.buscar(texto, limite)));
+    }
+
     /**
      * Endpoint para buscar os detalhes de um cliente logado (perfil CLIENTE).
      * Exige que o usuário esteja autenticado e que o perfil seja CLIENTE.
+     * Suporta GET condicional: se o cabeçalho If-None-Match corresponder à versão atual, retorna 304 sem corpo.
      *
      * @param jwtUserDetails Detalhes do usuário autenticado.
+     * @param request A requisição atual, usada para verificar o cabeçalho If-None-Match.
      * @return Um ResponseEntity contendo os detalhes do cliente.
      */
     @Operation(summary = "Buscar Cliente por Id", description = "Requisição exige um Bearer Token, acesso restrito a CLIENTE",
@@ -116,9 +169,24 @@ public class ClienteController {
             })
     @GetMapping("/detalhes")
     @PreAuthorize("hasRole('CLIENTE')")
-    public ResponseEntity<ClienteResponseDto> getclientDetails(@AuthenticationPrincipal JwtUserDetails jwtUserDetails) {
+    public ResponseEntity<ClienteResponseDto> getclientDetails(@AuthenticationPrincipal JwtUserDetails jwtUserDetails,
+                                                               WebRequest request) {
+        String chave = VersaoService.clienteDoUsuario(jwtUserDetails.getId());
+
+        // Responde 304 direto do cache de versões, sem consultar o banco de dados
+        String etag = versaoService.buscar(chave);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+
+        long geracao = versaoService.geracao();
         Cliente cliente = clienteService.findByUserId(jwtUserDetails.getId());
-        return ResponseEntity.ok(ClienteMapper.toDto(cliente));
+        etag = versaoService.registrar(chave,
+                VersaoService.etag(cliente.getId(), cliente.getVersao()), geracao);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ClienteMapper.toDto(cliente));
     }
 
     /**
@@ -2,16 +2,30 @@ package com.walter.demopark.web.controller;
 
 import com.walter.demopark.entity.ClienteVaga;
 import com.walter.demopark.jwt.JwtUserDetails;
+import com.walter.demopark.repository.ClienteVagaExportacaoRepository.Filtro;
 import com.walter.demopark.repository.projection.ClienteVagaProjection;
 import com.walter.demopark.service.ClienteService;
 import com.walter.demopark.service.ClienteVagaService;
 import com.walter.demopark.service.EstacionamentoService;
-import com.walter.demopark.service.JasperService;
+import com.walter.demopark.service.ExportacaoService;
+import com.walter.demopark.service.ExportacaoService.Formato;
+import com.walter.demopark.service.IndicePlacasService;
+import com.walter.demopark.service.RelatorioCacheService;
+import com.walter.demopark.service.RelatorioJobService;
+import com.walter.demopark.service.RelatorioJobService.RelatorioJob;
+import com.walter.demopark.service.RelatorioPeriodoService;
+import com.walter.demopark.service.RelatorioPeriodoService.Particao;
+import com.walter.demopark.service.RetentativaService;
+import com.walter.demopark.service.VersaoService;
+import com.walter.demopark.util.ArquivoUtils;
+import com.walter.demopark.util.MediaTypeUtils;
 import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
 import com.walter.demopark.web.dto.estacionamento.EstacionamentoResponseDto;
 import com.walter.demopark.web.dto.mapper.ClienteVagaMapper;
 import com.walter.demopark.web.dto.mapper.PageableMapper;
+import com.walter.demopark.web.dto.mapper.RelatorioJobMapper;
 import com.walter.demopark.web.dto.pageable.PageableDto;
+import com.walter.demopark.web.dto.relatorio.RelatorioJobResponseDto;
 import com.walter.demopark.web.exception.ErrorMessage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -30,16 +44,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDate;
 
 import static io.swagger.v3.oas.annotations.enums.ParameterIn.PATH;
 import static io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY;
@@ -58,7 +76,25 @@ public class EstacionamentoController {
     private ClienteService clienteService;
 
     @Autowired
-    private JasperService jasperService;
+    private RelatorioCacheService relatorioCacheService;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @Autowired
+    private RelatorioJobService relatorioJobService;
+
+    @Autowired
+    private RelatorioPeriodoService relatorioPeriodoService;
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @Autowired
+    private RetentativaService retentativaService;
+
+    @Autowired
+    private IndicePlacasService indicePlacasService;
 
     /**
      * Operação de check-in.
@@ -86,11 +122,12 @@ public class EstacionamentoController {
                             content = @Content(mediaType = "application/json;charset=UTF-8",
                                     schema = @Schema(implementation = ErrorMessage.class)))
             })
-    @PostMapping("/check-in")
+    @PostMapping(value = "/check-in", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, MediaTypeUtils.APPLICATION_SMILE_VALUE})
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EstacionamentoResponseDto> checkIn(@RequestBody @Valid EstacionamentoCreateDto dto) {
-        ClienteVaga clienteVaga = ClienteVagaMapper.toClienteVaga(dto);
-        estacionamentoService.checkIn(clienteVaga);
+        // Em conflito de versão na vaga, a tentativa é desfeita por inteiro e repetida com um novo estacionamento
+        ClienteVaga clienteVaga = retentativaService.executar(
+                () -> estacionamentoService.checkIn(ClienteVagaMapper.toClienteVaga(dto)));
         EstacionamentoResponseDto responseDto = ClienteVagaMapper.toDto(clienteVaga);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequestUri()
@@ -105,6 +142,7 @@ public class EstacionamentoController {
      * Localizar um veículo estacionado.
      * Recurso para retornar um veículo estacionado pelo nº do recibo.
      * Requisição exige uso de um bearer token.
+     * Suporta GET condicional: se o cabeçalho If-None-Match corresponder à versão atual, retorna 304 sem corpo.
      */
     @Operation(summary = "Localizar um veículo estacionado",
             description = "Recurso para retornar um veículo estacionado pelo nº do recibo. "
@@ -117,16 +155,61 @@ public class EstacionamentoController {
                     @ApiResponse(responseCode = "200", description = "Recurso localizado com sucesso",
                             content = @Content(mediaType = "application/json;charset=UTF-8",
                                     schema = @Schema(implementation = EstacionamentoResponseDto.class))),
+                    @ApiResponse(responseCode = "304", description = "Recurso não modificado desde a versão informada em If-None-Match"),
                     @ApiResponse(responseCode = "404", description = "Número do recibo não encontrado.",
                             content = @Content(mediaType = "application/json;charset=UTF-8",
                                     schema = @Schema(implementation = ErrorMessage.class)))
             })
-    @GetMapping("/check-in/{recibo}")
+    @GetMapping(value = "/check-in/{recibo}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, MediaTypeUtils.APPLICATION_SMILE_VALUE})
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENTE')")
-    public ResponseEntity<EstacionamentoResponseDto> getByRecibo(@PathVariable String recibo) {
+    public ResponseEntity<EstacionamentoResponseDto> getByRecibo(@PathVariable String recibo, WebRequest request) {
+        String chave = VersaoService.recibo(recibo);
+
+        // Responde 304 direto do cache de versões, sem consultar o banco de dados
+        String etag = versaoService.buscar(chave);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+
+        long geracao = versaoService.geracao();
         ClienteVaga clienteVaga = clienteVagaService.findByRecibo(recibo);
+        etag = versaoService.registrar(chave,
+                VersaoService.etag(clienteVaga.getId(), clienteVaga.getVersao()), geracao);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         EstacionamentoResponseDto dto = ClienteVagaMapper.toDto(clienteVaga);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(etag).body(dto);
+    }
+
+    /**
+     * Localizar o estacionamento em aberto de uma placa.
+     * Recurso para as câmeras de leitura de placas das cancelas: a busca é feita no índice em memória dos
+     * estacionamentos em aberto, sem consultar o banco de dados.
+     * Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.
+     */
+    @Operation(summary = "Localizar o estacionamento em aberto de uma placa",
+            description = "Recurso para retornar o estacionamento em aberto de uma placa, com ou sem hífen, a partir do índice em memória. "
+                    + "Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = ParameterIn.PATH, name = "placa", description = "Placa do veículo", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Recurso localizado com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = EstacionamentoResponseDto.class))),
+                    @ApiResponse(responseCode = "404", description = "Nenhum estacionamento em aberto para a placa.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @GetMapping(value = "/placa/{placa}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, MediaTypeUtils.APPLICATION_SMILE_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EstacionamentoResponseDto> getByPlaca(@PathVariable String placa) {
+        return ResponseEntity.ok(ClienteVagaMapper.toDto(indicePlacasService.findByPlaca(placa)));
     }
 
     /**
@@ -152,10 +235,10 @@ public class EstacionamentoController {
                             content = @Content(mediaType = "application/json;charset=UTF-8",
                                     schema = @Schema(implementation = ErrorMessage.class)))
             })
-    @PutMapping("/check-out/{recibo}")
+    @PutMapping(value = "/check-out/{recibo}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, MediaTypeUtils.APPLICATION_SMILE_VALUE})
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EstacionamentoResponseDto> checkout(@PathVariable String recibo) {
-        ClienteVaga clienteVaga = estacionamentoService.checkOut(recibo);
+        ClienteVaga clienteVaga = retentativaService.executar(() -> estacionamentoService.checkOut(recibo));
         EstacionamentoResponseDto dto = ClienteVagaMapper.toDto(clienteVaga);
         return ResponseEntity.ok(dto);
     }
@@ -231,39 +314,219 @@ public class EstacionamentoController {
      * Gera um relatório PDF para o cliente autenticado.
      * <p>
      * Este endpoint é acessível apenas para usuários com a role 'CLIENTE'. O relatório é gerado
-     * com base no CPF do cliente associado ao usuário autenticado. O relatório é retornado como um
-     * arquivo PDF inline no corpo da resposta HTTP.
+     * com base no CPF do cliente associado ao usuário autenticado e retornado como um arquivo PDF inline.
+     * Enquanto o histórico do cliente não muda, o mesmo PDF é servido a partir do cache em disco, sem acionar o Jasper.
      * </p>
      *
+     * @param request  HttpServletRequest da requisição atual.
      * @param response HttpServletResponse onde o relatório PDF será escrito.
      * @param user     O usuário autenticado, contendo as informações necessárias para buscar o cliente.
-     * @return ResponseEntity<Void> Retorna uma resposta HTTP com o status 200 (OK).
      * @throws IOException Se ocorrer algum erro ao escrever o relatório no fluxo de saída da resposta.
      */
     @PreAuthorize("hasRole('CLIENTE')")
     @GetMapping("/relatorio")
-    public ResponseEntity<Void> getRelatorio(HttpServletResponse response,
-                                             @AuthenticationPrincipal JwtUserDetails user) throws IOException {
+    public void getRelatorio(HttpServletRequest request,
+                             HttpServletResponse response,
+                             @AuthenticationPrincipal JwtUserDetails user) throws IOException {
 
         // Obtém o CPF do cliente associado ao usuário autenticado.
         String cpf = clienteService.findByUserId(user.getId()).getCpf();
 
-        // Adiciona o CPF como parâmetro para o relatório Jasper
-        jasperService.addParams("CPF", cpf);
-
-        // Gera o relatório em formato PDF
-        byte[] bytes = jasperService.generateReport();
+        // Obtém o PDF do cache, gerando-o apenas se o histórico do cliente mudou
+        Path pdf = relatorioCacheService.buscarOuGerar(cpf);
 
         // Configura o tipo de conteúdo da resposta como PDF e define o cabeçalho para exibição inline
         response.setContentType(MediaType.APPLICATION_PDF_VALUE);
         response.setHeader("Content-Disposition", "inline; filename=" + System.currentTimeMillis() + ".pdf");
 
-        // Escreve o conteúdo do PDF no fluxo de saída da resposta
-        response.getOutputStream().write(bytes);
+        // Envia o arquivo diretamente do disco para a resposta
+        ArquivoUtils.enviar(pdf, request, response);
+    }
+
+    /**
+     * Solicita a geração assíncrona do relatório PDF do cliente autenticado.
+     * O relatório é gerado em segundo plano e pode ser acompanhado pelo id do job retornado.
+     * Pedidos repetidos enquanto um relatório do mesmo CPF ainda está em geração retornam o mesmo job.
+     */
+    @Operation(summary = "Solicitar a geração do relatório de estacionamentos",
+            description = "Recurso para gerar o relatório PDF do cliente logado em segundo plano. "
+                    + "Requisição exige uso de um bearer token. Acesso restrito a Role='CLIENTE'.",
+            security = @SecurityRequirement(name = "security"),
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Relatório aceito para geração",
+                            headers = @Header(name = HttpHeaders.LOCATION, description = "URL de acompanhamento do job"),
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = RelatorioJobResponseDto.class))),
+                    @ApiResponse(responseCode = "503", description = "Fila de relatórios cheia.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PreAuthorize("hasRole('CLIENTE')")
+    @PostMapping("/relatorio/jobs")
+    public ResponseEntity<RelatorioJobResponseDto> submeterRelatorio(@AuthenticationPrincipal JwtUserDetails user) {
+        String cpf = clienteService.findByUserId(user.getId()).getCpf();
+        RelatorioJob job = relatorioJobService.submeter(user.getId(), cpf);
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequestUri()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
 
-        // Retorna uma resposta HTTP 200 OK sem conteúdo adicional
-        return ResponseEntity.ok().build();
+        return ResponseEntity.accepted().location(location).body(RelatorioJobMapper.toDto(job));
     }
 
-}
+    /**
+     * Consulta o status de um job de relatório do cliente autenticado.
+     */
+    @Operation(summary = "Consultar o status de um relatório",
+            description = "Recurso para acompanhar a geração de um relatório solicitado pelo cliente logado. "
+                    + "Requisição exige uso de um bearer token. Acesso restrito a Role='CLIENTE'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = ParameterIn.PATH, name = "id", description = "Id do job de relatório", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Recurso localizado com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = RelatorioJobResponseDto.class))),
+                    @ApiResponse(responseCode = "404", description = "Job inexistente ou expirado.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PreAuthorize("hasRole('CLIENTE')")
+    @GetMapping("/relatorio/jobs/{id}")
+    public ResponseEntity<RelatorioJobResponseDto> getRelatorioJob(@PathVariable String id,
+                                                                   @AuthenticationPrincipal JwtUserDetails user) {
+        RelatorioJob job = relatorioJobService.buscar(id, user.getId());
+        return ResponseEntity.ok(RelatorioJobMapper.toDto(job));
+    }
+
+    /**
+     * Faz o download do PDF de um job de relatório concluído do cliente autenticado.
+     */
+    @Operation(summary = "Download de um relatório concluído",
+            description = "Recurso para baixar o PDF de um relatório já gerado. "
+                    + "Requisição exige uso de um bearer token. Acesso restrito a Role='CLIENTE'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = ParameterIn.PATH, name = "id", description = "Id do job de relatório", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "PDF do relatório",
+                            content = @Content(mediaType = MediaType.APPLICATION_PDF_VALUE)),
+                    @ApiResponse(responseCode = "404", description = "Job inexistente ou expirado.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "409", description = "Relatório ainda em geração ou finalizado com erro.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PreAuthorize("hasRole('CLIENTE')")
+    @GetMapping("/relatorio/jobs/{id}/pdf")
+    public void getRelatorioJobPdf(@PathVariable String id,
+                                   @AuthenticationPrincipal JwtUserDetails user,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        Path pdf = relatorioJobService.buscarArquivo(id, user.getId());
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + id + ".pdf");
+        ArquivoUtils.enviar(pdf, request, response);
+    }
+
+    /**
+     * Gera o relatório administrativo de receita e ocupação de todos os clientes em um período.
+     * O período é dividido em partições de um dia ou de uma semana, preenchidas em paralelo e juntadas
+     * em um único PDF ou CSV.
+     */
+    @Operation(summary = "Relatório de receita e ocupação por período",
+            description = "Recurso para gerar o relatório de receita e ocupação de todos os clientes em um período, em PDF ou CSV. "
+                    + "Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = QUERY, name = "inicio", description = "Primeiro dia do período (yyyy-MM-dd)", required = true),
+                    @Parameter(in = QUERY, name = "fim", description = "Último dia do período (yyyy-MM-dd), inclusivo", required = true),
+                    @Parameter(in = QUERY, name = "particao", description = "Tamanho das partições: DIA ou SEMANA",
+                            content = @Content(schema = @Schema(type = "string", defaultValue = "DIA"))),
+                    @Parameter(in = QUERY, name = "formato", description = "Formato do relatório: pdf ou csv",
+                            content = @Content(schema = @Schema(type = "string", defaultValue = "pdf")))
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso",
+                            content = {@Content(mediaType = MediaType.APPLICATION_PDF_VALUE),
+                                    @Content(mediaType = MediaTypeUtils.TEXT_CSV_VALUE)}),
+                    @ApiResponse(responseCode = "400", description = "Período inválido ou maior que o permitido.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/relatorio/periodo")
+    public void getRelatorioPeriodo(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+                                    @RequestParam(defaultValue = "DIA") Particao particao,
+                                    @RequestParam(defaultValue = "pdf") String formato,
+                                    HttpServletResponse response) throws IOException {
+        // Valida antes dos cabeçalhos do arquivo, para que um erro não seja entregue como relatório
+        relatorioPeriodoService.validar(inicio, fim);
+        String nome = "estacionamentos-" + inicio + "-" + fim;
+        if ("csv".equalsIgnoreCase(formato)) {
+            response.setContentType(MediaTypeUtils.TEXT_CSV_VALUE + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + nome + ".csv");
+            relatorioPeriodoService.gerarCsv(inicio, fim, particao, response.getOutputStream());
+        } else {
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + nome + ".pdf");
+            relatorioPeriodoService.gerarPdf(inicio, fim, particao, response.getOutputStream());
+        }
+    }
 
+    /**
+     * Exporta o histórico de estacionamentos de todos os clientes em CSV ou XLSX, com filtros opcionais.
+     * O arquivo é escrito na resposta à medida que as linhas são lidas do banco de dados.
+     */
+    @Operation(summary = "Exportar o histórico de estacionamentos",
+            description = "Recurso para exportar o histórico de estacionamentos em CSV ou XLSX, filtrado por CPF, período de entrada e vaga. "
+                    + "Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = QUERY, name = "formato", description = "Formato do arquivo: CSV ou XLSX",
+                            content = @Content(schema = @Schema(type = "string", defaultValue = "CSV"))),
+                    @Parameter(in = QUERY, name = "cpf", description = "CPF do cliente"),
+                    @Parameter(in = QUERY, name = "inicio", description = "Primeiro dia de entrada (yyyy-MM-dd)"),
+                    @Parameter(in = QUERY, name = "fim", description = "Último dia de entrada (yyyy-MM-dd), inclusivo"),
+                    @Parameter(in = QUERY, name = "vaga", description = "Código da vaga")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Arquivo exportado com sucesso",
+                            content = {@Content(mediaType = MediaTypeUtils.TEXT_CSV_VALUE),
+                                    @Content(mediaType = MediaTypeUtils.APPLICATION_XLSX_VALUE)}),
+                    @ApiResponse(responseCode = "400", description = "Fim do período anterior ao início.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/exportacao")
+    public void exportar(@RequestParam(defaultValue = "CSV") Formato formato,
+                         @RequestParam(required = false) String cpf,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+                         @RequestParam(required = false) String vaga,
+                         HttpServletResponse response) throws IOException {
+        Filtro filtro = new Filtro(cpf, inicio, fim, vaga);
+        // Valida antes dos cabeçalhos do arquivo, para que um erro não seja entregue como download
+        exportacaoService.validar(filtro);
+        if (formato == Formato.XLSX) {
+            response.setContentType(MediaTypeUtils.APPLICATION_XLSX_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=estacionamentos.xlsx");
+        } else {
+            response.setContentType(MediaTypeUtils.TEXT_CSV_VALUE + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=estacionamentos.csv");
+        }
+        exportacaoService.exportar(filtro, formato, response.getOutputStream());
+    }
+}
@@ -0,0 +1,191 @@
+package com.walter.demopark.web.controller;
+
+import com.walter.demopark.service.ClienteVagaService;
+import com.walter.demopark.service.EstacionamentoService;
+import com.walter.demopark.service.OcupacaoService;
+import com.walter.demopark.service.RetentativaService;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoResponseDto;
+import com.walter.demopark.web.dto.mapper.ClienteVagaMapper;
+import com.walter.demopark.web.dto.mapper.VagaMapper;
+import com.walter.demopark.web.dto.vaga.OcupacaoResponseDto;
+import com.walter.demopark.web.exception.ErrorMessage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Controlador EstacionamentoReativoController que expõe o check-in, o check-out, a busca por recibo e a ocupação
+ * com tipos reativos (Mono e Flux), atendidos pelo Spring MVC em modo assíncrono. A thread do Tomcat é liberada
+ * assim que o método retorna; o acesso ao banco roda no scheduler de persistência (SpringReactorConfig).
+ * As regras de tarifa, desconto e alocação de vagas são as do EstacionamentoService, as mesmas dos endpoints
+ * de /api/v1/estacionamentos.
+ */
+@Tag(name = "Estacionamentos reativos", description = "Check-in, check-out, recibo e ocupação sem prender threads do servidor")
+@RestController
+@RequestMapping("api/v1/reativo/estacionamentos")
+public class EstacionamentoReativoController {
+
+    @Autowired
+    private EstacionamentoService estacionamentoService;
+
+    @Autowired
+    private ClienteVagaService clienteVagaService;
+
+    @Autowired
+    private RetentativaService retentativaService;
+
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
+    @Autowired
+    private Scheduler persistenciaScheduler;
+
+    /**
+     * Operação de check-in reativa.
+     * Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.
+     */
+    @Operation(summary = "Operação de check-in reativa",
+            description = "Recurso para dar entrada de um veículo no estacionamento, com as mesmas regras do check-in de "
+                    + "/api/v1/estacionamentos. Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Recurso criado com sucesso",
+                            headers = @Header(name = HttpHeaders.LOCATION, description = "URL de acesso ao recurso criado"),
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = EstacionamentoResponseDto.class))),
+                    @ApiResponse(responseCode = "404", description = "CPF do cliente não cadastrado ou nenhuma vaga livre.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "409", description = "Veículo com a placa já estacionado.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PostMapping("/check-in")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<EstacionamentoResponseDto>> checkIn(@RequestBody @Valid EstacionamentoCreateDto dto) {
+        // A URI da requisição só está disponível na thread do Tomcat
+        UriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{recibo}");
+        return Mono.fromCallable(() -> retentativaService.executar(
+                        () -> estacionamentoService.checkIn(ClienteVagaMapper.toClienteVaga(dto))))
+                .subscribeOn(persistenciaScheduler)
+                .map(clienteVaga -> ResponseEntity
+                        .created(location.buildAndExpand(clienteVaga.getRecibo()).toUri())
+                        .body(ClienteVagaMapper.toDto(clienteVaga)));
+    }
+
+    /**
+     * Localizar um veículo estacionado pelo nº do recibo, de forma reativa.
+     * Requisição exige uso de um bearer token.
+     */
+    @Operation(summary = "Localizar um veículo estacionado (reativo)",
+            description = "Recurso para retornar um veículo estacionado pelo nº do recibo. Requisição exige uso de um bearer token.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = ParameterIn.PATH, name = "recibo", description = "Número do recibo gerado pelo check-in")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Recurso localizado com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = EstacionamentoResponseDto.class))),
+                    @ApiResponse(responseCode = "404", description = "Número do recibo não encontrado.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @GetMapping("/check-in/{recibo}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENTE')")
+    public Mono<EstacionamentoResponseDto> getByRecibo(@PathVariable String recibo) {
+        return Mono.fromCallable(() -> clienteVagaService.findByRecibo(recibo))
+                .subscribeOn(persistenciaScheduler)
+                .map(ClienteVagaMapper::toDto);
+    }
+
+    /**
+     * Operação de check-out reativa.
+     * Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.
+     */
+    @Operation(summary = "Operação de check-out reativa",
+            description = "Recurso para dar saída de um veículo do estacionamento, com as mesmas regras de tarifa e desconto do "
+                    + "check-out de /api/v1/estacionamentos. Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = ParameterIn.PATH, name = "recibo", description = "Número do recibo gerado pelo check-in", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Recurso atualizado com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = EstacionamentoResponseDto.class))),
+                    @ApiResponse(responseCode = "404", description = "Número do recibo inexistente ou o veículo já passou pelo check-out.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PutMapping("/check-out/{recibo}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<EstacionamentoResponseDto> checkout(@PathVariable String recibo) {
+        return Mono.fromCallable(() -> retentativaService.executar(() -> estacionamentoService.checkOut(recibo)))
+                .subscribeOn(persistenciaScheduler)
+                .map(ClienteVagaMapper::toDto);
+    }
+
+    /**
+     * Ocupação atual do estacionamento, lida da memória, sem consultar o banco de dados.
+     * Requisição exige uso de um bearer token.
+     */
+    @Operation(summary = "Ocupação do estacionamento",
+            description = "Recurso para retornar o total de vagas, as ocupadas e as livres. Requisição exige uso de um bearer token.",
+            security = @SecurityRequirement(name = "security"),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Recurso localizado com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = OcupacaoResponseDto.class)))
+            })
+    @GetMapping("/ocupacao")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENTE')")
+    public Mono<OcupacaoResponseDto> getOcupacao() {
+        return Mono.fromSupplier(ocupacaoService::atual).map(VagaMapper::toDto);
+    }
+
+    /**
+     * Fluxo de eventos (text/event-stream) com a ocupação atual e cada mudança seguinte, para cancelas e painéis.
+     * A conexão fica aberta sem ocupar threads; ao fim do tempo máximo de uma resposta assíncrona
+     * (demopark.reativo.tempo-maximo), o cliente deve reconectar.
+     */
+    @Operation(summary = "Fluxo da ocupação do estacionamento",
+            description = "Eventos com a ocupação atual e a cada check-in, check-out ou cadastro de vaga. "
+                    + "Requisição exige uso de um bearer token.",
+            security = @SecurityRequirement(name = "security"),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Fluxo iniciado com sucesso",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = OcupacaoResponseDto.class)))
+            })
+    @GetMapping(value = "/ocupacao/fluxo", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENTE')")
+    public Flux<OcupacaoResponseDto> getOcupacaoFluxo() {
+        return ocupacaoService.mudancas().map(VagaMapper::toDto);
+    }
+}
@@ -0,0 +1,102 @@
+package com.walter.demopark.web.controller;
+
+import com.walter.demopark.service.ResumoHorarioService;
+import com.walter.demopark.service.ResumoHorarioService.Agrupamento;
+import com.walter.demopark.web.dto.mapper.ResumoMapper;
+import com.walter.demopark.web.dto.resumo.ResumoResponseDto;
+import com.walter.demopark.web.exception.ErrorMessage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY;
+
+@Tag(name = "Resumos", description = "Contém os totais por dia e por hora de check-ins, check-outs, receita e duração")
+@RestController
+@RequestMapping("/api/v1/resumos")
+public class ResumoController {
+
+    @Autowired
+    private ResumoHorarioService resumoHorarioService;
+
+    /**
+     * Endpoint para consultar os totais de check-ins, check-outs, receita, descontos e duração média por dia ou por hora.
+     * Os totais vêm da tabela de resumos, mantida a cada check-in e check-out, sem percorrer os estacionamentos.
+     * Requisição exige um Bearer Token. Acesso restrito a usuários com Role='ADMIN'.
+     */
+    @Operation(summary = "Resumo de movimento e receita por período",
+            description = "Recurso para retornar, por dia ou por hora, os check-ins, check-outs, receita, descontos e duração média "
+                    + "dos estacionamentos. Check-outs, receita e duração são contados no dia e na hora da saída. "
+                    + "Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = QUERY, name = "inicio", description = "Primeiro dia do período (yyyy-MM-dd)", required = true),
+                    @Parameter(in = QUERY, name = "fim", description = "Último dia do período (yyyy-MM-dd), inclusivo", required = true),
+                    @Parameter(in = QUERY, name = "agrupamento", description = "Totais por DIA ou por HORA",
+                            content = @Content(schema = @Schema(type = "string", defaultValue = "DIA")))
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Resumo retornado com sucesso",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    array = @ArraySchema(schema = @Schema(implementation = ResumoResponseDto.class)))),
+                    @ApiResponse(responseCode = "400", description = "Período inválido ou maior que o permitido.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ResumoResponseDto>> getResumo(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+                                                             @RequestParam(defaultValue = "DIA") Agrupamento agrupamento) {
+        return ResponseEntity.ok(ResumoMapper.toDto(resumoHorarioService.listar(inicio, fim, agrupamento)));
+    }
+
+    /**
+     * Endpoint para recalcular os resumos de um período a partir do histórico de estacionamentos.
+     * Requisição exige um Bearer Token. Acesso restrito a usuários com Role='ADMIN'.
+     */
+    @Operation(summary = "Recalcular os resumos de um período",
+            description = "Recurso para refazer os totais de cada dia do período a partir do histórico completo de estacionamentos, "
+                    + "incluindo os arquivados. Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
+            security = @SecurityRequirement(name = "security"),
+            parameters = {
+                    @Parameter(in = QUERY, name = "inicio", description = "Primeiro dia do período (yyyy-MM-dd)", required = true),
+                    @Parameter(in = QUERY, name = "fim", description = "Último dia do período (yyyy-MM-dd), inclusivo", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Resumos recalculados com sucesso"),
+                    @ApiResponse(responseCode = "400", description = "Período inválido ou maior que o permitido.",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class))),
+                    @ApiResponse(responseCode = "403", description = "Recurso não permitido ao perfil de CLIENTE",
+                            content = @Content(mediaType = "application/json;charset=UTF-8",
+                                    schema = @Schema(implementation = ErrorMessage.class)))
+            })
+    @PostMapping("/recalculo")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> recalcular(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        resumoHorarioService.recalcular(inicio, fim);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.walter.demopark.web.controller;
 
 import com.walter.demopark.entity.Usuario;
+import com.walter.demopark.service.RetentativaService;
 import com.walter.demopark.service.UsuarioService;
 import com.walter.demopark.web.dto.usuario.UsuarioCreateDto;
 import com.walter.demopark.web.dto.usuario.UsuarioResponseDto;
@@ -30,6 +31,9 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private RetentativaService retentativaService;
+
     /**
      * Endpoint para buscar todos os usuários.
      * Requisição exige um Bearer Token, acesso restrito a ADMIN.
@@ -124,7 +128,8 @@ public class UsuarioController {
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENTE') and (#id == authentication.principal.id)")
     public ResponseEntity<UsuarioResponseDto> updatePassword(@Valid @PathVariable Long id,
                                                              @RequestBody UsuarioSenhaDto dto) {
-        Usuario user = usuarioService.updatePassword(id, dto.getSenhaAtual(), dto.getNovaSenha(), dto.getConfirmaSenha());
+        Usuario user = retentativaService.executar(
+                () -> usuarioService.updatePassword(id, dto.getSenhaAtual(), dto.getNovaSenha(), dto.getConfirmaSenha()));
         return ResponseEntity.noContent().build();
     }
 }
@@ -2,6 +2,8 @@ package com.walter.demopark.web.controller;
 
 import com.walter.demopark.entity.Vaga;
 import com.walter.demopark.service.VagaService;
+import com.walter.demopark.service.VersaoService;
+import com.walter.demopark.util.MediaTypeUtils;
 import com.walter.demopark.web.dto.mapper.VagaMapper;
 import com.walter.demopark.web.dto.vaga.VagaCreateDto;
 import com.walter.demopark.web.dto.vaga.VagaResponseDto;
@@ -16,9 +18,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -31,6 +35,9 @@ public class VagaController {
     @Autowired
     private VagaService vagaService;
 
+    @Autowired
+    private VersaoService versaoService;
+
     /**
      * Endpoint para criar uma nova vaga.
      * Requisição exige um Bearer Token. Acesso restrito a usuários com Role='ADMIN'.
@@ -68,6 +75,7 @@ public class VagaController {
     /**
      * Endpoint para localizar uma vaga pelo seu código.
      * Requisição exige um Bearer Token. Acesso restrito a usuários com Role='ADMIN'.
+     * Suporta GET condicional: se o cabeçalho If-None-Match corresponder à versão atual, retorna 304 sem corpo.
      */
     @Operation(summary = "Localizar uma vaga",
             description = "Recurso para retornar uma vaga pelo seu código. Requisição exige uso de um bearer token. Acesso restrito a Role='ADMIN'.",
@@ -76,6 +84,7 @@ public class VagaController {
                     @ApiResponse(responseCode = "200", description = "Recurso localizado com sucesso",
                             content = @Content(mediaType = "application/json;charset=UTF-8",
                                     schema = @Schema(implementation = VagaResponseDto.class))),
+                    @ApiResponse(responseCode = "304", description = "Recurso não modificado desde a versão informada em If-None-Match"),
                     @ApiResponse(responseCode = "404", description = "Vaga não localizada",
                             content = @Content(mediaType = "application/json;charset=UTF-8",
                                     schema = @Schema(implementation = ErrorMessage.class))),
@@ -83,11 +92,25 @@ public class VagaController {
                             content = @Content(mediaType = "application/json;charset=UTF-8",
                                     schema = @Schema(implementation = ErrorMessage.class)))
             })
-    @GetMapping("/{codigo}")
+    @GetMapping(value = "/{codigo}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, MediaTypeUtils.APPLICATION_SMILE_VALUE})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<VagaResponseDto> getByCodigo(@PathVariable String codigo) {
+    public ResponseEntity<VagaResponseDto> getByCodigo(@PathVariable String codigo, WebRequest request) {
+        String chave = VersaoService.vaga(codigo);
+
+        // Responde 304 direto do cache de versões, sem consultar o banco de dados
+        String etag = versaoService.buscar(chave);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+
+        long geracao = versaoService.geracao();
         Vaga vaga = vagaService.findByCodigo(codigo);
-        return ResponseEntity.ok(VagaMapper.toDto(vaga));
+        etag = versaoService.registrar(chave,
+                VersaoService.etag(vaga.getId(), vaga.getVersao()), geracao);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(VagaMapper.toDto(vaga));
     }
 }
 
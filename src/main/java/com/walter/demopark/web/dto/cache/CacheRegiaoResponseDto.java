@@ -0,0 +1,17 @@
+package com.walter.demopark.web.dto.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class CacheRegiaoResponseDto {
+
+    private String regiao;
+    private long acertos;
+    private long faltas;
+    private long insercoes;
+    private long elementos;
+    private double taxaAcerto;
+}
@@ -0,0 +1,18 @@
+package com.walter.demopark.web.dto.cliente;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ClienteBuscaResponseDto {
+
+    private Long id;
+    private String nome;
+    private String cpf;
+    private List<String> placas;
+}
@@ -0,0 +1,20 @@
+package com.walter.demopark.web.dto.mapper;
+
+import com.walter.demopark.service.CacheEstatisticaService.EstatisticaRegiao;
+import com.walter.demopark.web.dto.cache.CacheRegiaoResponseDto;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class CacheMapper {
+
+    public static CacheRegiaoResponseDto toDto(EstatisticaRegiao regiao) {
+        return new CacheRegiaoResponseDto(regiao.regiao(), regiao.acertos(), regiao.faltas(),
+                regiao.insercoes(), regiao.elementos(), regiao.taxaAcerto());
+    }
+
+    public static List<CacheRegiaoResponseDto> toDto(List<EstatisticaRegiao> regioes) {
+        return regioes.stream().map(CacheMapper::toDto).toList();
+    }
+}
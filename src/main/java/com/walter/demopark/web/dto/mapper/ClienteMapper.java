@@ -1,6 +1,8 @@
 package com.walter.demopark.web.dto.mapper;
 
 import com.walter.demopark.entity.Cliente;
+import com.walter.demopark.service.IndiceClientesService.ClienteIndexado;
+import com.walter.demopark.web.dto.cliente.ClienteBuscaResponseDto;
 import com.walter.demopark.web.dto.cliente.ClienteCreateDto;
 import com.walter.demopark.web.dto.cliente.ClienteResponseDto;
 import lombok.NoArgsConstructor;
@@ -50,5 +52,17 @@ public class ClienteMapper {
     public static List<ClienteResponseDto> toDto(List<Cliente> clientes) {
         return new ModelMapper().map(clientes, List.class);
     }
-}
 
+    /**
+     * Converte os clientes encontrados no índice de busca em objetos ClienteBuscaResponseDto.
+     * Os campos são copiados diretamente, sem o ModelMapper, para não pesar no tempo da busca.
+     *
+     * @param clientes Os clientes encontrados no índice.
+     * @return Uma lista de objetos ClienteBuscaResponseDto, na mesma ordem.
+     */
+    public static List<ClienteBuscaResponseDto> toBuscaDto(List<ClienteIndexado> clientes) {
+        return clientes.stream()
+                .map(cliente -> new ClienteBuscaResponseDto(cliente.id(), cliente.nome(), cliente.cpf(), cliente.placas()))
+                .toList();
+    }
+}
@@ -1,6 +1,7 @@
 package com.walter.demopark.web.dto.mapper;
 
 import com.walter.demopark.entity.ClienteVaga;
+import com.walter.demopark.service.IndicePlacasService.EstacionamentoAtivo;
 import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
 import com.walter.demopark.web.dto.estacionamento.EstacionamentoResponseDto;
 import lombok.NoArgsConstructor;
@@ -36,5 +37,16 @@ public class ClienteVagaMapper {
     public static EstacionamentoResponseDto toDto(ClienteVaga clienteVaga) {
         return new ModelMapper().map(clienteVaga, EstacionamentoResponseDto.class);
     }
-}
 
+    /**
+     * Converte um estacionamento do índice de placas em um objeto EstacionamentoResponseDto.
+     * Os campos são copiados diretamente, sem o ModelMapper, para manter a busca por placa sem custo de reflexão.
+     *
+     * @param ativo O estacionamento em aberto guardado no índice de placas.
+     * @return Um objeto EstacionamentoResponseDto com os dados do estacionamento em aberto.
+     */
+    public static EstacionamentoResponseDto toDto(EstacionamentoAtivo ativo) {
+        return new EstacionamentoResponseDto(ativo.placa(), ativo.marca(), ativo.modelo(), ativo.cor(),
+                ativo.clienteCpf(), ativo.recibo(), ativo.dataEntrada(), null, ativo.vagaCodigo(), null, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.walter.demopark.web.dto.mapper;
+
+import com.walter.demopark.service.RelatorioJobService.RelatorioJob;
+import com.walter.demopark.web.dto.relatorio.RelatorioJobResponseDto;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class RelatorioJobMapper {
+
+    public static RelatorioJobResponseDto toDto(RelatorioJob job) {
+        return new RelatorioJobResponseDto(job.getId(), job.getStatus().name(),
+                job.getCriadoEm(), job.getConcluidoEm(), job.getMensagem());
+    }
+}
@@ -0,0 +1,21 @@
+package com.walter.demopark.web.dto.mapper;
+
+import com.walter.demopark.repository.ResumoHorarioRepository.Linha;
+import com.walter.demopark.web.dto.resumo.ResumoResponseDto;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class ResumoMapper {
+
+    public static ResumoResponseDto toDto(Linha linha) {
+        Double duracaoMedia = linha.checkOuts() == 0 ? null : linha.segundosEstacionados() / 60.0 / linha.checkOuts();
+        return new ResumoResponseDto(linha.data(), linha.hora(), linha.checkIns(), linha.checkOuts(),
+                linha.receita(), linha.descontos(), duracaoMedia);
+    }
+
+    public static List<ResumoResponseDto> toDto(List<Linha> linhas) {
+        return linhas.stream().map(ResumoMapper::toDto).toList();
+    }
+}
@@ -1,6 +1,8 @@
 package com.walter.demopark.web.dto.mapper;
 
 import com.walter.demopark.entity.Vaga;
+import com.walter.demopark.service.OcupacaoService.Ocupacao;
+import com.walter.demopark.web.dto.vaga.OcupacaoResponseDto;
 import com.walter.demopark.web.dto.vaga.VagaCreateDto;
 import com.walter.demopark.web.dto.vaga.VagaResponseDto;
 import lombok.NoArgsConstructor;
@@ -36,5 +38,14 @@ public class VagaMapper {
     public static VagaResponseDto toDto(Vaga vaga) {
         return new ModelMapper().map(vaga, VagaResponseDto.class);
     }
-}
 
+    /**
+     * Converte a ocupação do estacionamento em um objeto OcupacaoResponseDto.
+     *
+     * @param ocupacao A ocupação publicada pelo OcupacaoService.
+     * @return Um objeto OcupacaoResponseDto com o total de vagas, as ocupadas e as livres.
+     */
+    public static OcupacaoResponseDto toDto(Ocupacao ocupacao) {
+        return new OcupacaoResponseDto(ocupacao.total(), ocupacao.ocupadas(), ocupacao.livres());
+    }
+}
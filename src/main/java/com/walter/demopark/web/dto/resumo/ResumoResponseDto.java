@@ -0,0 +1,23 @@
+package com.walter.demopark.web.dto.resumo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResumoResponseDto {
+
+    private LocalDate data;
+    private Integer hora;
+    private long checkIns;
+    private long checkOuts;
+    private BigDecimal receita;
+    private BigDecimal descontos;
+    private Double duracaoMediaMinutos;
+}
@@ -0,0 +1,15 @@
+package com.walter.demopark.web.dto.vaga;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class OcupacaoResponseDto {
+
+    private long total;
+    private long ocupadas;
+    private long livres;
+
+}
@@ -3,6 +3,7 @@ package com.walter.demopark.web.exception;
 import com.walter.demopark.exception.*;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -60,15 +61,16 @@ public class ApiExceptionHandler {
     }
 
     /**
-     * Manipulador de exceção para violações de unicidade, como nome de usuário, CPF ou código já existente.
-     * As exceções personalizadas UsernameUniqueViolationException, CpfUniqueViolationException e CodigoUniqueViolationException
-     * são tratadas aqui.
+     * Manipulador de exceção para violações de unicidade, como nome de usuário, CPF, código ou placa em aberto já existente.
+     * As exceções personalizadas UsernameUniqueViolationException, CpfUniqueViolationException, CodigoUniqueViolationException
+     * e PlacaUniqueViolationException são tratadas aqui.
      *
      * @param ex A exceção lançada em caso de violação de unicidade.
      * @param request O objeto HttpServletRequest da requisição que gerou a exceção.
      * @return Um ResponseEntity com status HTTP 409 (CONFLICT) e uma mensagem de erro em formato JSON.
      */
-    @ExceptionHandler({UsernameUniqueViolationException.class, CpfUniqueViolationException.class, CodigoUniqueViolationException.class})
+    @ExceptionHandler({UsernameUniqueViolationException.class, CpfUniqueViolationException.class, CodigoUniqueViolationException.class,
+            PlacaUniqueViolationException.class})
     public ResponseEntity<ErrorMessage> uniqueViolationException(RuntimeException ex, HttpServletRequest request) {
         log.error("Api Error - ", ex);
         return ResponseEntity
@@ -77,6 +79,27 @@ public class ApiExceptionHandler {
                 .body(new ErrorMessage(request, HttpStatus.CONFLICT, ex.getMessage()));
     }
 
+    /**
+     * Manipulador de exceção para OptimisticLockingFailureException.
+     * Essa exceção é lançada quando o registro foi alterado por outra requisição depois de lido, e a coluna de
+     * versão não confere mais. Nas operações que podem ser repetidas, ela só chega aqui depois de esgotadas as
+     * tentativas do RetentativaService.
+     *
+     * @param ex A exceção de conflito de versão.
+     * @param request O objeto HttpServletRequest da requisição que gerou a exceção.
+     * @return Um ResponseEntity com status HTTP 409 (CONFLICT) e uma mensagem de erro em formato JSON.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorMessage> optimisticLockingFailureException(OptimisticLockingFailureException ex,
+                                                                          HttpServletRequest request) {
+        log.error("Api Error - ", ex);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorMessage(request, HttpStatus.CONFLICT,
+                        "O registro foi alterado por outra requisição. Consulte-o novamente e repita a operação."));
+    }
+
     /**
      * Manipulador de exceção para EntityNotFoundException.
      * Essa exceção ocorre quando uma entidade não é encontrada no banco de dados.
@@ -111,6 +134,57 @@ public class ApiExceptionHandler {
                 .body(new ErrorMessage(request, HttpStatus.BAD_REQUEST, ex.getMessage()));
     }
 
+    /**
+     * Manipulador de exceção para RelatorioNaoConcluidoException.
+     * Essa exceção é lançada quando o download de um relatório é solicitado antes da conclusão do job.
+     *
+     * @param ex A exceção RelatorioNaoConcluidoException.
+     * @param request O objeto HttpServletRequest da requisição que gerou a exceção.
+     * @return Um ResponseEntity com status HTTP 409 (CONFLICT) e uma mensagem de erro em formato JSON.
+     */
+    @ExceptionHandler(RelatorioNaoConcluidoException.class)
+    public ResponseEntity<ErrorMessage> relatorioNaoConcluidoException(RuntimeException ex, HttpServletRequest request) {
+        log.error("Api Error - ", ex);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorMessage(request, HttpStatus.CONFLICT, ex.getMessage()));
+    }
+
+    /**
+     * Manipulador de exceção para RelatorioFilaCheiaException.
+     * Essa exceção é lançada quando a fila de geração de relatórios atingiu a sua capacidade máxima.
+     *
+     * @param ex A exceção RelatorioFilaCheiaException.
+     * @param request O objeto HttpServletRequest da requisição que gerou a exceção.
+     * @return Um ResponseEntity com status HTTP 503 (SERVICE_UNAVAILABLE) e uma mensagem de erro em formato JSON.
+     */
+    @ExceptionHandler(RelatorioFilaCheiaException.class)
+    public ResponseEntity<ErrorMessage> relatorioFilaCheiaException(RuntimeException ex, HttpServletRequest request) {
+        log.error("Api Error - ", ex);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorMessage(request, HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    /**
+     * Manipulador de exceção para PeriodoInvalidoException.
+     * Essa exceção é lançada quando o período informado para um relatório é inválido ou longo demais.
+     *
+     * @param ex A exceção PeriodoInvalidoException.
+     * @param request O objeto HttpServletRequest da requisição que gerou a exceção.
+     * @return Um ResponseEntity com status HTTP 400 (BAD_REQUEST) e uma mensagem de erro em formato JSON.
+     */
+    @ExceptionHandler(PeriodoInvalidoException.class)
+    public ResponseEntity<ErrorMessage> periodoInvalidoException(RuntimeException ex, HttpServletRequest request) {
+        log.error("Api Error - ", ex);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorMessage(request, HttpStatus.BAD_REQUEST, ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorMessage> internalServerErrorException(Exception ex, HttpServletRequest request) {
         ErrorMessage error = new ErrorMessage(request, HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase());
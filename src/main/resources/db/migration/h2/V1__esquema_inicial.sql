@@ -0,0 +1,65 @@
+-- Esquema inicial para o H2 (testes e desenvolvimento), equivalente ao esquema do MySQL.
+
+create table usuarios (
+    id               bigint generated by default as identity,
+    username         varchar(100) not null,
+    password         varchar(100) not null,
+    role             varchar(25)  not null,
+    data_criacao     timestamp(6),
+    data_modificacao timestamp(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_usuarios_username unique (username)
+);
+
+create table clientes (
+    id               bigint generated by default as identity,
+    nome             varchar(100) not null,
+    cpf              varchar(11)  not null,
+    id_usuario       bigint       not null,
+    data_criacao     timestamp(6),
+    data_modificacao timestamp(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_clientes_cpf unique (cpf),
+    constraint uk_clientes_id_usuario unique (id_usuario),
+    constraint fk_clientes_usuarios foreign key (id_usuario) references usuarios (id)
+);
+
+create table vagas (
+    id               bigint generated by default as identity,
+    codigo           varchar(4)   not null,
+    status           varchar(255) not null,
+    data_criacao     timestamp(6),
+    data_modificacao timestamp(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_vagas_codigo unique (codigo)
+);
+
+create table clientes_tem_vagas (
+    id               bigint generated by default as identity,
+    numero_recibo    varchar(40)  not null,
+    placa            varchar(8)   not null,
+    marca            varchar(50)  not null,
+    modelo           varchar(50)  not null,
+    cor              varchar(50)  not null,
+    data_entrada     timestamp(6) not null,
+    data_saida       timestamp(6),
+    valor            numeric(7, 2),
+    desconto         numeric(7, 2),
+    id_cliente       bigint       not null,
+    id_vaga          bigint       not null,
+    data_criacao     timestamp(6),
+    data_modificacao timestamp(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_clientes_tem_vagas_recibo unique (numero_recibo),
+    constraint uk_clientes_tem_vagas_placa unique (placa),
+    constraint fk_clientes_tem_vagas_clientes foreign key (id_cliente) references clientes (id),
+    constraint fk_clientes_tem_vagas_vagas foreign key (id_vaga) references vagas (id)
+);
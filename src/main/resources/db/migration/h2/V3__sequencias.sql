@@ -0,0 +1,21 @@
+-- Tabela usada pelo GeradorIdTabela para gerar os ids das entidades em blocos (otimizador pooled-lo).
+-- Cada linha guarda o primeiro id do próximo bloco de uma tabela, iniciando após o maior id já existente.
+-- O auto incremento das colunas id é removido: um insert feito fora do Hibernate pegaria ids de blocos já
+-- reservados pelo gerador. Inserções diretas (scripts, carga manual) devem informar o id e reservá-lo nesta tabela,
+-- somando ao proximo_valor da linha da tabela a quantidade de ids usados.
+
+create table sequencias (
+    nome          varchar(255) not null,
+    proximo_valor bigint       not null,
+    primary key (nome)
+);
+
+insert into sequencias (nome, proximo_valor) select 'usuarios', coalesce(max(id), 0) + 1 from usuarios;
+insert into sequencias (nome, proximo_valor) select 'clientes', coalesce(max(id), 0) + 1 from clientes;
+insert into sequencias (nome, proximo_valor) select 'vagas', coalesce(max(id), 0) + 1 from vagas;
+insert into sequencias (nome, proximo_valor) select 'clientes_tem_vagas', coalesce(max(id), 0) + 1 from clientes_tem_vagas;
+
+alter table usuarios alter column id drop identity;
+alter table clientes alter column id drop identity;
+alter table vagas alter column id drop identity;
+alter table clientes_tem_vagas alter column id drop identity;
@@ -0,0 +1,10 @@
+-- Batimento gravado periodicamente no primário pelo MonitorReplicas e lido em cada réplica para medir o atraso
+-- de replicação. O instante é o relógio da aplicação em milissegundos, para não depender do relógio dos bancos.
+
+create table replicacao_heartbeat (
+    id       int    not null,
+    instante bigint not null,
+    primary key (id)
+);
+
+insert into replicacao_heartbeat (id, instante) values (1, 0);
@@ -0,0 +1,48 @@
+-- Arquivamento dos estacionamentos encerrados há mais tempo (ArquivamentoService).
+-- A tabela clientes_tem_vagas fica apenas com os estacionamentos em aberto e os encerrados recentemente;
+-- os demais são movidos, com o mesmo id, para clientes_tem_vagas_arquivo.
+-- As consultas de histórico leem as duas tabelas com um union all e o filtro em cada lado (ClienteVagaHistoricoRepository),
+-- de modo que o arquivamento não altera os resultados. A view clientes_tem_vagas_historico serve às leituras
+-- completas, sem filtro: o MySQL materializa a view inteira e não leva até ela o filtro por cliente.
+
+create table clientes_tem_vagas_arquivo (
+    id                bigint       not null,
+    numero_recibo     varchar(40)  not null,
+    placa             varchar(8)   not null,
+    marca             varchar(50)  not null,
+    modelo            varchar(50)  not null,
+    cor               varchar(50)  not null,
+    data_entrada      timestamp(6) not null,
+    data_saida        timestamp(6) not null,
+    valor             numeric(7, 2),
+    desconto          numeric(7, 2),
+    id_cliente        bigint       not null,
+    id_vaga           bigint       not null,
+    data_criacao      timestamp(6),
+    data_modificacao  timestamp(6),
+    criado_por        varchar(255),
+    modificado_por    varchar(255),
+    data_arquivamento timestamp(6) not null,
+    primary key (id),
+    constraint uk_clientes_tem_vagas_arquivo_recibo unique (numero_recibo),
+    constraint fk_clientes_tem_vagas_arquivo_clientes foreign key (id_cliente) references clientes (id),
+    constraint fk_clientes_tem_vagas_arquivo_vagas foreign key (id_vaga) references vagas (id)
+);
+
+-- Mesmos índices da tabela principal para as consultas de histórico (ver V2)
+create index idx_clientes_tem_vagas_arquivo_cliente_saida on clientes_tem_vagas_arquivo (id_cliente, data_saida);
+create index idx_clientes_tem_vagas_arquivo_cliente_entrada on clientes_tem_vagas_arquivo (id_cliente, data_entrada, data_modificacao);
+create index idx_clientes_tem_vagas_arquivo_cliente_placa on clientes_tem_vagas_arquivo (id_cliente, placa, id);
+create index idx_clientes_tem_vagas_arquivo_entrada_saida on clientes_tem_vagas_arquivo (data_entrada, data_saida);
+
+-- Seleção dos estacionamentos a arquivar, encerrados antes da data limite
+create index idx_clientes_tem_vagas_saida on clientes_tem_vagas (data_saida);
+
+create view clientes_tem_vagas_historico as
+    select id, numero_recibo, placa, marca, modelo, cor, data_entrada, data_saida, valor, desconto,
+           id_cliente, id_vaga, data_criacao, data_modificacao, criado_por, modificado_por
+    from clientes_tem_vagas
+    union all
+    select id, numero_recibo, placa, marca, modelo, cor, data_entrada, data_saida, valor, desconto,
+           id_cliente, id_vaga, data_criacao, data_modificacao, criado_por, modificado_por
+    from clientes_tem_vagas_arquivo;
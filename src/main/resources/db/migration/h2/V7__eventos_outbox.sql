@@ -0,0 +1,17 @@
+-- Outbox dos eventos de estacionamento (check-in e check-out). Cada evento é gravado na mesma transação da
+-- operação e publicado depois, em lotes, pelo DespachanteEventos; a linha é removida quando todos os assinantes
+-- a processaram. Uma linha ainda presente após uma queda da aplicação é publicada de novo (entrega ao menos uma vez).
+-- Cada instância reserva o lote que publica gravando reservado_ate; as demais ignoram a linha até a reserva vencer.
+
+create table eventos_outbox (
+    id            bigint generated by default as identity,
+    tipo          varchar(10)  not null,
+    recibo        varchar(40)  not null,
+    cpf           varchar(11)  not null,
+    vaga          varchar(4)   not null,
+    instante      timestamp(6) not null,
+    valor         numeric(7, 2),
+    desconto      numeric(7, 2),
+    reservado_ate timestamp(6),
+    primary key (id)
+);
@@ -0,0 +1,22 @@
+-- A placa deixa de ser única em todo o histórico e passa a ser única apenas entre os estacionamentos em aberto,
+-- permitindo que um veículo volte ao estacionamento. A coluna gerada placa_ativa vale a placa enquanto não há
+-- data de saída e null depois do check-out; o índice único ignora os nulos e garante a regra entre todas as
+-- instâncias da aplicação. O check-in consulta placa_ativa quando o índice de placas em memória indica a placa
+-- como estacionada.
+
+-- A restrição única da placa é localizada pelo catálogo, e não pelo nome: nos bancos criados pelo Hibernate e
+-- marcados na versão 1 (baseline) ela tem um nome gerado, diferente do de V1.
+execute immediate coalesce((
+    select 'alter table clientes_tem_vagas drop constraint "' || tc.constraint_name || '"'
+    from information_schema.table_constraints tc
+    join information_schema.key_column_usage k
+        on k.constraint_schema = tc.constraint_schema and k.constraint_name = tc.constraint_name
+    where tc.table_schema = current_schema and tc.table_name = 'CLIENTES_TEM_VAGAS' and tc.constraint_type = 'UNIQUE'
+    group by tc.constraint_name
+    having count(*) = 1 and max(k.column_name) = 'PLACA'
+    fetch first 1 rows only), 'set @indice_placa = null');
+
+alter table clientes_tem_vagas
+    add column placa_ativa varchar(8) generated always as (case when data_saida is null then placa end);
+
+create unique index uk_clientes_tem_vagas_placa_ativa on clientes_tem_vagas (placa_ativa);
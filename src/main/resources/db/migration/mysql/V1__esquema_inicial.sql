@@ -0,0 +1,66 @@
+-- Esquema inicial, equivalente ao gerado pelo Hibernate (ddl-auto=update) até esta versão.
+-- Bancos já existentes são marcados nesta versão pelo baseline do Flyway e recebem apenas as migrações seguintes.
+
+create table usuarios (
+    id               bigint       not null auto_increment,
+    username         varchar(100) not null,
+    password         varchar(100) not null,
+    role             varchar(25)  not null,
+    data_criacao     datetime(6),
+    data_modificacao datetime(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_usuarios_username unique (username)
+) engine = InnoDB;
+
+create table clientes (
+    id               bigint       not null auto_increment,
+    nome             varchar(100) not null,
+    cpf              varchar(11)  not null,
+    id_usuario       bigint       not null,
+    data_criacao     datetime(6),
+    data_modificacao datetime(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_clientes_cpf unique (cpf),
+    constraint uk_clientes_id_usuario unique (id_usuario),
+    constraint fk_clientes_usuarios foreign key (id_usuario) references usuarios (id)
+) engine = InnoDB;
+
+create table vagas (
+    id               bigint       not null auto_increment,
+    codigo           varchar(4)   not null,
+    status           varchar(255) not null,
+    data_criacao     datetime(6),
+    data_modificacao datetime(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_vagas_codigo unique (codigo)
+) engine = InnoDB;
+
+create table clientes_tem_vagas (
+    id               bigint       not null auto_increment,
+    numero_recibo    varchar(40)  not null,
+    placa            varchar(8)   not null,
+    marca            varchar(50)  not null,
+    modelo           varchar(50)  not null,
+    cor              varchar(50)  not null,
+    data_entrada     datetime(6)  not null,
+    data_saida       datetime(6),
+    valor            decimal(7, 2),
+    desconto         decimal(7, 2),
+    id_cliente       bigint       not null,
+    id_vaga          bigint       not null,
+    data_criacao     datetime(6),
+    data_modificacao datetime(6),
+    criado_por       varchar(255),
+    modificado_por   varchar(255),
+    primary key (id),
+    constraint uk_clientes_tem_vagas_recibo unique (numero_recibo),
+    constraint uk_clientes_tem_vagas_placa unique (placa),
+    constraint fk_clientes_tem_vagas_clientes foreign key (id_cliente) references clientes (id),
+    constraint fk_clientes_tem_vagas_vagas foreign key (id_vaga) references vagas (id)
+) engine = InnoDB;
@@ -0,0 +1,21 @@
+-- Índices para as consultas dos repositórios. Os índices compostos por id_cliente também atendem
+-- aos joins por CPF e por usuário, já que clientes.cpf e clientes.id_usuario são únicos.
+
+-- ClienteVagaRepository.findByReciboAndDataSaidaIsNull (check-out e busca por recibo)
+create index idx_clientes_tem_vagas_recibo_saida on clientes_tem_vagas (numero_recibo, data_saida);
+
+-- ClienteVagaRepository.countByClienteCpfAndDataSaidaIsNotNull (desconto por fidelidade)
+create index idx_clientes_tem_vagas_cliente_saida on clientes_tem_vagas (id_cliente, data_saida);
+
+-- ClienteVagaRepository.findAllByClienteCpf e findAllByClienteUsuarioId (histórico ordenado por entrada)
+-- e buscarVersaoHistorico (max de data_modificacao/data_entrada respondido só pelo índice)
+create index idx_clientes_tem_vagas_cliente_entrada on clientes_tem_vagas (id_cliente, data_entrada, data_modificacao);
+
+-- ClienteVagaRepository.buscarLoteRelatorio (paginação por chave em placa e id)
+create index idx_clientes_tem_vagas_cliente_placa on clientes_tem_vagas (id_cliente, placa, id);
+
+-- ClienteVagaRepository.buscarPorPeriodo e filtro de período da exportação
+create index idx_clientes_tem_vagas_entrada_saida on clientes_tem_vagas (data_entrada, data_saida);
+
+-- VagaRepository.findFirstByStatus (check-in)
+create index idx_vagas_status on vagas (status);
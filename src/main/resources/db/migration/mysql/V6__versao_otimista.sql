@@ -0,0 +1,8 @@
+-- Controle de concorrência otimista: cada atualização de uma entidade confere e incrementa a coluna versao.
+-- Uma atualização feita sobre uma versão desatualizada não altera nenhuma linha e falha com conflito (409),
+-- em vez de sobrescrever a alteração concorrente.
+
+alter table usuarios add column versao bigint default 0 not null;
+alter table clientes add column versao bigint default 0 not null;
+alter table vagas add column versao bigint default 0 not null;
+alter table clientes_tem_vagas add column versao bigint default 0 not null;
@@ -0,0 +1,17 @@
+-- Resumo por dia e hora dos check-ins e check-outs, mantido de forma incremental pelo EstacionamentoService
+-- (até demopark.resumo.fatias linhas por hora com movimento, cada incremento somado por upsert a uma fatia sorteada,
+-- na transação da operação, para que operações simultâneas não disputem a mesma linha) e recalculável a partir de
+-- clientes_tem_vagas e clientes_tem_vagas_arquivo. Os check-outs, a receita, os descontos e a duração ficam na hora da saída;
+-- a duração média é segundos_estacionados / check_outs. Os totais de uma hora são a soma das suas fatias.
+
+create table resumos_horarios (
+    data                  date           not null,
+    hora                  int            not null,
+    fatia                 int            default 0 not null,
+    check_ins             bigint         default 0 not null,
+    check_outs            bigint         default 0 not null,
+    receita               numeric(14, 2) default 0 not null,
+    descontos             numeric(14, 2) default 0 not null,
+    segundos_estacionados bigint         default 0 not null,
+    primary key (data, hora, fatia)
+);
@@ -0,0 +1,23 @@
+-- A placa deixa de ser única em todo o histórico e passa a ser única apenas entre os estacionamentos em aberto,
+-- permitindo que um veículo volte ao estacionamento. A coluna gerada placa_ativa vale a placa enquanto não há
+-- data de saída e null depois do check-out; o índice único ignora os nulos e garante a regra entre todas as
+-- instâncias da aplicação. O check-in consulta placa_ativa quando o índice de placas em memória indica a placa
+-- como estacionada.
+
+-- O índice único da placa é localizado pelo catálogo, e não pelo nome: nos bancos criados pelo Hibernate e
+-- marcados na versão 1 (baseline) ele tem um nome gerado, diferente do de V1.
+set @indice_placa = (select index_name from information_schema.statistics
+                     where table_schema = database() and table_name = 'clientes_tem_vagas' and non_unique = 0
+                     group by index_name
+                     having count(*) = 1 and max(column_name) = 'placa'
+                     limit 1);
+set @remover_indice_placa = if(@indice_placa is null, 'do 0',
+                               concat('alter table clientes_tem_vagas drop index `', @indice_placa, '`'));
+prepare remover_indice_placa from @remover_indice_placa;
+execute remover_indice_placa;
+deallocate prepare remover_indice_placa;
+
+alter table clientes_tem_vagas
+    add column placa_ativa varchar(8) generated always as (case when data_saida is null then placa end) virtual;
+
+create unique index uk_clientes_tem_vagas_placa_ativa on clientes_tem_vagas (placa_ativa);
@@ -0,0 +1,79 @@
+package com.walter.demopark;
+
+import com.walter.demopark.service.ArquivamentoService;
+import com.walter.demopark.service.ClienteVagaService;
+import com.walter.demopark.web.dto.pageable.PageableDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ArquivamentoIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ArquivamentoService arquivamentoService;
+
+    @Autowired
+    ClienteVagaService clienteVagaService;
+
+    // Encerra os dois estacionamentos do cliente 98401203015; o da cliente 09191773016 continua em aberto
+    @BeforeEach
+    public void encerrarEstacionamentos() {
+        jdbcTemplate.update("update clientes_tem_vagas set data_saida = timestamp '2023-03-15 12:00:00', valor = 10.00 "
+                + "where id in (100, 300)");
+    }
+
+    @Test
+    public void arquivar_EstacionamentosEncerrados_MoverParaArquivo() {
+        long arquivados = arquivamentoService.arquivar(LocalDateTime.of(2023, 3, 16, 0, 0));
+
+        assertThat(arquivados).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from clientes_tem_vagas", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from clientes_tem_vagas_arquivo", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    public void arquivar_EstacionamentosEncerradosDepoisDoLimite_ManterNaTabelaPrincipal() {
+        long arquivados = arquivamentoService.arquivar(LocalDateTime.of(2023, 3, 15, 0, 0));
+
+        assertThat(arquivados).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from clientes_tem_vagas", Long.class)).isEqualTo(3);
+    }
+
+    @Test
+    public void buscarEstacionamentos_AposArquivamento_RetornarMesmoHistorico() {
+        String versao = clienteVagaService.getVersaoHistorico("98401203015");
+
+        arquivamentoService.arquivar(LocalDateTime.of(2023, 3, 16, 0, 0));
+
+        PageableDto responseBody = testClient.get()
+                .uri("/api/v1/estacionamentos/cpf/{cpf}?size=5&page=0", "98401203015")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PageableDto.class)
+                .returnResult().getResponseBody();
+
+        assertThat(responseBody).isNotNull();
+        assertThat(responseBody.getContent().size()).isEqualTo(2);
+        assertThat(responseBody.getTotalElements()).isEqualTo(2);
+        assertThat(clienteVagaService.getTotalDeVezesEstacionamentoCompleto("98401203015")).isEqualTo(2);
+        assertThat(clienteVagaService.getVersaoHistorico("98401203015")).isEqualTo(versao);
+    }
+}
@@ -117,4 +117,26 @@ public class AutentiticaoIT {
         org.assertj.core.api.Assertions.assertThat(responseBody.getStatus()).isEqualTo(422);
     }
 
+    @Test
+    public void buscarMetricas_ComRoleCliente_RetornarStatus403() {
+
+        testClient
+                .get()
+                .uri("/actuator/metrics")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com", "123456"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void buscarMetricas_ComRoleAdmin_RetornarStatus200() {
+
+        testClient
+                .get()
+                .uri("/actuator/metrics")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
 }
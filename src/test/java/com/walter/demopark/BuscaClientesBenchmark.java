@@ -0,0 +1,108 @@
+package com.walter.demopark;
+
+import com.walter.demopark.repository.IndiceClientesRepository;
+import com.walter.demopark.service.IndiceClientesService;
+import org.h2.tools.SimpleResultSet;
+import org.h2.tools.SimpleRowSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark simples da busca de clientes em memória com 1 milhão de clientes sintéticos, cada um com nome e
+ * sobrenome de listas curtas (prefixos muito repetidos), CPF e, a cada quatro clientes, uma placa. As linhas são
+ * geradas sob demanda e entregues ao índice como se viessem do banco, sem o contexto do Spring.
+ * Exige cerca de 1 GB de heap.
+ *
+ * Execução: ./mvnw test -Dtest=BuscaClientesBenchmark
+ */
+public class BuscaClientesBenchmark {
+
+    private static final int CLIENTES = 1_000_000;
+    private static final int AQUECIMENTO = 20_000;
+    private static final int ITERACOES = 100_000;
+
+    private static final String[] NOMES = {"Ana", "Bianca", "Biatriz", "Carlos", "Daniela", "Eduardo", "Fernanda",
+            "Gabriel", "Helena", "Igor", "Joana", "Lucas", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Roberto",
+            "Rodrigo", "Sílvia", "Tobias", "Vitória"};
+    private static final String[] SOBRENOMES = {"Almeida", "Barbosa", "Cardoso", "Costa", "Dias", "Ferreira", "Gomes",
+            "Lima", "Martins", "Oliveira", "Pereira", "Ribeiro", "Rodrigues", "Santos", "Silva", "Souza"};
+
+    private static final String[] BUSCAS = {"rod", "rod sil", "Sílvia Ri", "fer", "000123", "0001234567", "abc0042",
+            "abc-1", "ga ol", "tob fe"};
+
+    @Test
+    public void buscar_UmMilhaoDeClientes_MenosDe1MilissegundoPorBusca() {
+        IndiceClientesRepository repository = mock(IndiceClientesRepository.class);
+        doAnswer(invocacao -> percorrer(invocacao.getArgument(0), CLIENTES,
+                i -> new Object[]{(long) i, NOMES[i % NOMES.length] + " " + SOBRENOMES[(i / NOMES.length) % SOBRENOMES.length],
+                        String.format("%011d", i)}))
+                .when(repository).percorrerClientes(any());
+        doAnswer(invocacao -> percorrer(invocacao.getArgument(0), CLIENTES / 4,
+                i -> new Object[]{(long) i * 4, String.format("ABC-%04d", i % 10_000)}))
+                .when(repository).percorrerPlacas(any());
+
+        IndiceClientesService service = new IndiceClientesService(repository);
+        long inicioMontagem = System.nanoTime();
+        assertThat(service.reconstruir()).isEqualTo(CLIENTES);
+        System.out.printf("montagem do índice: %d ms%n", (System.nanoTime() - inicioMontagem) / 1_000_000);
+
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            service.buscar(BUSCAS[i % BUSCAS.length], 10);
+        }
+
+        System.out.printf("%-12s %12s %10s%n", "busca", "média(ns)", "resultados");
+        long total = 0;
+        for (String busca : BUSCAS) {
+            int resultados = service.buscar(busca, 10).size();
+            long inicio = System.nanoTime();
+            for (int i = 0; i < ITERACOES / BUSCAS.length; i++) {
+                service.buscar(busca, 10);
+            }
+            long nanos = System.nanoTime() - inicio;
+            total += nanos;
+            System.out.printf("%-12s %12d %10d%n", busca, nanos / (ITERACOES / BUSCAS.length), resultados);
+            assertThat(resultados).isPositive();
+        }
+        assertThat(total / ITERACOES).isLessThan(1_000_000);
+    }
+
+    private static Object percorrer(RowCallbackHandler handler, int linhas, IntFunction<Object[]> gerador) throws SQLException {
+        SimpleResultSet rs = new SimpleResultSet(new SimpleRowSource() {
+            private int proxima;
+
+            @Override
+            public Object[] readRow() {
+                return proxima < linhas ? gerador.apply(proxima++) : null;
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void reset() {
+                proxima = 0;
+            }
+        });
+        int colunas = gerador.apply(0).length;
+        for (int i = 1; i <= colunas; i++) {
+            rs.addColumn("c" + i, i == 1 ? Types.BIGINT : Types.VARCHAR, 0, 0);
+        }
+        try (ResultSet resultSet = rs) {
+            while (resultSet.next()) {
+                handler.processRow(resultSet);
+            }
+        }
+        return null;
+    }
+}
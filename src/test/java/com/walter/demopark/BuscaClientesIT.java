@@ -0,0 +1,116 @@
+package com.walter.demopark;
+
+import com.walter.demopark.web.dto.cliente.ClienteBuscaResponseDto;
+import com.walter.demopark.web.dto.cliente.ClienteCreateDto;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+// A busca de clientes não consulta o banco de dados: o único comando é o do filtro de autenticação
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/clientes/busca", maximo = 1)
+public class BuscaClientesIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Test
+    public void buscar_ComPrefixoDoSobrenome_RetornarClientesEmOrdemDoTermo() {
+        List<ClienteBuscaResponseDto> clientes = buscar("rod", 10);
+
+        // "rodrigo" vem antes de "rodrigues" na ordem dos termos
+        assertThat(clientes).extracting(ClienteBuscaResponseDto::getNome)
+                .containsExactly("Rodrigo Silva", "Biatriz Rodrigues");
+    }
+
+    @Test
+    public void buscar_ComVariasPalavrasEAcento_RetornarSomenteClienteComTodas() {
+        assertThat(buscar("Rodrígo sil", 10)).extracting(ClienteBuscaResponseDto::getCpf)
+                .containsExactly("98401203015");
+    }
+
+    @Test
+    public void buscar_ComErroDeDigitacaoNoNome_RetornarClientesMaisProximos() {
+        assertThat(buscar("rodirgo sil", 10)).extracting(ClienteBuscaResponseDto::getNome)
+                .containsExactly("Rodrigo Silva");
+    }
+
+    @Test
+    public void buscar_ComPrefixoDoCpf_RetornarCliente() {
+        assertThat(buscar("091.917", 10)).extracting(ClienteBuscaResponseDto::getNome)
+                .containsExactly("Biatriz Rodrigues");
+    }
+
+    @Test
+    public void buscar_ComPrefixoDaPlaca_RetornarClienteComPlacasDoHistorico() {
+        List<ClienteBuscaResponseDto> clientes = buscar("fit-10", 10);
+
+        assertThat(clientes).hasSize(1);
+        assertThat(clientes.get(0).getNome()).isEqualTo("Rodrigo Silva");
+        assertThat(clientes.get(0).getPlacas()).containsExactlyInAnyOrder("FIT-1020", "FIT-1030");
+    }
+
+    @Test
+    public void buscar_ComLimite_RetornarNoMaximoOLimite() {
+        assertThat(buscar("r", 1)).hasSize(1);
+    }
+
+    @Test
+    public void checkIn_ComPlacaNova_EncontrarClientePelaPlaca() {
+        assertThat(buscar("WER-1111", 10)).isEmpty();
+
+        testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("WER-1111", "FIAT", "PALIO 1.0", "AZUL", "09191773016"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        List<ClienteBuscaResponseDto> clientes = buscar("wer1111", 10);
+        assertThat(clientes).extracting(ClienteBuscaResponseDto::getNome).containsExactly("Biatriz Rodrigues");
+        assertThat(clientes.get(0).getPlacas()).containsExactlyInAnyOrder("SIE-1020", "WER-1111");
+    }
+
+    @Test
+    public void criarCliente_ComDadosValidos_EncontrarClientePeloNome() {
+        testClient.post()
+                .uri("/api/v1/clientes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new ClienteCreateDto("Tobias Ferreira", "05737142078"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        assertThat(buscar("ferr tob", 10)).extracting(ClienteBuscaResponseDto::getCpf).containsExactly("05737142078");
+    }
+
+    @Test
+    public void buscar_ComRoleCliente_RetornarErroStatus403() {
+        testClient.get()
+                .uri("/api/v1/clientes/busca?texto=rod")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private List<ClienteBuscaResponseDto> buscar(String texto, int limite) {
+        return testClient.get()
+                .uri("/api/v1/clientes/busca?texto={texto}&limite={limite}", texto, limite)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ClienteBuscaResponseDto.class)
+                .returnResult().getResponseBody();
+    }
+}
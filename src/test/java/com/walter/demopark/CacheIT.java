@@ -0,0 +1,70 @@
+package com.walter.demopark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/vagas-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/vagas-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class CacheIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void buscarVagaPorCodigo_SegundaLeitura_AtenderPeloCacheSemConsultarOBanco() {
+        entityManagerFactory.getCache().evictAll();
+
+        assertThat(buscarVaga("A-01")).as("A primeira leitura busca a vaga no banco")
+                .anyMatch(sql -> sql.contains(" from vagas "));
+        assertThat(buscarVaga("A-01")).as("A segunda leitura é atendida pelo cache").isEmpty();
+    }
+
+    private List<String> buscarVaga(String codigo) {
+        testClient.get()
+                .uri("/api/v1/vagas/{codigo}", codigo)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("codigo").isEqualTo(codigo);
+        return ConsultasSql.ultima("GET", "/api/v1/vagas/" + codigo).comandosExcetoAutenticacao();
+    }
+
+    @Test
+    public void buscarEstatisticas_ComUsuarioAdmin_RetornarListaComStatus200() {
+        testClient
+                .get()
+                .uri("/api/v1/cache/estatisticas")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$").isArray();
+    }
+
+    @Test
+    public void buscarEstatisticas_ComUsuarioSemPermissaoDeAcesso_RetornarErrorMessageComStatus403() {
+        testClient
+                .get()
+                .uri("/api/v1/cache/estatisticas")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com", "123456"))
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody()
+                .jsonPath("status").isEqualTo(403)
+                .jsonPath("method").isEqualTo("GET")
+                .jsonPath("path").isEqualTo("/api/v1/cache/estatisticas");
+    }
+}
@@ -15,7 +15,10 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Sql(scripts = "/sql/database/clientes-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 @Sql(scripts = "/sql/database/clientes-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
-
+// Limites de comandos SQL por requisição, incluindo a consulta do filtro de autenticação
+@LimiteConsultas(metodo = "POST", caminho = "/api/v1/clientes", maximo = 5)
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/clientes", maximo = 3)
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/clientes/detalhes", maximo = 2)
 public class ClienteIT {
 
     @Autowired
@@ -0,0 +1,82 @@
+package com.walter.demopark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoResponseDto;
+import com.walter.demopark.web.dto.vaga.VagaResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark simples que compara o tamanho do payload e o tempo de codificação/decodificação
+ * de EstacionamentoResponseDto e VagaResponseDto em JSON, CBOR e Smile.
+ * Os ObjectMappers são criados da mesma forma que os conversores registrados pelo Spring MVC.
+ *
+ * Execução: ./mvnw test -Dtest=CodificacaoBinariaBenchmark
+ */
+public class CodificacaoBinariaBenchmark {
+
+    private static final int AQUECIMENTO = 20_000;
+    private static final int ITERACOES = 200_000;
+
+    @Test
+    public void compararCodificacoes_EstacionamentoEVaga_ImprimirTamanhoETempo() throws Exception {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.cbor().build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.smile().build());
+
+        EstacionamentoResponseDto estacionamento = new EstacionamentoResponseDto(
+                "FIT-1020", "FIAT", "PALIO", "VERDE", "98401203015", "20230313-101300",
+                LocalDateTime.of(2023, 3, 13, 10, 15), LocalDateTime.of(2023, 3, 13, 12, 40),
+                "A-01", new BigDecimal("19.75"), new BigDecimal("0.00"));
+        VagaResponseDto vaga = new VagaResponseDto(10L, "A-01", "LIVRE");
+
+        System.out.printf("%-26s %-6s %8s %12s %12s%n", "dto", "format", "bytes", "encode(ns)", "decode(ns)");
+        int jsonEstacionamento = 0;
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            int tamanho = medir(entry.getKey(), entry.getValue(), estacionamento, EstacionamentoResponseDto.class);
+            if (entry.getKey().equals("json")) {
+                jsonEstacionamento = tamanho;
+            } else {
+                assertThat(tamanho).isLessThan(jsonEstacionamento);
+            }
+        }
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            medir(entry.getKey(), entry.getValue(), vaga, VagaResponseDto.class);
+        }
+    }
+
+    private <T> int medir(String formato, ObjectMapper mapper, T dto, Class<T> tipo) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(dto);
+
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            mapper.readTree(mapper.writeValueAsBytes(dto));
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACOES; i++) {
+            bytes = mapper.writeValueAsBytes(dto);
+        }
+        long codificacao = (System.nanoTime() - inicio) / ITERACOES;
+
+        // A decodificação é medida em árvore, como faz um terminal que lê apenas alguns campos do payload
+        JsonNode lido = null;
+        inicio = System.nanoTime();
+        for (int i = 0; i < ITERACOES; i++) {
+            lido = mapper.readTree(bytes);
+        }
+        long decodificacao = (System.nanoTime() - inicio) / ITERACOES;
+
+        assertThat(lido.size()).isPositive();
+        System.out.printf("%-26s %-6s %8d %12d %12d%n", tipo.getSimpleName(), formato, bytes.length, codificacao, decodificacao);
+        return bytes.length;
+    }
+}
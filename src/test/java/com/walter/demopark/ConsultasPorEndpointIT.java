@@ -0,0 +1,150 @@
+package com.walter.demopark;
+
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica, para os endpoints de estacionamento, quantos comandos SQL cada requisição executa e quantas tabelas
+ * cada consulta envolve. As associações de ClienteVaga e Cliente são LAZY e cada consulta carrega, por grafo de
+ * entidade ou projeção, apenas o que a resposta usa. Os comandos são os registrados pelo ConsultasSql para a
+ * requisição; as consultas do filtro de autenticação não são contadas.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ConsultasPorEndpointIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Test
+    public void buscarPorRecibo_CarregarClienteEVagaSemUsuario_UmaConsultaComTresTabelas() {
+        Consumer<HttpHeaders> autorizacao = JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456");
+
+        testClient.get()
+                .uri("/api/v1/estacionamentos/check-in/{recibo}", "20230313-101300")
+                .headers(autorizacao)
+                .exchange()
+                .expectStatus().isOk();
+
+        List<String> comandos = ConsultasSql.ultima("GET", "/api/v1/estacionamentos/check-in/20230313-101300").comandosExcetoAutenticacao();
+        assertThat(comandos).hasSize(1);
+        assertThat(ConsultasSql.tabelas(comandos.get(0))).isEqualTo(3);
+        assertThat(comandos.get(0)).doesNotContain("usuarios");
+    }
+
+    @Test
+    public void checkOut_EncerrarComUpdateCondicional_SeteComandos() {
+        Consumer<HttpHeaders> autorizacao = JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456");
+
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", "20230313-101300")
+                .headers(autorizacao)
+                .exchange()
+                .expectStatus().isOk();
+
+        List<String> comandos = ConsultasSql.ultima("PUT", "/api/v1/estacionamentos/check-out/20230313-101300").comandosExcetoAutenticacao();
+        assertThat(comandos).hasSize(7);
+        // Projeção do estacionamento em aberto com cliente e vaga, e a contagem para o desconto de fidelidade
+        assertThat(ConsultasSql.tabelas(comandos.get(0))).isEqualTo(3);
+        assertThat(comandos.get(1)).startsWith("select count");
+        assertThat(ConsultasSql.tabelas(comandos.get(1))).isEqualTo(2);
+        // Update condicional do estacionamento, leitura da vaga pelo id, evento na outbox, upsert do resumo da hora
+        // e atualização da vaga no commit
+        assertThat(comandos.get(2)).startsWith("update clientes_tem_vagas").contains("data_saida is null");
+        assertThat(comandos.get(3)).startsWith("select").contains(" from vagas ");
+        assertThat(comandos.get(4)).startsWith("insert into eventos_outbox");
+        assertThat(comandos.get(5)).startsWith("merge into resumos_horarios");
+        assertThat(comandos.get(6)).startsWith("update vagas");
+    }
+
+    @Test
+    public void checkOutRepetido_EstacionamentoJaEncerrado_UmaConsultaSemAtualizacoes() {
+        Consumer<HttpHeaders> autorizacao = JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456");
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", "20230313-101300")
+                .headers(autorizacao)
+                .exchange()
+                .expectStatus().isOk();
+        ConsultasSql.limpar();
+
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", "20230313-101300")
+                .headers(autorizacao)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        List<String> comandos = ConsultasSql.ultima("PUT", "/api/v1/estacionamentos/check-out/20230313-101300").comandosExcetoAutenticacao();
+        assertThat(comandos).hasSize(1);
+        assertThat(comandos.get(0)).startsWith("select");
+    }
+
+    @Test
+    public void checkIn_SemJoins_NaoCarregarUsuarioDoCliente() {
+        Consumer<HttpHeaders> autorizacao = JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456");
+
+        testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(autorizacao)
+                .bodyValue(new EstacionamentoCreateDto("WER-1111", "FIAT", "PALIO 1.0", "AZUL", "09191773016"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        // Cliente pelo CPF, primeira vaga livre, evento na outbox, upsert do resumo da hora, inserção do estacionamento
+        // e atualização da vaga, mais a leitura e a atualização da tabela sequencias quando o bloco de ids do gerador se esgota
+        List<String> comandos = ConsultasSql.ultima("POST", "/api/v1/estacionamentos/check-in").comandosExcetoAutenticacao();
+        assertThat(comandos).hasSizeLessThanOrEqualTo(8);
+        assertThat(comandos).allMatch(sql -> ConsultasSql.tabelas(sql) == 1);
+        assertThat(comandos).noneMatch(sql -> sql.contains("usuarios"));
+    }
+
+    @Test
+    public void buscarHistoricoPorCpf_ProjecaoComJoins_UmaConsultaComTresTabelas() {
+        Consumer<HttpHeaders> autorizacao = JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456");
+
+        testClient.get()
+                .uri("/api/v1/estacionamentos/cpf/{cpf}?size=5&page=0", "98401203015")
+                .headers(autorizacao)
+                .exchange()
+                .expectStatus().isOk();
+
+        // A página não está cheia, então o Spring Data não executa a consulta de contagem
+        List<String> comandos = ConsultasSql.ultima("GET", "/api/v1/estacionamentos/cpf/98401203015").comandosExcetoAutenticacao();
+        assertThat(comandos).hasSize(1);
+        // União do histórico ativo com o arquivado, cada lado com as três tabelas
+        assertThat(comandos.get(0).split(" union all "))
+                .hasSize(2)
+                .allSatisfy(lado -> assertThat(ConsultasSql.tabelas(lado)).isEqualTo(3));
+    }
+
+    @Test
+    public void buscarHistoricoDoCliente_ProjecaoComJoins_UmaConsultaComTresTabelas() {
+        Consumer<HttpHeaders> autorizacao = JwtAuthentication.getHeaderAuthorization(testClient, "bob@email.com.br", "123456");
+
+        testClient.get()
+                .uri("/api/v1/estacionamentos?size=5&page=0")
+                .headers(autorizacao)
+                .exchange()
+                .expectStatus().isOk();
+
+        List<String> comandos = ConsultasSql.ultima("GET", "/api/v1/estacionamentos").comandosExcetoAutenticacao();
+        assertThat(comandos).hasSize(1);
+        // União do histórico ativo com o arquivado, cada lado com as três tabelas
+        assertThat(comandos.get(0).split(" union all "))
+                .hasSize(2)
+                .allSatisfy(lado -> assertThat(ConsultasSql.tabelas(lado)).isEqualTo(3));
+        assertThat(comandos.get(0)).doesNotContain("usuarios");
+    }
+}
@@ -0,0 +1,159 @@
+package com.walter.demopark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registro, apenas nos testes, dos comandos SQL executados em cada requisição HTTP. O proxy do DataSource
+ * (ConsultasSqlConfig) entrega cada comando executado e o filtro de requisições marca a requisição em andamento
+ * na thread do servidor. Comandos executados fora de uma requisição, como os scripts @Sql, as migrações e as
+ * tarefas em outras threads (pool fork-join e jobs assíncronos), não são registrados.
+ * Os limites de cada endpoint são declarados nas classes de teste com @LimiteConsultas e verificados, junto com
+ * a detecção de N+1, pela VerificacaoConsultasExtension ao fim de cada teste.
+ * Fora das requisições, capturar(Runnable) devolve os comandos, com os valores dos parâmetros, executados por um
+ * trecho de código na thread atual; é o que o PlanoExecucaoIT usa para analisar o SQL realmente gerado.
+ */
+public final class ConsultasSql {
+
+    /**
+     * Os comandos SQL executados em uma requisição, em ordem de execução e em minúsculas.
+     * Um lote JDBC conta como um comando.
+     */
+    public record Requisicao(String metodo, String caminho, List<String> comandos) {
+
+        /**
+         * Retorna o endpoint da requisição no formato "MÉTODO caminho".
+         */
+        public String endpoint() {
+            return metodo + " " + caminho;
+        }
+
+        /**
+         * Retorna os comandos, exceto as consultas à tabela usuarios feitas pelo filtro de autenticação JWT
+         * em toda requisição.
+         */
+        public List<String> comandosExcetoAutenticacao() {
+            return comandos.stream()
+                    .filter(sql -> !sql.contains(" from usuarios "))
+                    .toList();
+        }
+
+        /**
+         * Retorna as consultas executadas mais de {@code maximo} vezes na requisição, com o número de execuções.
+         * A mesma consulta repetida com parâmetros diferentes é o sinal de um N+1.
+         */
+        public Map<String, Long> consultasRepetidas(int maximo) {
+            return comandos.stream()
+                    .filter(sql -> sql.startsWith("select"))
+                    .collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()))
+                    .entrySet().stream()
+                    .filter(e -> e.getValue() > maximo)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+    }
+
+    /**
+     * Um comando SQL executado, como enviado ao banco, com os valores dos parâmetros na ordem dos marcadores.
+     * Em um lote JDBC, os parâmetros são os da primeira linha.
+     */
+    public record Comando(String sql, List<Object> parametros) {
+    }
+
+    private static final List<Requisicao> REQUISICOES = new CopyOnWriteArrayList<>();
+
+    private static final ThreadLocal<Requisicao> ATUAL = new ThreadLocal<>();
+
+    private static final ThreadLocal<List<Comando>> CAPTURA = new ThreadLocal<>();
+
+    private ConsultasSql() {
+    }
+
+    /**
+     * Inicia o registro de uma requisição na thread atual. A requisição é publicada logo no início, para que
+     * o teste a encontre mesmo que a resposta chegue ao cliente antes do fim do filtro.
+     */
+    static void iniciar(String metodo, String caminho) {
+        Requisicao requisicao = new Requisicao(metodo, caminho, Collections.synchronizedList(new ArrayList<>()));
+        REQUISICOES.add(requisicao);
+        ATUAL.set(requisicao);
+    }
+
+    /**
+     * Encerra o registro da requisição da thread atual.
+     */
+    static void encerrar() {
+        ATUAL.remove();
+    }
+
+    /**
+     * Registra um comando executado na thread atual, se ela estiver atendendo a uma requisição ou executando
+     * um trecho passado a capturar(Runnable).
+     */
+    static void registrar(String sql, List<Object> parametros) {
+        Requisicao requisicao = ATUAL.get();
+        if (requisicao != null) {
+            requisicao.comandos().add(sql.strip().toLowerCase(Locale.ROOT));
+        }
+        List<Comando> captura = CAPTURA.get();
+        if (captura != null) {
+            captura.add(new Comando(sql.strip(), parametros));
+        }
+    }
+
+    /**
+     * Executa a ação na thread atual e retorna, em ordem de execução, os comandos SQL que ela executou.
+     */
+    public static List<Comando> capturar(Runnable acao) {
+        List<Comando> comandos = new ArrayList<>();
+        CAPTURA.set(comandos);
+        try {
+            acao.run();
+        } finally {
+            CAPTURA.remove();
+        }
+        return comandos;
+    }
+
+    /**
+     * Descarta as requisições registradas até aqui. É chamado antes de cada teste pela VerificacaoConsultasExtension.
+     */
+    public static void limpar() {
+        REQUISICOES.clear();
+    }
+
+    /**
+     * Retorna as requisições registradas desde a última limpeza, na ordem em que começaram.
+     */
+    public static List<Requisicao> requisicoes() {
+        return List.copyOf(REQUISICOES);
+    }
+
+    /**
+     * Retorna a última requisição registrada para o método e o caminho informados.
+     *
+     * @throws AssertionError se nenhuma requisição tiver sido registrada para o endpoint.
+     */
+    public static Requisicao ultima(String metodo, String caminho) {
+        for (int i = REQUISICOES.size() - 1; i >= 0; i--) {
+            Requisicao requisicao = REQUISICOES.get(i);
+            if (requisicao.metodo().equals(metodo) && requisicao.caminho().equals(caminho)) {
+                return requisicao;
+            }
+        }
+        throw new AssertionError(String.format("Nenhuma requisição registrada para %s %s", metodo, caminho));
+    }
+
+    /**
+     * Retorna o número de tabelas envolvidas em um comando: a tabela principal mais uma por join.
+     */
+    public static int tabelas(String sql) {
+        return sql.split(" join ", -1).length;
+    }
+}
@@ -0,0 +1,108 @@
+package com.walter.demopark;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Configuração, apenas nos testes, do registro de comandos SQL por requisição (ConsultasSql).
+ * O DataSource da aplicação é envolvido por um proxy do datasource-proxy que entrega cada comando executado, e um
+ * filtro, anterior ao filtro de segurança, marca a requisição em andamento. Só o bean "dataSource" é envolvido:
+ * com as réplicas de leitura habilitadas ele é o proxy de conexão preguiçosa sobre o RoteamentoDataSource, e
+ * envolver os dois contaria cada comando duas vezes.
+ */
+@Configuration
+public class ConsultasSqlConfig {
+
+    @Bean
+    public static BeanPostProcessor proxyDataSourceConsultas() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new RegistroConsultasListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RegistroConsultasFilter> registroConsultasFilter() {
+        FilterRegistrationBean<RegistroConsultasFilter> registro = new FilterRegistrationBean<>(new RegistroConsultasFilter());
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    /**
+     * Entrega ao ConsultasSql cada comando executado. Um lote JDBC é registrado uma vez, qualquer que seja o
+     * número de linhas.
+     */
+    static class RegistroConsultasListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                ConsultasSql.registrar(queryInfo.getQuery(), parametros(queryInfo));
+            }
+        }
+
+        /**
+         * Retorna os valores dos parâmetros da primeira linha do comando, na ordem dos marcadores.
+         */
+        private static List<Object> parametros(QueryInfo queryInfo) {
+            if (queryInfo.getParametersList().isEmpty()) {
+                return List.of();
+            }
+            List<ParameterSetOperation> operacoes = new ArrayList<>(queryInfo.getParametersList().get(0));
+            operacoes.sort(Comparator.comparingInt(operacao -> ((Number) operacao.getArgs()[0]).intValue()));
+            List<Object> valores = new ArrayList<>();
+            for (ParameterSetOperation operacao : operacoes) {
+                valores.add(ParameterSetOperation.isSetNullParameterOperation(operacao) ? null : operacao.getArgs()[1]);
+            }
+            return valores;
+        }
+    }
+
+    /**
+     * Marca a requisição atendida pela thread atual, do início ao fim da cadeia de filtros.
+     */
+    static class RegistroConsultasFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            ConsultasSql.iniciar(request.getMethod(), request.getRequestURI());
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                ConsultasSql.encerrar();
+            }
+        }
+    }
+}
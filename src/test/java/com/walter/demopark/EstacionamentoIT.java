@@ -10,9 +10,21 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 @Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+// Limites de comandos SQL por requisição, incluindo a consulta do filtro de autenticação
+@LimiteConsultas(metodo = "POST", caminho = "/api/v1/estacionamentos/check-in", maximo = 9)
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/estacionamentos/check-in/*", maximo = 2)
+@LimiteConsultas(metodo = "PUT", caminho = "/api/v1/estacionamentos/check-out/*", maximo = 8)
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/estacionamentos/cpf/*", maximo = 3)
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/estacionamentos", maximo = 3)
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/estacionamentos/relatorio/periodo", maximo = 2)
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/estacionamentos/exportacao", maximo = 2)
 public class EstacionamentoIT {
 
     @Autowired
@@ -324,5 +336,111 @@ public class EstacionamentoIT {
                 .jsonPath("method").isEqualTo("GET");
     }
 
+    @Test
+    public void gerarRelatorioPeriodo_EmCsvComPerfilAdmin_RetornarUmaLinhaPorDia() {
+
+        String csv = testClient.get()
+                .uri("/api/v1/estacionamentos/relatorio/periodo?inicio=2023-03-13&fim=2023-03-15&particao=DIA&formato=csv")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        System.out.println("CSVDUMP\n" + csv);
+        assertThat(csv).isNotNull();
+        String[] linhas = csv.split("\n");
+        assertThat(linhas).hasSize(5);
+        assertThat(linhas[0]).startsWith("inicio,fim,estacionamentos");
+        assertThat(linhas[1]).startsWith("2023-03-13,2023-03-13,");
+        assertThat(linhas[4]).startsWith("total,");
+    }
+
+    @Test
+    public void gerarRelatorioPeriodo_EmPdfComPerfilAdmin_RetornarPdf() {
+
+        byte[] pdf = testClient.get()
+                .uri("/api/v1/estacionamentos/relatorio/periodo?inicio=2023-03-13&fim=2023-03-15&particao=DIA")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_PDF)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        assertThat(pdf).isNotNull();
+        assertThat(new String(pdf, 0, 5, StandardCharsets.ISO_8859_1)).isEqualTo("%PDF-");
+    }
+
+    @Test
+    public void gerarRelatorioPeriodo_ComFimAntesDoInicio_RetornarErrorStatus400() {
 
+        testClient.get()
+                .uri("/api/v1/estacionamentos/relatorio/periodo?inicio=2023-03-15&fim=2023-03-13")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_DISPOSITION)
+                .expectBody()
+                .jsonPath("status").isEqualTo("400")
+                .jsonPath("path").isEqualTo("/api/v1/estacionamentos/relatorio/periodo");
+    }
+
+    @Test
+    public void exportarEstacionamentos_EmCsvPorCpf_RetornarLinhasDoCliente() {
+
+        String csv = testClient.get()
+                .uri("/api/v1/estacionamentos/exportacao?formato=CSV&cpf=98401203015")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertThat(csv).isNotNull();
+        String[] linhas = csv.split("\r\n");
+        assertThat(linhas).hasSize(3);
+        assertThat(linhas[0]).startsWith("recibo,cpf,nome,placa");
+        assertThat(linhas[1]).startsWith("20230313-101300,98401203015,Rodrigo Silva,FIT-1020");
+    }
+
+    @Test
+    public void exportarEstacionamentos_EmXlsx_RetornarArquivoZip() {
+
+        byte[] xlsx = testClient.get()
+                .uri("/api/v1/estacionamentos/exportacao?formato=XLSX&vaga=A-02")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        assertThat(xlsx).isNotNull();
+        assertThat(xlsx[0]).isEqualTo((byte) 'P');
+        assertThat(xlsx[1]).isEqualTo((byte) 'K');
+    }
+
+    @Test
+    public void exportarEstacionamentos_ComFimAntesDoInicio_RetornarErrorStatus400SemArquivo() {
+
+        testClient.get()
+                .uri("/api/v1/estacionamentos/exportacao?formato=CSV&inicio=2023-03-15&fim=2023-03-13")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_DISPOSITION)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("status").isEqualTo("400");
+    }
+
+    @Test
+    public void exportarEstacionamentos_ComPerfilCliente_RetornarErrorStatus403() {
+
+        testClient.get()
+                .uri("/api/v1/estacionamentos/exportacao")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
 }
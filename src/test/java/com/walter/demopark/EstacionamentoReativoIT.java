@@ -0,0 +1,201 @@
+package com.walter.demopark;
+
+import com.walter.demopark.service.OcupacaoService;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoResponseDto;
+import com.walter.demopark.web.dto.vaga.OcupacaoResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+// A ocupação é lida da memória: só a consulta do filtro de autenticação vai ao banco
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/reativo/estacionamentos/ocupacao", maximo = 1)
+public class EstacionamentoReativoIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Autowired
+    OcupacaoService ocupacaoService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void criarCheckin_ComDadosValidos_RetornarStatus201ELocalizarPeloRecibo() {
+
+        EstacionamentoCreateDto createDto = EstacionamentoCreateDto.builder()
+                .placa("WER-1111").marca("FIAT").modelo("PALIO 1.0")
+                .cor("AZUL").clienteCpf("09191773016")
+                .build();
+
+        EstacionamentoResponseDto responseBody = testClient.post().uri("/api/v1/reativo/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(createDto)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists(HttpHeaders.LOCATION)
+                .expectBody(EstacionamentoResponseDto.class)
+                .returnResult().getResponseBody();
+
+        assertThat(responseBody).isNotNull();
+        assertThat(responseBody.getPlaca()).isEqualTo("WER-1111");
+        assertThat(responseBody.getClienteCpf()).isEqualTo("09191773016");
+        assertThat(responseBody.getRecibo()).isNotNull();
+        assertThat(responseBody.getVagaCodigo()).isNotNull();
+
+        testClient.get()
+                .uri("/api/v1/reativo/estacionamentos/check-in/{recibo}", responseBody.getRecibo())
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("placa").isEqualTo("WER-1111")
+                .jsonPath("recibo").isEqualTo(responseBody.getRecibo());
+    }
+
+    @Test
+    public void criarCheckin_ComRoleCliente_RetornarErroStatus403() {
+
+        EstacionamentoCreateDto createDto = EstacionamentoCreateDto.builder()
+                .placa("WER-1111").marca("FIAT").modelo("PALIO 1.0")
+                .cor("AZUL").clienteCpf("09191773016")
+                .build();
+
+        testClient.post().uri("/api/v1/reativo/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .bodyValue(createDto)
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody()
+                .jsonPath("status").isEqualTo("403")
+                .jsonPath("path").isEqualTo("/api/v1/reativo/estacionamentos/check-in")
+                .jsonPath("method").isEqualTo("POST");
+    }
+
+    @Test
+    public void criarCheckin_ComCpfInesistente_RetornarErroStatus404() {
+
+        EstacionamentoCreateDto createDto = EstacionamentoCreateDto.builder()
+                .placa("WER-1111").marca("FIAT").modelo("PALIO 1.0")
+                .cor("AZUL").clienteCpf("39076667802")
+                .build();
+
+        testClient.post().uri("/api/v1/reativo/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(createDto)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("status").isEqualTo("404")
+                .jsonPath("path").isEqualTo("/api/v1/reativo/estacionamentos/check-in")
+                .jsonPath("method").isEqualTo("POST");
+    }
+
+    @Test
+    public void criarCheckOut_ComReciboExistente_RetornarSucesso() {
+
+        testClient.put()
+                .uri("/api/v1/reativo/estacionamentos/check-out/{recibo}", "20230313-101300")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("placa").isEqualTo("FIT-1020")
+                .jsonPath("clienteCpf").isEqualTo("98401203015")
+                .jsonPath("vagaCodigo").isEqualTo("A-01")
+                .jsonPath("recibo").isEqualTo("20230313-101300")
+                .jsonPath("dataSaida").exists()
+                .jsonPath("valor").exists()
+                .jsonPath("desconto").exists();
+
+        testClient.get()
+                .uri("/api/v1/reativo/estacionamentos/ocupacao")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("ocupadas").isEqualTo(2)
+                .jsonPath("livres").isEqualTo(3);
+    }
+
+    @Test
+    public void buscarOcupacao_ComRoleCliente_RetornarVagasDoBanco() {
+
+        testClient.get()
+                .uri("/api/v1/reativo/estacionamentos/ocupacao")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("total").isEqualTo(5)
+                .jsonPath("ocupadas").isEqualTo(3)
+                .jsonPath("livres").isEqualTo(2);
+    }
+
+    @Test
+    public void sincronizarOcupacao_ComVagaLiberadaPorOutraInstancia_RetornarOcupacaoDoBanco() {
+        // Check-out feito por outra instância da aplicação: a vaga está livre no banco, mas não na ocupação desta
+        jdbcTemplate.update("update vagas set status = 'LIVRE' where codigo = 'A-01'");
+
+        ocupacaoService.sincronizar();
+
+        testClient.get()
+                .uri("/api/v1/reativo/estacionamentos/ocupacao")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("ocupadas").isEqualTo(2)
+                .jsonPath("livres").isEqualTo(3);
+    }
+
+    @Test
+    public void acompanharOcupacao_ComCheckin_ReceberOcupacaoAtualEAMudanca() {
+
+        Flux<OcupacaoResponseDto> fluxo = testClient.get()
+                .uri("/api/v1/reativo/estacionamentos/ocupacao/fluxo")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(OcupacaoResponseDto.class)
+                .getResponseBody();
+
+        EstacionamentoCreateDto createDto = EstacionamentoCreateDto.builder()
+                .placa("WER-1111").marca("FIAT").modelo("PALIO 1.0")
+                .cor("AZUL").clienteCpf("09191773016")
+                .build();
+
+        testClient.post().uri("/api/v1/reativo/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(createDto)
+                .exchange()
+                .expectStatus().isCreated();
+
+        List<OcupacaoResponseDto> eventos = fluxo.take(2).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(eventos).isNotNull().hasSize(2);
+        assertThat(eventos.get(0).getOcupadas()).isEqualTo(3);
+        assertThat(eventos.get(1).getOcupadas()).isEqualTo(4);
+        assertThat(eventos.get(1).getLivres()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,148 @@
+package com.walter.demopark;
+
+import com.walter.demopark.evento.AssinanteEventos;
+import com.walter.demopark.evento.EventoEstacionamento;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"demopark.eventos.habilitado=true", "demopark.eventos.intervalo=50", "demopark.eventos.pausa-erro=100ms"})
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class EventosOutboxIT {
+
+    /**
+     * Assinante de teste que guarda os eventos recebidos e pode falhar nas próximas entregas.
+     */
+    static class AssinanteTeste implements AssinanteEventos {
+
+        final List<EventoEstacionamento> recebidos = new CopyOnWriteArrayList<>();
+        final AtomicInteger falhasPendentes = new AtomicInteger();
+
+        @Override
+        public void receber(List<EventoEstacionamento> eventos) {
+            if (falhasPendentes.getAndUpdate(falhas -> Math.max(0, falhas - 1)) > 0) {
+                throw new IllegalStateException("Falha simulada do assinante");
+            }
+            recebidos.addAll(eventos);
+        }
+    }
+
+    @TestConfiguration
+    static class AssinanteConfig {
+
+        @Bean
+        AssinanteTeste assinanteTeste() {
+            return new AssinanteTeste();
+        }
+    }
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    AssinanteTeste assinante;
+
+    @BeforeEach
+    public void limparAssinante() {
+        assinante.recebidos.clear();
+        assinante.falhasPendentes.set(0);
+    }
+
+    @Test
+    public void checkInECheckOut_GravarNaOutbox_EntregarEventosERemoverDaOutbox() {
+        String recibo = checkIn();
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", recibo)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+
+        aguardar(() -> eventosDoRecibo(recibo).size() == 2);
+        List<EventoEstacionamento> eventos = eventosDoRecibo(recibo);
+        // A entrega não garante a ordem dos eventos
+        assertThat(eventos).extracting(EventoEstacionamento::tipo)
+                .containsExactlyInAnyOrder(EventoEstacionamento.Tipo.CHECK_IN, EventoEstacionamento.Tipo.CHECK_OUT);
+        assertThat(eventos).allSatisfy(evento -> assertThat(evento.cpf()).isEqualTo("09191773016"));
+        assertThat(eventos).filteredOn(evento -> evento.tipo() == EventoEstacionamento.Tipo.CHECK_OUT)
+                .singleElement().satisfies(evento -> assertThat(evento.valor()).isNotNull());
+
+        aguardar(() -> jdbcTemplate.queryForObject("select count(*) from eventos_outbox", Long.class) == 0);
+    }
+
+    @Test
+    public void assinanteComFalha_EntregarOMesmoLoteDeNovo_ManterNaOutboxAteProcessar() {
+        assinante.falhasPendentes.set(2);
+
+        String recibo = checkIn();
+
+        aguardar(() -> !eventosDoRecibo(recibo).isEmpty());
+        assertThat(assinante.falhasPendentes).hasValue(0);
+        assertThat(eventosDoRecibo(recibo)).hasSize(1);
+        aguardar(() -> jdbcTemplate.queryForObject("select count(*) from eventos_outbox", Long.class) == 0);
+    }
+
+    @Test
+    public void eventoReservadoPorOutraInstancia_EntregarSomenteAposAReservaVencer() {
+        String inserir = "insert into eventos_outbox (tipo, recibo, cpf, vaga, instante, reservado_ate) "
+                + "values ('CHECK_IN', ?, '09191773016', 'A-04', ?, ?)";
+        jdbcTemplate.update(inserir, "reservado", LocalDateTime.now(), LocalDateTime.now().plusHours(1));
+        jdbcTemplate.update(inserir, "vencido", LocalDateTime.now(), LocalDateTime.now().minusMinutes(1));
+
+        aguardar(() -> jdbcTemplate.queryForObject("select count(*) from eventos_outbox", Long.class) == 1);
+        assertThat(eventosDoRecibo("vencido")).hasSize(1);
+        assertThat(eventosDoRecibo("reservado")).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select recibo from eventos_outbox", String.class)).isEqualTo("reservado");
+    }
+
+    private String checkIn() {
+        return testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("WER-1111", "FIAT", "PALIO 1.0", "AZUL", "09191773016"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .returnResult()
+                .getResponseHeaders().getLocation().getPath().replaceAll(".*/", "");
+    }
+
+    private List<EventoEstacionamento> eventosDoRecibo(String recibo) {
+        return assinante.recebidos.stream().filter(evento -> evento.recibo().equals(recibo)).toList();
+    }
+
+    private static void aguardar(BooleanSupplier condicao) {
+        long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condicao.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Condição não atendida em 10 segundos").isLessThan(limite);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.walter.demopark;
+
+import com.walter.demopark.service.IndicePlacasService;
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+// Um acerto no índice não consulta o banco de dados; uma ausência faz uma consulta por placa_ativa, além da do filtro
+// de autenticação
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/estacionamentos/placa/*", maximo = 2)
+public class IndicePlacasIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Autowired
+    IndicePlacasService indicePlacasService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void buscarPorPlaca_ComPlacaNaoNormalizada_RetornarEstacionamentoEmAberto() {
+        testClient.get()
+                .uri("/api/v1/estacionamentos/placa/{placa}", "fit 1020")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("placa").isEqualTo("FIT-1020")
+                .jsonPath("recibo").isEqualTo("20230313-101300")
+                .jsonPath("clienteCpf").isEqualTo("98401203015")
+                .jsonPath("vagaCodigo").isEqualTo("A-01");
+    }
+
+    @Test
+    public void buscarPorPlaca_ComCheckInForaDoIndice_RetornarEstacionamentoDoBanco() {
+        // Estacionamento aberto por outra instância da aplicação: está no banco, mas não no índice desta
+        jdbcTemplate.update("insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga) "
+                + "values (400, '20230316-101600', 'OUT-0001', 'FIAT', 'UNO', 'PRATA', '2023-03-16 10:16:00', 21, 400)");
+
+        testClient.get()
+                .uri("/api/v1/estacionamentos/placa/{placa}", "out0001")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("placa").isEqualTo("OUT-0001")
+                .jsonPath("recibo").isEqualTo("20230316-101600")
+                .jsonPath("clienteCpf").isEqualTo("09191773016")
+                .jsonPath("vagaCodigo").isEqualTo("A-04");
+
+        assertThat(ConsultasSql.ultima("GET", "/api/v1/estacionamentos/placa/out0001").comandosExcetoAutenticacao())
+                .singleElement().asString().contains("placa_ativa");
+    }
+
+    @Test
+    public void checkInECheckOut_AtualizarIndice_EncontrarSomenteEnquantoEmAberto() {
+        String recibo = testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("WER-1111", "FIAT", "PALIO 1.0", "AZUL", "09191773016"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .returnResult()
+                .getResponseHeaders().getLocation().getPath().replaceAll(".*/", "");
+
+        assertThat(indicePlacasService.buscar("WER1111")).hasValueSatisfying(ativo -> assertThat(ativo.recibo()).isEqualTo(recibo));
+
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", recibo)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+
+        testClient.get()
+                .uri("/api/v1/estacionamentos/placa/{placa}", "WER-1111")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void checkIn_ComPlacaEmAberto_RetornarErroStatus409ConfirmandoNoBanco() {
+        testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("FIT-1020", "FIAT", "PALIO", "VERDE", "98401203015"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("message").isEqualTo("O veículo de placa FIT-1020 já está estacionado");
+
+        // Uma única consulta, à coluna placa_ativa, confirma o que o índice em memória indica
+        assertThat(ConsultasSql.ultima("POST", "/api/v1/estacionamentos/check-in").comandosExcetoAutenticacao())
+                .singleElement().asString().contains("placa_ativa");
+    }
+
+    @Test
+    public void checkIn_ComPlacaEncerradaForaDoIndice_RetornarStatus201() {
+        // Check-out feito por outra instância da aplicação: encerrado no banco, mas ainda em aberto no índice desta
+        jdbcTemplate.update("update clientes_tem_vagas set data_saida = '2023-03-13 12:00:00' where numero_recibo = '20230313-101300'");
+
+        testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("FIT-1020", "FIAT", "PALIO", "VERDE", "98401203015"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        assertThat(indicePlacasService.buscar("FIT-1020"))
+                .hasValueSatisfying(ativo -> assertThat(ativo.recibo()).isNotEqualTo("20230313-101300"));
+    }
+
+    @Test
+    public void checkIn_ComPlacaEmAbertoForaDoIndice_RetornarErroStatus409PeloIndiceUnico() {
+        // Estacionamento aberto por outra instância da aplicação: está no banco, mas não no índice desta
+        jdbcTemplate.update("insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga) "
+                + "values (400, '20230316-101600', 'DUP-0001', 'FIAT', 'UNO', 'PRATA', '2023-03-16 10:16:00', 21, 400)");
+
+        testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("DUP-0001", "FIAT", "UNO", "PRATA", "09191773016"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from clientes_tem_vagas where placa = 'DUP-0001'", Long.class))
+                .isEqualTo(1);
+        assertThat(indicePlacasService.buscar("DUP-0001")).isEmpty();
+    }
+
+    @Test
+    public void checkIn_ComPlacaDeEstacionamentoEncerrado_RetornarStatus201() {
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", "20230313-101300")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+
+        testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("FIT-1020", "FIAT", "PALIO", "VERDE", "98401203015"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from clientes_tem_vagas where placa = 'FIT-1020'", Long.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void buscarPorPlaca_ComRoleCliente_RetornarErroStatus403() {
+        testClient.get()
+                .uri("/api/v1/estacionamentos/placa/{placa}", "FIT-1020")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void buscar_MilhoesDeConsultas_MenosDe100MicrossegundosPorBusca() {
+        int consultas = 1_000_000;
+        String[] placas = {"FIT-1020", "sie-1020", "FIT 1030", "XYZ-9999"};
+        // Aquecimento do JIT
+        for (int i = 0; i < consultas; i++) {
+            indicePlacasService.buscar(placas[i & 3]);
+        }
+
+        long inicio = System.nanoTime();
+        int encontrados = 0;
+        for (int i = 0; i < consultas; i++) {
+            if (indicePlacasService.buscar(placas[i & 3]).isPresent()) {
+                encontrados++;
+            }
+        }
+        long nanosPorBusca = (System.nanoTime() - inicio) / consultas;
+
+        assertThat(encontrados).isEqualTo(consultas / 4 * 3);
+        assertThat(nanosPorBusca).isLessThan(100_000);
+    }
+}
@@ -0,0 +1,108 @@
+package com.walter.demopark;
+
+import com.walter.demopark.entity.Cliente;
+import com.walter.demopark.entity.ClienteVaga;
+import com.walter.demopark.entity.Vaga;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark simples que compara a inserção de 10 mil estacionamentos sem lotes JDBC, com um INSERT por ida ao
+ * banco de dados como acontecia com GenerationType.IDENTITY, e com lotes, possíveis com os ids gerados em blocos
+ * pela tabela sequencias. Os dois cenários usam o mesmo mapeamento, variando apenas o tamanho do lote da sessão.
+ *
+ * Execução: ./mvnw test -Dtest=InsercaoEmLoteBenchmark
+ */
+@SpringBootTest
+public class InsercaoEmLoteBenchmark {
+
+    private static final int ESTACIONAMENTOS = 10_000;
+    private static final int TAMANHO_LOTE = 50;
+
+    // Ids altos para não colidir com os ids gerados pela tabela sequencias durante o benchmark.
+    private static final long ID = 900_001L;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void inserirClienteEVaga() {
+        jdbcTemplate.update("insert into usuarios (id, username, password, role) values (?, 'benchmark@email.com.br', '123456', 'ROLE_CLIENTE')", ID);
+        jdbcTemplate.update("insert into clientes (id, nome, cpf, id_usuario) values (?, 'Benchmark', '00000000191', ?)", ID, ID);
+        jdbcTemplate.update("insert into vagas (id, codigo, status) values (?, 'Z-99', 'OCUPADA')", ID);
+    }
+
+    @AfterEach
+    public void removerDados() {
+        jdbcTemplate.update("delete from clientes_tem_vagas where id_cliente = ?", ID);
+        jdbcTemplate.update("delete from clientes where id = ?", ID);
+        jdbcTemplate.update("delete from vagas where id = ?", ID);
+        jdbcTemplate.update("delete from usuarios where id = ?", ID);
+    }
+
+    @Test
+    public void inserirEstacionamentos_SemLoteEComLote_ImprimirTempo() {
+        // Aquecimento da JVM e do pool de conexões
+        inserir("W", 1, 1_000);
+        inserir("X", TAMANHO_LOTE, 1_000);
+
+        long semLote = inserir("A", 1, ESTACIONAMENTOS);
+        long comLote = inserir("B", TAMANHO_LOTE, ESTACIONAMENTOS);
+
+        System.out.printf("%-10s %10s %14s%n", "lote", "tempo(ms)", "insercoes/s");
+        System.out.printf("%-10d %10d %14d%n", 1, semLote, ESTACIONAMENTOS * 1000L / Math.max(semLote, 1));
+        System.out.printf("%-10d %10d %14d%n", TAMANHO_LOTE, comLote, ESTACIONAMENTOS * 1000L / Math.max(comLote, 1));
+
+        Long total = jdbcTemplate.queryForObject("select count(*) from clientes_tem_vagas where id_cliente = ?", Long.class, ID);
+        assertThat(total).isEqualTo(2L * ESTACIONAMENTOS + 2_000L);
+    }
+
+    /**
+     * Insere os estacionamentos em uma única transação, limpando o contexto de persistência a cada lote
+     * para que o tempo medido seja o das inserções, e não o do crescimento do contexto.
+     *
+     * @return O tempo total em milissegundos.
+     */
+    private long inserir(String prefixo, int tamanhoLote, int quantidade) {
+        long inicio = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoLote);
+            Cliente cliente = entityManager.getReference(Cliente.class, ID);
+            Vaga vaga = entityManager.getReference(Vaga.class, ID);
+            for (int i = 0; i < quantidade; i++) {
+                ClienteVaga clienteVaga = new ClienteVaga();
+                clienteVaga.setRecibo(prefixo + "-" + i);
+                clienteVaga.setPlaca(prefixo + String.format("%07d", i));
+                clienteVaga.setMarca("FIAT");
+                clienteVaga.setModelo("PALIO");
+                clienteVaga.setCor("VERDE");
+                clienteVaga.setDataEntrada(LocalDateTime.now());
+                clienteVaga.setCliente(cliente);
+                clienteVaga.setVaga(vaga);
+                entityManager.persist(clienteVaga);
+                if ((i + 1) % TAMANHO_LOTE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        return (System.nanoTime() - inicio) / 1_000_000;
+    }
+}
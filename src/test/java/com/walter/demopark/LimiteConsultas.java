@@ -0,0 +1,39 @@
+package com.walter.demopark;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declara o número máximo de comandos SQL que uma requisição a um endpoint pode executar, incluindo a consulta
+ * do filtro de autenticação. Pode ser usada na classe de teste, valendo para todos os testes, ou em um método.
+ * A VerificacaoConsultasExtension falha o teste quando alguma requisição ao endpoint passa do limite.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(LimiteConsultas.Lista.class)
+public @interface LimiteConsultas {
+
+    /**
+     * O método HTTP da requisição.
+     */
+    String metodo();
+
+    /**
+     * O caminho da requisição, sem a query string. Aceita padrões do AntPathMatcher, como "/api/v1/vagas/*".
+     */
+    String caminho();
+
+    /**
+     * O número máximo de comandos SQL da requisição.
+     */
+    int maximo();
+
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Lista {
+        LimiteConsultas[] value();
+    }
+}
@@ -0,0 +1,149 @@
+package com.walter.demopark;
+
+import com.walter.demopark.entity.Vaga;
+import com.walter.demopark.repository.ClienteRepository;
+import com.walter.demopark.repository.ClienteVagaArquivoRepository;
+import com.walter.demopark.repository.ClienteVagaExportacaoRepository;
+import com.walter.demopark.repository.ClienteVagaHistoricoRepository;
+import com.walter.demopark.repository.ClienteVagaRepository;
+import com.walter.demopark.repository.UsuarioRepository;
+import com.walter.demopark.repository.VagaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica, com EXPLAIN no H2, que cada consulta dos repositórios é atendida por um índice criado pelas migrações,
+ * sem varredura completa de tabela. Cada caso chama o método real do repositório e o SQL analisado é o que ele
+ * executou, capturado pelo proxy do DataSource (ConsultasSql.capturar), com os mesmos valores de parâmetros.
+ * As consultas de histórico unem clientes_tem_vagas e clientes_tem_vagas_arquivo, e o plano de cada uma inclui
+ * os dois lados do union. O cache de segundo nível é esvaziado antes de cada caso, para que as buscas por chave
+ * natural cheguem ao banco. Ao incluir uma consulta nova em um repositório, inclua também um caso aqui.
+ */
+@SpringBootTest
+public class PlanoExecucaoIT {
+
+    private static final String CPF = "98401203015";
+    private static final LocalDateTime INICIO = LocalDateTime.of(2023, 3, 13, 0, 0);
+    private static final LocalDateTime FIM = LocalDateTime.of(2023, 3, 16, 0, 0);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ClienteVagaRepository clienteVagaRepository;
+
+    @Autowired
+    VagaRepository vagaRepository;
+
+    @Autowired
+    ClienteRepository clienteRepository;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    ClienteVagaArquivoRepository clienteVagaArquivoRepository;
+
+    @Autowired
+    ClienteVagaHistoricoRepository clienteVagaHistoricoRepository;
+
+    @Autowired
+    ClienteVagaExportacaoRepository clienteVagaExportacaoRepository;
+
+    static Stream<Arguments> consultas() {
+        return Stream.of(
+                consulta("ClienteVagaRepository.findByReciboAndDataSaidaIsNull",
+                        it -> it.clienteVagaRepository.findByReciboAndDataSaidaIsNull("20230313-101300")),
+                consulta("ClienteVagaRepository.contarAbertosPorPlaca",
+                        it -> it.clienteVagaRepository.contarAbertosPorPlaca("FIT-1020")),
+                consulta("ClienteVagaRepository.buscarAbertoPorPlaca",
+                        it -> it.clienteVagaRepository.buscarAbertoPorPlaca("FIT-1020")),
+                consulta("ClienteVagaRepository.buscarAbertoPorRecibo",
+                        it -> it.clienteVagaRepository.buscarAbertoPorRecibo("20230313-101300")),
+                consulta("VagaRepository.findBySimpleNaturalId",
+                        it -> it.vagaRepository.findBySimpleNaturalId("A-01")),
+                consulta("VagaRepository.findFirstByStatus",
+                        it -> it.vagaRepository.findFirstByStatus(Vaga.StatusVaga.LIVRE)),
+                consulta("ClienteRepository.findBySimpleNaturalId",
+                        it -> it.clienteRepository.findBySimpleNaturalId(CPF)),
+                consulta("ClienteRepository.buscarPorClienteId",
+                        it -> it.clienteRepository.buscarPorClienteId(102L)),
+                consulta("UsuarioRepository.findBySimpleNaturalId",
+                        it -> it.usuarioRepository.findBySimpleNaturalId("ana@email.com.br")),
+                consulta("UsuarioRepository.findRoleByUsername",
+                        it -> it.usuarioRepository.findRoleByUsername("ana@email.com.br")),
+                consulta("ClienteVagaArquivoRepository.reservarIdsEncerradosAntesDe",
+                        it -> it.clienteVagaArquivoRepository.reservarIdsEncerradosAntesDe(FIM)),
+                consulta("ClienteVagaHistoricoRepository.countByClienteCpfAndDataSaidaIsNotNull",
+                        it -> it.clienteVagaHistoricoRepository.countByClienteCpfAndDataSaidaIsNotNull(CPF)),
+                consulta("ClienteVagaHistoricoRepository.findAllByClienteCpf",
+                        it -> it.clienteVagaHistoricoRepository.findAllByClienteCpf(CPF,
+                                PageRequest.of(0, 5, Sort.by("dataEntrada")))),
+                consulta("ClienteVagaHistoricoRepository.findAllByClienteUsuarioId",
+                        it -> it.clienteVagaHistoricoRepository.findAllByClienteUsuarioId(102L,
+                                PageRequest.of(0, 5, Sort.by("dataEntrada")))),
+                consulta("ClienteVagaHistoricoRepository.buscarVersaoHistorico",
+                        it -> it.clienteVagaHistoricoRepository.buscarVersaoHistorico(CPF)),
+                consulta("ClienteVagaHistoricoRepository.buscarLoteRelatorio",
+                        it -> it.clienteVagaHistoricoRepository.buscarLoteRelatorio(CPF, "FIT-1020", 1L, 500)),
+                consulta("ClienteVagaHistoricoRepository.somarPorPeriodo",
+                        it -> it.clienteVagaHistoricoRepository.somarPorPeriodo(INICIO, FIM, FIM)),
+                consulta("ClienteVagaHistoricoRepository.percorrerEncerradosPorPeriodo",
+                        it -> it.clienteVagaHistoricoRepository.percorrerEncerradosPorPeriodo(INICIO, FIM, rs -> null)),
+                consulta("ClienteVagaExportacaoRepository.percorrer (cpf)",
+                        it -> it.clienteVagaExportacaoRepository.percorrer(
+                                new ClienteVagaExportacaoRepository.Filtro(CPF, null, null, null), rs -> { })),
+                consulta("ClienteVagaExportacaoRepository.percorrer (vaga)",
+                        it -> it.clienteVagaExportacaoRepository.percorrer(
+                                new ClienteVagaExportacaoRepository.Filtro(null, null, null, "A-02"), rs -> { })),
+                consulta("ClienteVagaExportacaoRepository.percorrer (período)",
+                        it -> it.clienteVagaExportacaoRepository.percorrer(new ClienteVagaExportacaoRepository.Filtro(
+                                null, LocalDate.of(2023, 3, 13), LocalDate.of(2023, 3, 15), null), rs -> { }))
+        );
+    }
+
+    static Arguments consulta(String nome, Consumer<PlanoExecucaoIT> execucao) {
+        return Arguments.of(nome, execucao);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("consultas")
+    public void consultaDoRepositorio_ComIndices_NaoFazerVarreduraCompleta(String consulta,
+                                                                           Consumer<PlanoExecucaoIT> execucao) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        List<ConsultasSql.Comando> selects = ConsultasSql.capturar(() -> execucao.accept(this)).stream()
+                .filter(comando -> comando.sql().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+
+        assertThat(selects).as("Nenhuma consulta executada por %s", consulta).isNotEmpty();
+        for (ConsultasSql.Comando select : selects) {
+            String plano = String.join(System.lineSeparator(), jdbcTemplate.queryForList(
+                    "explain " + select.sql(), String.class, select.parametros().toArray()));
+
+            assertThat(plano)
+                    .as("Plano de %s:%n%s", consulta, plano)
+                    .doesNotContainIgnoringCase("tableScan");
+        }
+    }
+}
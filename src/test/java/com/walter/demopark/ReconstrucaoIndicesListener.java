@@ -0,0 +1,36 @@
+package com.walter.demopark;
+
+import com.walter.demopark.service.IndiceClientesService;
+import com.walter.demopark.service.IndicePlacasService;
+import com.walter.demopark.service.OcupacaoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.jdbc.SqlScriptsTestExecutionListener;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * Listener, registrado para todos os testes em META-INF/spring.factories, que esvazia o cache de segundo nível e
+ * reconstrói os índices em memória (placas em aberto, busca de clientes e ocupação) antes de cada teste, depois dos
+ * scripts @Sql. Os contextos em cache são compartilhados entre os testes e os scripts gravam e removem registros
+ * direto via JDBC, sem passar pelo Hibernate; sem isso, o cache e os índices manteriam os dados de testes anteriores
+ * e não teriam os dos scripts, como se a aplicação tivesse acabado de iniciar.
+ */
+public class ReconstrucaoIndicesListener extends AbstractTestExecutionListener {
+
+    @Override
+    public int getOrder() {
+        return new SqlScriptsTestExecutionListener().getOrder() + 1;
+    }
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        if (testContext.hasApplicationContext()) {
+            ApplicationContext context = testContext.getApplicationContext();
+            context.getBeanProvider(EntityManagerFactory.class).ifAvailable(factory -> factory.getCache().evictAll());
+            context.getBeanProvider(IndicePlacasService.class).ifAvailable(IndicePlacasService::reconstruir);
+            context.getBeanProvider(IndiceClientesService.class).ifAvailable(IndiceClientesService::reconstruir);
+            context.getBeanProvider(OcupacaoService.class).ifAvailable(OcupacaoService::reconstruir);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.walter.demopark;
+
+import com.walter.demopark.config.MonitorReplicas;
+import com.walter.demopark.config.RoteamentoDataSource;
+import com.walter.demopark.entity.Vaga;
+import com.walter.demopark.exception.EntityNotFoundException;
+import com.walter.demopark.service.VagaService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica o roteamento das transações somente leitura com dois bancos H2: o primário criado pelo Spring Boot
+ * e uma réplica em memória, criada pelas mesmas migrações. Não há replicação entre eles, então a vaga R-01,
+ * inserida apenas na réplica, só é encontrada quando a leitura vai para a réplica. O heartbeat da réplica é
+ * atualizado pelo próprio teste para simular uma réplica em dia ou atrasada. As buscas de entidades, que alimentam
+ * o cache de segundo nível, são rotuladas para ler do primário mesmo com a réplica em dia.
+ */
+@SpringBootTest(properties = {
+        "demopark.datasource.replicas.habilitado=true",
+        "demopark.datasource.replicas.urls=" + ReplicaLeituraIT.URL_REPLICA,
+        "demopark.datasource.replicas.username=sa",
+        "demopark.datasource.replicas.password=",
+        "demopark.datasource.replicas.atraso-maximo=1m",
+        // Apenas a verificação da inicialização; as demais são feitas pelos testes
+        "demopark.datasource.replicas.intervalo-verificacao=3600000"
+})
+public class ReplicaLeituraIT {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    VagaService vagaService;
+
+    @Autowired
+    MonitorReplicas monitorReplicas;
+
+    @Autowired
+    RoteamentoDataSource roteamentoDataSource;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void criarReplica() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL_REPLICA, "sa", "");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        replica = new JdbcTemplate(dataSource);
+        replica.update("insert into vagas (id, codigo, status) values (9001, 'R-01', 'LIVRE')");
+    }
+
+    @AfterEach
+    public void limparReplica() {
+        replica.update("delete from vagas where id = 9001");
+        replica.update("update replicacao_heartbeat set instante = 0 where id = 1");
+        new JdbcTemplate(roteamentoDataSource.getPrimario()).update("delete from vagas where codigo = 'R-02'");
+    }
+
+    @Test
+    public void lerSomenteLeitura_ComReplicaEmDia_LerDaReplica() {
+        replica.update("update replicacao_heartbeat set instante = ? where id = 1", System.currentTimeMillis());
+        monitorReplicas.verificar();
+
+        assertThat(contarVagaDaReplica()).isEqualTo(1);
+    }
+
+    @Test
+    public void lerSomenteLeitura_ComReplicaAtrasada_LerDoPrimario() {
+        // O heartbeat da réplica continua com o valor inicial da migração
+        monitorReplicas.verificar();
+
+        assertThat(contarVagaDaReplica()).isZero();
+    }
+
+    @Test
+    public void buscarVagaPorCodigo_ComReplicaEmDia_LerDoPrimarioParaNaoAlimentarOCacheComAReplica() {
+        replica.update("update replicacao_heartbeat set instante = ? where id = 1", System.currentTimeMillis());
+        monitorReplicas.verificar();
+
+        assertThatThrownBy(() -> vagaService.findByCodigo("R-01")).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    /**
+     * Conta a vaga R-01, que só existe na réplica, em uma transação somente leitura sem rótulo.
+     */
+    private Integer contarVagaDaReplica() {
+        TransactionTemplate somenteLeitura = new TransactionTemplate(transactionManager);
+        somenteLeitura.setReadOnly(true);
+        return somenteLeitura.execute(status -> new JdbcTemplate(dataSource)
+                .queryForObject("select count(*) from vagas where codigo = 'R-01'", Integer.class));
+    }
+
+    @Test
+    public void salvarVaga_ComReplicaEmDia_GravarNoPrimario() {
+        replica.update("update replicacao_heartbeat set instante = ? where id = 1", System.currentTimeMillis());
+        monitorReplicas.verificar();
+
+        Vaga vaga = new Vaga();
+        vaga.setCodigo("R-02");
+        vaga.setStatus(Vaga.StatusVaga.LIVRE);
+        vagaService.save(vaga);
+
+        JdbcTemplate primario = new JdbcTemplate(roteamentoDataSource.getPrimario());
+        assertThat(primario.queryForObject("select count(*) from vagas where codigo = 'R-02'", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from vagas where codigo = 'R-02'", Integer.class)).isZero();
+    }
+}
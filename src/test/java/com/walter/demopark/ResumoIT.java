@@ -0,0 +1,124 @@
+package com.walter.demopark;
+
+import com.walter.demopark.web.dto.estacionamento.EstacionamentoCreateDto;
+import com.walter.demopark.web.dto.resumo.ResumoResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+// O resumo é lido da tabela resumos_horarios com uma única consulta, mais a do filtro de autenticação
+@LimiteConsultas(metodo = "GET", caminho = "/api/v1/resumos", maximo = 2)
+public class ResumoIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void checkInECheckOut_SomarAoResumoDoDia_RetornarTotais() {
+        testClient.post()
+                .uri("/api/v1/estacionamentos/check-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .bodyValue(new EstacionamentoCreateDto("WER-1111", "FIAT", "PALIO 1.0", "AZUL", "09191773016"))
+                .exchange()
+                .expectStatus().isCreated();
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", "20230313-101300")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+
+        List<ResumoResponseDto> resumos = resumo(LocalDate.now(), LocalDate.now(), "DIA");
+
+        assertThat(resumos).hasSize(1);
+        ResumoResponseDto hoje = resumos.get(0);
+        assertThat(hoje.getData()).isEqualTo(LocalDate.now());
+        assertThat(hoje.getHora()).isNull();
+        assertThat(hoje.getCheckIns()).isEqualTo(1);
+        assertThat(hoje.getCheckOuts()).isEqualTo(1);
+        assertThat(hoje.getReceita()).isPositive();
+        assertThat(hoje.getDuracaoMediaMinutos()).isPositive();
+    }
+
+    @Test
+    public void recalcular_ComHistoricoSemResumo_GravarCheckInsPorHora() {
+        testClient.post()
+                .uri("/api/v1/resumos/recalculo?inicio=2023-03-13&fim=2023-03-14")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        List<ResumoResponseDto> resumos = resumo(LocalDate.of(2023, 3, 13), LocalDate.of(2023, 3, 14), "HORA");
+
+        assertThat(resumos).extracting(ResumoResponseDto::getData, ResumoResponseDto::getHora, ResumoResponseDto::getCheckIns)
+                .containsExactly(
+                        tuple(LocalDate.of(2023, 3, 13), 10, 1L),
+                        tuple(LocalDate.of(2023, 3, 14), 10, 2L));
+        assertThat(resumos).allSatisfy(resumo -> assertThat(resumo.getDuracaoMediaMinutos()).isNull());
+    }
+
+    @Test
+    public void recalcular_AposIncrementos_ManterOsMesmosTotais() {
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", "20230314-101400")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+        List<ResumoResponseDto> incrementais = resumo(LocalDate.now(), LocalDate.now(), "HORA");
+
+        jdbcTemplate.update("update resumos_horarios set check_outs = 0, receita = 0");
+        testClient.post()
+                .uri("/api/v1/resumos/recalculo?inicio={dia}&fim={dia}", LocalDate.now(), LocalDate.now())
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        assertThat(resumo(LocalDate.now(), LocalDate.now(), "HORA"))
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(incrementais);
+    }
+
+    @Test
+    public void buscarResumo_ComFimAntesDoInicio_RetornarErroStatus400() {
+        testClient.get()
+                .uri("/api/v1/resumos?inicio=2023-03-14&fim=2023-03-13")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void buscarResumo_ComRoleCliente_RetornarErroStatus403() {
+        testClient.get()
+                .uri("/api/v1/resumos?inicio=2023-03-13&fim=2023-03-14")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "bia@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private List<ResumoResponseDto> resumo(LocalDate inicio, LocalDate fim, String agrupamento) {
+        return testClient.get()
+                .uri("/api/v1/resumos?inicio={inicio}&fim={fim}&agrupamento={agrupamento}", inicio, fim, agrupamento)
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ResumoResponseDto.class)
+                .returnResult().getResponseBody();
+    }
+}
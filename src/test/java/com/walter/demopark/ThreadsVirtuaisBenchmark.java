@@ -0,0 +1,151 @@
+package com.walter.demopark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de carga simples que compara a vazão da API com as requisições em threads de plataforma do Tomcat e no
+ * perfil virtual (threads virtuais). Cada modo sobe uma instância da aplicação com o banco H2 dos testes, e um
+ * atraso fixo é somado a cada comando SQL para simular a ida e volta a um banco real. O Tomcat tem poucas threads
+ * e o pool de conexões é maior que elas: com threads de plataforma o limite é o número de threads; com threads
+ * virtuais, o pool de conexões. Os clientes simultâneos buscam uma vaga por código, com o token de um ADMIN.
+ * A vazão depende da máquina, então o teste apenas imprime os números, sem compará-los.
+ *
+ * Execução: ./mvnw test -Dtest=ThreadsVirtuaisBenchmark
+ */
+public class ThreadsVirtuaisBenchmark {
+
+    private static final int THREADS_TOMCAT = 20;
+    private static final int POOL_CONEXOES = 100;
+    private static final int CLIENTES = 200;
+    private static final Duration LATENCIA_SQL = Duration.ofMillis(10);
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(3);
+    private static final Duration DURACAO = Duration.ofSeconds(10);
+
+    // O atraso só vale durante a carga, não nas migrações e na preparação dos dados
+    private static volatile boolean latenciaAtiva;
+
+    @Test
+    public void compararVazao_ThreadsDePlataformaEVirtuais_ImprimirRequisicoesPorSegundo() throws Exception {
+        double plataforma = medir(false);
+        double virtuais = medir(true);
+
+        System.out.printf("%-12s %12s%n", "modo", "req/s");
+        System.out.printf("%-12s %12.0f%n", "plataforma", plataforma);
+        System.out.printf("%-12s %12.0f%n", "virtual", virtuais);
+        System.out.printf("%-12s %12.2f%n", "virtual/plat", virtuais / plataforma);
+    }
+
+    private double medir(boolean virtual) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoParkApiApplication.class)
+                .initializers(contexto -> contexto.getBeanFactory().addBeanPostProcessor(latenciaNoBanco()));
+        if (virtual) {
+            builder.profiles("virtual");
+        }
+        try (ConfigurableApplicationContext contexto = builder.run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + THREADS_TOMCAT,
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_CONEXOES,
+                "--spring.jpa.show-sql=false")) {
+            new ResourceDatabasePopulator(new ClassPathResource("sql/database/vagas-insert.sql"))
+                    .execute(contexto.getBean("dataSource", DataSource.class));
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+
+            HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            String token = token(http, base);
+
+            latenciaAtiva = true;
+            try {
+                carga(http, base, token, AQUECIMENTO);
+                long requisicoes = carga(http, base, token, DURACAO);
+                return requisicoes / (double) DURACAO.toSeconds();
+            } finally {
+                latenciaAtiva = false;
+            }
+        }
+    }
+
+    /**
+     * Dispara os clientes simultâneos, cada um em uma thread virtual, até o fim da duração.
+     *
+     * @return O número de respostas 200 recebidas.
+     */
+    private static long carga(HttpClient http, String base, String token, Duration duracao) throws InterruptedException {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(base + "/api/v1/vagas/A-01"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        LongAdder sucessos = new LongAdder();
+        LongAdder falhas = new LongAdder();
+        long fim = System.nanoTime() + duracao.toNanos();
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTES; i++) {
+                clientes.execute(() -> {
+                    while (System.nanoTime() < fim) {
+                        try {
+                            int status = http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            (status == 200 ? sucessos : falhas).increment();
+                        } catch (Exception ex) {
+                            falhas.increment();
+                        }
+                    }
+                });
+            }
+        }
+        assertThat(falhas.sum()).isZero();
+        return sucessos.sum();
+    }
+
+    private static String token(HttpClient http, String base) throws Exception {
+        HttpRequest login = HttpRequest.newBuilder(URI.create(base + "/api/v1/auth"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"ana@email.com\",\"password\":\"123456\"}"))
+                .build();
+        HttpResponse<String> resposta = http.send(login, HttpResponse.BodyHandlers.ofString());
+        assertThat(resposta.statusCode()).isEqualTo(200);
+        return new ObjectMapper().readTree(resposta.body()).get("token").asText();
+    }
+
+    /**
+     * Envolve o DataSource da aplicação em um proxy que espera LATENCIA_SQL antes de cada comando.
+     */
+    private static BeanPostProcessor latenciaNoBanco() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .beforeQuery((execInfo, queryInfoList) -> {
+                                if (latenciaAtiva) {
+                                    try {
+                                        Thread.sleep(LATENCIA_SQL);
+                                    } catch (InterruptedException ex) {
+                                        Thread.currentThread().interrupt();
+                                    }
+                                }
+                            })
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -92,6 +92,27 @@ public class VagaIT {
 
     }
 
+    @Test
+    public void buscarVaga_ComEtagAtual_RetornarStatus304() {
+        String etag = testClient
+                .get()
+                .uri("/api/v1/vagas/{codigo}", "A-01")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        testClient
+                .get()
+                .uri("/api/v1/vagas/{codigo}", "A-01")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com", "123456"))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
     @Test
     public void buscarVaga_ComCodigoInexistente_RetornarErrorMessageComStatus404() {
         testClient
@@ -0,0 +1,60 @@
+package com.walter.demopark;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extensão do JUnit, registrada para todos os testes em META-INF/services, que verifica os comandos SQL de cada
+ * requisição registrada pelo ConsultasSql durante o teste. O teste falha quando uma requisição passa do limite
+ * declarado com @LimiteConsultas para o seu endpoint, ou quando a mesma consulta é executada mais de
+ * MAXIMO_REPETICOES vezes em uma requisição, o padrão de um N+1.
+ */
+public class VerificacaoConsultasExtension implements BeforeEachCallback, AfterEachCallback {
+
+    /**
+     * Número de vezes que a mesma consulta pode ser executada em uma requisição.
+     */
+    static final int MAXIMO_REPETICOES = 2;
+
+    private static final AntPathMatcher CAMINHOS = new AntPathMatcher();
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        ConsultasSql.limpar();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        List<LimiteConsultas> limites = new ArrayList<>(
+                AnnotationSupport.findRepeatableAnnotations(context.getRequiredTestClass(), LimiteConsultas.class));
+        limites.addAll(AnnotationSupport.findRepeatableAnnotations(context.getRequiredTestMethod(), LimiteConsultas.class));
+
+        List<String> falhas = new ArrayList<>();
+        for (ConsultasSql.Requisicao requisicao : ConsultasSql.requisicoes()) {
+            int total = requisicao.comandos().size();
+            for (LimiteConsultas limite : limites) {
+                if (limite.metodo().equalsIgnoreCase(requisicao.metodo())
+                        && CAMINHOS.match(limite.caminho(), requisicao.caminho())
+                        && total > limite.maximo()) {
+                    falhas.add(String.format("%s executou %d comandos SQL, o limite é %d:%n  %s",
+                            requisicao.endpoint(), total, limite.maximo(), String.join("\n  ", requisicao.comandos())));
+                }
+            }
+            for (Map.Entry<String, Long> repetida : requisicao.consultasRepetidas(MAXIMO_REPETICOES).entrySet()) {
+                falhas.add(String.format("%s executou %d vezes a mesma consulta, possível N+1:%n  %s",
+                        requisicao.endpoint(), repetida.getValue(), repetida.getKey()));
+            }
+        }
+        ConsultasSql.limpar();
+        if (!falhas.isEmpty()) {
+            throw new AssertionError(String.join("\n", falhas));
+        }
+    }
+}
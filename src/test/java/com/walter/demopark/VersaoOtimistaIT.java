@@ -0,0 +1,91 @@
+package com.walter.demopark;
+
+import com.walter.demopark.entity.Vaga;
+import com.walter.demopark.service.RetentativaService;
+import com.walter.demopark.service.VagaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = "/sql/database/estacionamentos-insert.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/database/estacionamentos-delete.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class VersaoOtimistaIT {
+
+    @Autowired
+    WebTestClient testClient;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    VagaService vagaService;
+
+    @Autowired
+    RetentativaService retentativaService;
+
+    @Test
+    public void checkOut_ComVersaoAtual_IncrementarVersaoDoEstacionamentoEDaVaga() {
+        testClient.put()
+                .uri("/api/v1/estacionamentos/check-out/{recibo}", "20230313-101300")
+                .headers(JwtAuthentication.getHeaderAuthorization(testClient, "ana@email.com.br", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select versao from clientes_tem_vagas where numero_recibo = '20230313-101300'", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select versao from vagas where codigo = 'A-01'", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void salvarVaga_ComVersaoDesatualizada_LancarConflitoSemSobrescrever() {
+        Vaga vaga = vagaService.findByCodigo("A-04");
+        // Alteração concorrente, gravada pelo JPA depois da leitura; um update via JDBC não passaria pelo cache
+        // de segundo nível, de onde o merge lê a versão atual (ver VagaService.save)
+        Vaga concorrente = vagaService.findByCodigo("A-04");
+        concorrente.setStatus(Vaga.StatusVaga.OCUPADA);
+        vagaService.save(concorrente);
+
+        vaga.setStatus(Vaga.StatusVaga.LIVRE);
+
+        assertThatThrownBy(() -> vagaService.save(vaga)).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(jdbcTemplate.queryForObject("select status from vagas where codigo = 'A-04'", String.class))
+                .isEqualTo("OCUPADA");
+    }
+
+    @Test
+    public void executar_ComConflitoNaPrimeiraTentativa_RepetirARetornarResultado() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        String resultado = retentativaService.executar(() -> {
+            if (tentativas.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Vaga.class, 400L);
+            }
+            return "ok";
+        });
+
+        assertThat(resultado).isEqualTo("ok");
+        assertThat(tentativas).hasValue(2);
+    }
+
+    @Test
+    public void executar_ComConflitoEmTodasAsTentativas_RepassarConflito() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        assertThatThrownBy(() -> retentativaService.executar(() -> {
+            tentativas.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Vaga.class, 400L);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(tentativas).hasValue(3);
+    }
+}
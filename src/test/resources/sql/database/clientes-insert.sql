@@ -4,4 +4,7 @@ insert into USUARIOS (id, username, password, role) values (102, 'bob@email.com'
 insert into USUARIOS (id, username, password, role) values (103, 'toby@email.com', '$2a$12$VQSVztr/M8tcwzcy9jJgFebpqybKpF4FVwM3zilhOAI4yL1iW3rJa', 'ROLE_CLIENTE');
 
 insert into CLIENTES (id, nome, cpf, id_usuario) values (10, 'Bianca Silva', '79074426050', 101);
-insert into CLIENTES (id, nome, cpf, id_usuario) values (20, 'Roberto Gomes', '55352517047', 102);
\ No newline at end of file
+insert into CLIENTES (id, nome, cpf, id_usuario) values (20, 'Roberto Gomes', '55352517047', 102);
+
+-- Os ids acima foram informados fora do gerador: a faixa abaixo de 1000 fica reservada na tabela sequencias
+update SEQUENCIAS set proximo_valor = 1000 where nome in ('usuarios', 'clientes') and proximo_valor < 1000;
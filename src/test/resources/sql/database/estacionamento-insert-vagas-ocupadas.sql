@@ -14,13 +14,16 @@ insert into vagas (id, codigo, status) values (300, 'A-03', 'OCUPADA');
 insert into vagas (id, codigo, status) values (400, 'A-04', 'OCUPADA');
 insert into vagas (id, codigo, status) values (500, 'A-05', 'OCUPADA');
 
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230313-101300', 'FIT-1010', 'FIAT', 'PALIO', 'VERDE', '2023-03-13 10:15:00', 22, 100);
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230314-101400', 'SIE-1020', 'FIAT', 'SIENA', 'BRANCO', '2023-03-14 10:15:00', 21, 200);
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230315-101500', 'FIT-1030', 'FIAT', 'PALIO', 'VERDE', '2023-03-14 10:15:00', 22, 300);
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230316-101600', 'SIE-1040', 'FIAT', 'SIENA', 'VERDE', '2023-03-14 10:15:00', 21, 400);
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230317-101700', 'SIE-1050', 'FIAT', 'SIENA', 'VERDE', '2023-03-14 10:15:00', 22, 500);
\ No newline at end of file
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (100, '20230313-101300', 'FIT-1010', 'FIAT', 'PALIO', 'VERDE', '2023-03-13 10:15:00', 22, 100);
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (200, '20230314-101400', 'SIE-1020', 'FIAT', 'SIENA', 'BRANCO', '2023-03-14 10:15:00', 21, 200);
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (300, '20230315-101500', 'FIT-1030', 'FIAT', 'PALIO', 'VERDE', '2023-03-14 10:15:00', 22, 300);
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (400, '20230316-101600', 'SIE-1040', 'FIAT', 'SIENA', 'VERDE', '2023-03-14 10:15:00', 21, 400);
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (500, '20230317-101700', 'SIE-1050', 'FIAT', 'SIENA', 'VERDE', '2023-03-14 10:15:00', 22, 500);
+
+-- Os ids acima foram informados fora do gerador: a faixa abaixo de 1000 fica reservada na tabela sequencias
+update SEQUENCIAS set proximo_valor = 1000 where nome in ('usuarios', 'clientes', 'vagas', 'clientes_tem_vagas') and proximo_valor < 1000;
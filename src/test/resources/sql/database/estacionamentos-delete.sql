@@ -1,3 +1,6 @@
+DELETE FROM RESUMOS_HORARIOS;
+DELETE FROM EVENTOS_OUTBOX;
+DELETE FROM CLIENTES_TEM_VAGAS_ARQUIVO;
 DELETE FROM CLIENTES_TEM_VAGAS;
 DELETE FROM CLIENTES;
 DELETE FROM VAGAS;
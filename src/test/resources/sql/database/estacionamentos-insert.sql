@@ -14,9 +14,12 @@ insert into vagas (id, codigo, status) values (300, 'A-03', 'OCUPADA');
 insert into vagas (id, codigo, status) values (400, 'A-04', 'LIVRE');
 insert into vagas (id, codigo, status) values (500, 'A-05', 'LIVRE');
 
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230313-101300', 'FIT-1020', 'FIAT', 'PALIO', 'VERDE', '2023-03-13 10:15:00', 22, 100);
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230314-101400', 'SIE-1020', 'FIAT', 'SIENA', 'BRANCO', '2023-03-14 10:15:00', 21, 200);
-insert into clientes_tem_vagas (numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
-    values ('20230315-101500', 'FIT-1030', 'FIAT', 'PALIO', 'VERDE', '2023-03-14 10:15:00', 22, 300);
\ No newline at end of file
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (100, '20230313-101300', 'FIT-1020', 'FIAT', 'PALIO', 'VERDE', '2023-03-13 10:15:00', 22, 100);
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (200, '20230314-101400', 'SIE-1020', 'FIAT', 'SIENA', 'BRANCO', '2023-03-14 10:15:00', 21, 200);
+insert into clientes_tem_vagas (id, numero_recibo, placa, marca, modelo, cor, data_entrada, id_cliente, id_vaga)
+    values (300, '20230315-101500', 'FIT-1030', 'FIAT', 'PALIO', 'VERDE', '2023-03-14 10:15:00', 22, 300);
+
+-- Os ids acima foram informados fora do gerador: a faixa abaixo de 1000 fica reservada na tabela sequencias
+update SEQUENCIAS set proximo_valor = 1000 where nome in ('usuarios', 'clientes', 'vagas', 'clientes_tem_vagas') and proximo_valor < 1000;
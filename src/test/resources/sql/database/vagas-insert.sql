@@ -5,4 +5,7 @@ insert into USUARIOS (id, username, password, role) values (102, 'bob@email.com'
 insert into VAGAS (id, codigo, status) values (10, 'A-01', 'LIVRE');
 insert into VAGAS (id, codigo, status) values (20, 'A-02', 'LIVRE');
 insert into VAGAS (id, codigo, status) values (30, 'A-03', 'OCUPADA');
-insert into VAGAS (id, codigo, status) values (40, 'A-04', 'LIVRE');
\ No newline at end of file
+insert into VAGAS (id, codigo, status) values (40, 'A-04', 'LIVRE');
+
+-- Os ids acima foram informados fora do gerador: a faixa abaixo de 1000 fica reservada na tabela sequencias
+update SEQUENCIAS set proximo_valor = 1000 where nome in ('usuarios', 'vagas') and proximo_valor < 1000;